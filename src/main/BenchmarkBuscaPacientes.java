@@ -0,0 +1,97 @@
+package main;
+
+import modelo.PacienteResumo;
+import servico.PacienteServico;
+import utilitario.JPAUtil;
+import utilitario.ValidadorCpf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compara o tempo da busca de pacientes por prefixo feita no índice em memória
+ * com a mesma busca feita no banco via JPQL {@code LIKE}.
+ * <p>
+ * Usa os pacientes já cadastrados (por exemplo, importados de um CSV) para sortear
+ * prefixos de nome e de CPF. Uso:
+ * {@code java main.BenchmarkBuscaPacientes [quantidadeBuscas] [limite]}
+ * (padrão: 2000 buscas, 20 resultados por busca).
+ * </p>
+ */
+public class BenchmarkBuscaPacientes {
+
+    private static final int AMOSTRA_PACIENTES = 2000;
+    private static final int BUSCAS_AQUECIMENTO = 200;
+
+    public static void main(String[] args) {
+        int quantidadeBuscas = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int limite = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        PacienteServico pacienteServico = new PacienteServico();
+
+        try {
+            List<String> termos = sortearTermos(pacienteServico, quantidadeBuscas);
+            if (termos.isEmpty()) {
+                System.out.println("Nenhum paciente cadastrado. Importe pacientes antes de executar o benchmark.");
+                return;
+            }
+            System.out.println("Pacientes cadastrados: " + pacienteServico.contarPacientes());
+
+            long inicioMontagem = System.nanoTime();
+            pacienteServico.buscarPacientesPorPrefixo("", 1);
+            System.out.printf("Montagem do índice em memória: %.1f ms%n", (System.nanoTime() - inicioMontagem) / 1_000_000.0);
+
+            // Aquecimento do JIT e do cache de consultas do Hibernate
+            for (int i = 0; i < BUSCAS_AQUECIMENTO; i++) {
+                String termo = termos.get(i % termos.size());
+                pacienteServico.buscarPacientesPorPrefixo(termo, limite);
+                pacienteServico.buscarPacientesPorPrefixoNoBanco(termo, limite);
+            }
+
+            long resultadosIndice = 0;
+            long inicio = System.nanoTime();
+            for (String termo : termos) {
+                resultadosIndice += pacienteServico.buscarPacientesPorPrefixo(termo, limite).size();
+            }
+            long tempoIndice = System.nanoTime() - inicio;
+
+            long resultadosBanco = 0;
+            inicio = System.nanoTime();
+            for (String termo : termos) {
+                resultadosBanco += pacienteServico.buscarPacientesPorPrefixoNoBanco(termo, limite).size();
+            }
+            long tempoBanco = System.nanoTime() - inicio;
+
+            double mediaIndiceUs = tempoIndice / 1000.0 / termos.size();
+            double mediaBancoUs = tempoBanco / 1000.0 / termos.size();
+            System.out.printf("Índice em memória: %.2f µs por busca (%d resultados)%n", mediaIndiceUs, resultadosIndice);
+            System.out.printf("JPQL LIKE:         %.2f µs por busca (%d resultados)%n", mediaBancoUs, resultadosBanco);
+            System.out.printf("Ganho: %.1fx%n", mediaBancoUs / mediaIndiceUs);
+        } finally {
+            JPAUtil.close();
+        }
+    }
+
+    /**
+     * Sorteia prefixos de 1 a 4 letras do nome e de 3 a 6 dígitos do CPF de pacientes reais.
+     */
+    private static List<String> sortearTermos(PacienteServico pacienteServico, int quantidade) {
+        List<PacienteResumo> amostra = pacienteServico.listarResumoPacientes(0, AMOSTRA_PACIENTES);
+        List<String> termos = new ArrayList<>(quantidade);
+        if (amostra.isEmpty()) {
+            return termos;
+        }
+        Random aleatorio = new Random(42);
+        for (int tentativas = 0; termos.size() < quantidade && tentativas < quantidade * 10; tentativas++) {
+            PacienteResumo paciente = amostra.get(aleatorio.nextInt(amostra.size()));
+            String cpf = ValidadorCpf.somenteDigitos(paciente.getCpf());
+            if (termos.size() % 4 == 3 && cpf.length() >= 6) {
+                termos.add(cpf.substring(0, 3 + aleatorio.nextInt(4)));
+            } else if (paciente.getNome() != null && !paciente.getNome().isBlank()) {
+                String nome = paciente.getNome().trim();
+                termos.add(nome.substring(0, Math.min(nome.length(), 1 + aleatorio.nextInt(4))));
+            }
+        }
+        return termos;
+    }
+}
@@ -3,6 +3,11 @@ package main;
 import modelo.*;
 import servico.*;
 import utilitario.*;
+import javax.persistence.OptimisticLockException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -19,9 +24,73 @@ public class Main {
     public static PacienteServico pacienteServico = new PacienteServico();
     public static MedicoServico medicoServico = new MedicoServico(pacienteServico);
     public static ConsultaServico consultaServico = new ConsultaServico();
-    public static SecretariaServico secretariaServico = new SecretariaServico(pacienteServico, consultaServico);
     public static GerenciadorDeMensagensServico gerenciadorDeMensagensServico = new GerenciadorDeMensagensServico();
+    public static LembreteServico lembreteServico = new LembreteServico(consultaServico, gerenciadorDeMensagensServico);
+    public static SecretariaServico secretariaServico = new SecretariaServico(pacienteServico, consultaServico, lembreteServico);
+    public static ImportacaoPacientesServico importacaoPacientesServico = new ImportacaoPacientesServico(pacienteServico);
+    public static AgendamentoServico agendamentoServico = new AgendamentoServico(consultaServico, medicoServico);
+    public static AgendadorLembretes agendadorLembretes = new AgendadorLembretes(consultaServico, lembreteServico);
+    public static ExportacaoRelatorioServico exportacaoRelatorioServico = new ExportacaoRelatorioServico();
 
+    /**
+     * Quantidade de registros lidos do banco por vez nas listagens do console.
+     */
+    private static final int TAMANHO_PAGINA = 20;
+    /**
+     * Quantidade de horários livres sugeridos no agendamento de consultas.
+     */
+    private static final int QUANTIDADE_SUGESTOES = 5;
+
+
+    private static boolean aplicacaoIniciada;
+    private static boolean aplicacaoEncerrada;
+
+    /**
+     * Prepara o banco e os serviços de segundo plano, uma única vez por execução: ajusta as
+     * sequências de IDs de bancos antigos, completa o nome normalizado (usado na busca) e
+     * grava apenas com dígitos o CPF de pacientes antigos, remove a restrição antiga dos
+     * lembretes e inicia o agendador de lembretes antecipados. Também registra o encerramento
+     * da aplicação para quando a JVM terminar, por qualquer caminho.
+     * <p>
+     * Chamadas repetidas não fazem nada; uma chamada feita enquanto outra está em andamento
+     * aguarda o seu término, de modo que as telas podem chamá-lo antes de usar o banco.
+     * </p>
+     */
+    public static synchronized void iniciarAplicacao() {
+        if (aplicacaoIniciada) {
+            return;
+        }
+        int sequencias = AjusteSequencias.ajustar();
+        if (sequencias > 0) {
+            System.out.println(sequencias + " sequência(s) de IDs ajustadas aos registros existentes.");
+        }
+        int normalizados = pacienteServico.preencherNomesBusca();
+        if (normalizados > 0) {
+            System.out.println(normalizados + " paciente(s) preparados para a busca por nome.");
+        }
+        int cpfsNormalizados = pacienteServico.normalizarCpfs();
+        if (cpfsNormalizados > 0) {
+            System.out.println(cpfsNormalizados + " CPF(s) gravados apenas com dígitos.");
+        }
+        lembreteServico.removerRestricaoUnicaAntiga();
+        agendadorLembretes.iniciar();
+        Runtime.getRuntime().addShutdownHook(new Thread(Main::encerrarAplicacao, "encerramento-aplicacao"));
+        aplicacaoIniciada = true;
+    }
+
+    /**
+     * Para o agendador de lembretes, encerra a fila de envio de mensagens e fecha a
+     * EntityManagerFactory. Chamadas repetidas não fazem nada.
+     */
+    public static synchronized void encerrarAplicacao() {
+        if (aplicacaoEncerrada) {
+            return;
+        }
+        aplicacaoEncerrada = true;
+        agendadorLembretes.encerrar();
+        gerenciadorDeMensagensServico.encerrar();
+        JPAUtil.close();
+    }
 
     /**
      * Inicializa dados mock (pacientes, médicos e consultas) para facilitar os testes
@@ -36,11 +105,11 @@ public class Main {
 
         Endereco end1 = new Endereco("Rua A", "100", "", "Centro", "Maringa", "PR");
         Contato cont1 = new Contato("44998765432", "joao.silva@email.com");
-        pacienteServico.cadastrarPaciente("João Silva", "12345678900", LocalDate.of(1990, 5, 15), end1, cont1, TipoConvenio.PLANO_SAUDE);
+        Paciente paciente1 = cadastrarPacienteInicial("João Silva", "12345678900", LocalDate.of(1990, 5, 15), end1, cont1, TipoConvenio.PLANO_SAUDE);
 
         Endereco end2 = new Endereco("Av. Brasil", "50", "Apto 101", "Zona 7", "Maringa", "PR");
         Contato cont2 = new Contato("44991234567", "");
-        pacienteServico.cadastrarPaciente("Maria Oliveira", "09876543211", LocalDate.of(1985, 10, 20), end2, cont2, TipoConvenio.PARTICULAR);
+        Paciente paciente2 = cadastrarPacienteInicial("Maria Oliveira", "09876543211", LocalDate.of(1985, 10, 20), end2, cont2, TipoConvenio.PARTICULAR);
 
         Medico medico1 = new Medico(0, "Dr. Pedro Santos", "11122233344", 8000.0f, "CRM/PR 12345", "Cardiologia");
         Medico medico2 = new Medico(0, "Dra. Ana Costa", "55566677788", 9500.0f, "CRM/PR 67890", "Dermatologia");
@@ -52,23 +121,36 @@ public class Main {
         Medico medicoPersistido1 = medicosPersistidos.get(0);
         Medico medicoPersistido2 = medicosPersistidos.get(1);
 
-        consultaServico.cadastrarConsulta(LocalDateTime.now().plusHours(1), medicoPersistido1, pacienteServico.buscarPacientePorId(1), TipoConsulta.NORMAL);
+        consultaServico.cadastrarConsulta(LocalDateTime.now().plusHours(1), medicoPersistido1, paciente1, TipoConsulta.NORMAL);
 
         LocalDateTime amanha = LocalDate.now().plusDays(1).atStartOfDay();
-        consultaServico.cadastrarConsulta(amanha.withHour(9).withMinute(0), medicoPersistido2, pacienteServico.buscarPacientePorId(2), TipoConsulta.RETORNO);
-        consultaServico.cadastrarConsulta(amanha.withHour(10).withMinute(0), medicoPersistido1, pacienteServico.buscarPacientePorId(1), TipoConsulta.NORMAL);
+        consultaServico.cadastrarConsulta(amanha.withHour(9).withMinute(0), medicoPersistido2, paciente2, TipoConsulta.RETORNO);
+        consultaServico.cadastrarConsulta(amanha.withHour(10).withMinute(0), medicoPersistido1, paciente1, TipoConsulta.NORMAL);
 
         System.out.println("--- Dados iniciais (2 Pacientes, 2 Médicos e 3 Consultas) carregados. ---");
     }
 
+    /**
+     * Cadastra um paciente dos dados iniciais, ou reaproveita o já existente com o mesmo CPF.
+     */
+    private static Paciente cadastrarPacienteInicial(String nome, String cpf, LocalDate dataNascimento, Endereco endereco, Contato contato, TipoConvenio tipoConvenio) {
+        Paciente existente = pacienteServico.buscarPacientePorCpf(cpf);
+        if (existente != null) {
+            return existente;
+        }
+        return pacienteServico.cadastrarPaciente(nome, cpf, dataNascimento, endereco, contato, tipoConvenio);
+    }
+
     /**
      * O ponto de entrada da aplicação.
-     * Inicializa os dados e exibe o menu principal para a interação do usuário.
+     * Inicia o aquecimento do JPA, prepara a aplicação, inicializa os dados e exibe o menu principal para a interação do usuário.
      *
      * @param args Argumentos de linha de comando (não utilizados).
      */
     public static void main(String[] args) {
+        JPAUtil.iniciarAquecimento();
         Scanner scanner = new Scanner(System.in);
+        iniciarAplicacao();
         inicializarDados();
         int opcao = -1;
 
@@ -104,6 +186,7 @@ public class Main {
         } while (opcao != 0);
 
         scanner.close();
+        encerrarAplicacao();
     }
 
     /**
@@ -118,6 +201,9 @@ public class Main {
             System.out.println("1. Gerenciar Pacientes");
             System.out.println("2. Gerenciar Consultas (Agendar/Cancelar)");
             System.out.println("3. Gerar Relatório de Consultas do Dia Seguinte");
+            System.out.println("4. Processar Lembretes Pendentes");
+            System.out.println("5. Gerar Lembretes do Dia Seguinte (E-mail e SMS)");
+            System.out.println("6. Exportar Consultas do Dia Seguinte (CSV/JSON)");
             System.out.println("0. Voltar ao Menu Principal");
             System.out.print("Escolha a opção: ");
 
@@ -135,6 +221,15 @@ public class Main {
                     case 3:
                         gerarRelatorioConsultasSecretaria(scanner);
                         break;
+                    case 4:
+                        processarLembretesPendentes();
+                        break;
+                    case 5:
+                        gerarLembretesDiaSeguinte();
+                        break;
+                    case 6:
+                        exportarConsultasDiaSeguinte(scanner);
+                        break;
                     case 0:
                         System.out.println("Voltando...");
                         break;
@@ -162,6 +257,7 @@ public class Main {
             System.out.println("2. Atualizar Dados do Paciente");
             System.out.println("3. Remover Paciente");
             System.out.println("4. Listar Todos os Pacientes");
+            System.out.println("5. Importar Pacientes de Arquivo CSV");
             System.out.println("0. Voltar ao Menu Secretária");
             System.out.print("Escolha a opção: ");
 
@@ -180,7 +276,10 @@ public class Main {
                         removerPaciente(scanner);
                         break;
                     case 4:
-                        listarPacientes();
+                        listarPacientes(scanner);
+                        break;
+                    case 5:
+                        importarPacientesCsv(scanner);
                         break;
                     case 0:
                         break;
@@ -236,8 +335,12 @@ public class Main {
         scanner.nextLine();
         TipoConvenio tipoConvenio = (tipoConvenioOp == 1) ? TipoConvenio.PARTICULAR : TipoConvenio.PLANO_SAUDE;
 
-        Paciente novoPaciente = secretariaServico.cadastrarPaciente(nome, cpf, dataNascimento, endereco, contato, tipoConvenio);
-        System.out.println("Paciente cadastrado com sucesso! ID: " + novoPaciente.getId());
+        try {
+            Paciente novoPaciente = secretariaServico.cadastrarPaciente(nome, cpf, dataNascimento, endereco, contato, tipoConvenio);
+            System.out.println("Paciente cadastrado com sucesso! ID: " + novoPaciente.getId());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Erro: " + e.getMessage());
+        }
     }
 
     /**
@@ -288,10 +391,14 @@ public class Main {
         scanner.nextLine();
         TipoConvenio tipoConvenio = (tipoConvenioOp == 1) ? TipoConvenio.PARTICULAR : TipoConvenio.PLANO_SAUDE;
 
-        if (secretariaServico.atualizarPaciente(id, nome, endereco, contato, tipoConvenio)) {
-            System.out.println("Paciente atualizado com sucesso!");
-        } else {
-            System.out.println("Falha ao atualizar paciente (ID não encontrado, embora já checado).");
+        try {
+            if (secretariaServico.atualizarPaciente(id, paciente.getVersao(), nome, endereco, contato, tipoConvenio)) {
+                System.out.println("Paciente atualizado com sucesso!");
+            } else {
+                System.out.println("Falha ao atualizar paciente (ID não encontrado, embora já checado).");
+            }
+        } catch (OptimisticLockException e) {
+            System.out.println(e.getMessage());
         }
     }
 
@@ -313,22 +420,90 @@ public class Main {
         }
     }
 
+    /**
+     * Solicita o caminho de um arquivo CSV e importa os pacientes através do ImportacaoPacientesServico,
+     * exibindo o progresso a cada lote gravado e o resumo ao final.
+     *
+     * @param scanner Objeto Scanner para leitura da entrada do usuário.
+     */
+    public static void importarPacientesCsv(Scanner scanner) {
+        System.out.println("\n--- IMPORTAR PACIENTES (CSV) ---");
+        System.out.println("Formato: nome;cpf;dataNascimento;rua;numero;complemento;bairro;cidade;uf;telefone;email;convenio");
+        System.out.print("Caminho do arquivo: ");
+        Path arquivo = Paths.get(scanner.nextLine().trim());
+
+        try {
+            ResultadoImportacao resultado = importacaoPacientesServico.importar(arquivo,
+                    parcial -> System.out.printf("  ... %d linhas processadas (%d importadas)%n",
+                            parcial.getLinhasLidas(), parcial.getImportados()));
+
+            System.out.println("Importação concluída. " + resultado);
+            for (String erro : resultado.getErros()) {
+                System.out.println("  " + erro);
+            }
+        } catch (IOException e) {
+            System.out.println("Falha ao importar o arquivo: " + e.getMessage());
+        }
+    }
+
     /**
      * Lista todos os pacientes cadastrados no PacienteServico.
+     * Os pacientes são lidos do banco uma página por vez, então a memória usada
+     * não depende do tamanho do cadastro.
      */
     public static void listarPacientes() {
         System.out.println("\n--- LISTA DE PACIENTES ---");
-        if (pacienteServico.getListaPacientes().isEmpty()) {
+        Pagina<Paciente> pagina = pacienteServico.listarPacientesPaginado(null, TAMANHO_PAGINA);
+        if (pagina.isVazia()) {
+            System.out.println("Nenhum paciente cadastrado.");
+            return;
+        }
+
+        imprimirPacientes(pagina);
+        while (pagina.isTemProxima()) {
+            pagina = pacienteServico.listarPacientesPaginado(pagina.getUltimo().getId(), TAMANHO_PAGINA);
+            imprimirPacientes(pagina);
+        }
+    }
+
+    /**
+     * Lista os pacientes página por página, aguardando o usuário pedir a próxima.
+     *
+     * @param scanner Objeto Scanner para leitura da entrada do usuário.
+     */
+    public static void listarPacientes(Scanner scanner) {
+        System.out.println("\n--- LISTA DE PACIENTES ---");
+        Pagina<Paciente> pagina = pacienteServico.listarPacientesPaginado(null, TAMANHO_PAGINA);
+        if (pagina.isVazia()) {
             System.out.println("Nenhum paciente cadastrado.");
             return;
         }
 
-        for (Paciente p : pacienteServico.getListaPacientes()) {
+        imprimirPacientes(pagina);
+        while (pagina.isTemProxima() && desejaProximaPagina(scanner)) {
+            pagina = pacienteServico.listarPacientesPaginado(pagina.getUltimo().getId(), TAMANHO_PAGINA);
+            imprimirPacientes(pagina);
+        }
+    }
+
+    private static void imprimirPacientes(Pagina<Paciente> pagina) {
+        for (Paciente p : pagina.getItens()) {
             System.out.printf("ID: %d | Nome: %s | CPF: %s | Convênio: %s | Contato: %s / %s%n",
                     p.getId(), p.getNome(), p.getCpf(), p.getTipoConvenio(), p.getContato().getTelefone(), p.getContato().getEmail());
         }
     }
 
+    /**
+     * Pergunta ao usuário se deseja ver a próxima página de uma listagem.
+     *
+     * @param scanner Objeto Scanner para leitura da entrada do usuário.
+     * @return {@code true} se o usuário pressionou Enter, {@code false} se digitou 0.
+     */
+    private static boolean desejaProximaPagina(Scanner scanner) {
+        System.out.print("-- Enter para a próxima página, 0 para parar: ");
+        return !scanner.nextLine().trim().equals("0");
+    }
+
     /**
      * Exibe o sub-menu de gerenciamento de consultas (Secretária).
      *
@@ -356,7 +531,7 @@ public class Main {
                         cancelarConsulta(scanner);
                         break;
                     case 3:
-                        listarConsultas();
+                        listarConsultas(scanner);
                         break;
                     case 0:
                         break;
@@ -401,19 +576,41 @@ public class Main {
             return;
         }
 
-        System.out.print("Data e Hora da Consulta (AAAA-MM-DDTHH:MM - Ex: 2025-12-31T14:30): ");
-        LocalDateTime dataHora = LocalDateTime.parse(scanner.nextLine());
-
         System.out.print("Tipo de Consulta (1 - NORMAL (60 min), 2 - RETORNO (30 min)): ");
         int tipoOp = scanner.nextInt();
         scanner.nextLine();
         TipoConsulta tipoConsulta = (tipoOp == 1) ? TipoConsulta.NORMAL : TipoConsulta.RETORNO;
 
-        Consulta novaConsulta = secretariaServico.cadastrarConsulta(dataHora, medico, paciente, tipoConsulta);
+        List<HorarioDisponivel> sugestoes = agendamentoServico.buscarHorariosLivres(medico, tipoConsulta, LocalDateTime.now(), QUANTIDADE_SUGESTOES);
+        if (sugestoes.isEmpty()) {
+            System.out.println("Nenhum horário livre nos próximos " + AgendamentoServico.DIAS_PESQUISADOS + " dias.");
+        } else {
+            System.out.println("Próximos horários livres:");
+            for (int i = 0; i < sugestoes.size(); i++) {
+                System.out.println((i + 1) + ". " + sugestoes.get(i));
+            }
+        }
+
+        System.out.print("Número do horário sugerido ou Data e Hora da Consulta (AAAA-MM-DDTHH:MM - Ex: 2025-12-31T14:30): ");
+        String entrada = scanner.nextLine().trim();
+        LocalDateTime dataHora;
+        if (entrada.matches("\\d{1,2}")) {
+            int escolha = Integer.parseInt(entrada);
+            if (escolha < 1 || escolha > sugestoes.size()) {
+                System.out.println("Horário sugerido inválido.");
+                return;
+            }
+            dataHora = sugestoes.get(escolha - 1).getInicio();
+        } else {
+            dataHora = LocalDateTime.parse(entrada);
+        }
 
-        if (novaConsulta != null) {
+        try {
+            Consulta novaConsulta = secretariaServico.cadastrarConsulta(dataHora, medico, paciente, tipoConsulta);
             System.out.printf("Consulta agendada! ID: %d | Data: %s | Médico: %s | Tipo: %s%n",
                     novaConsulta.getId(), novaConsulta.getDataHora().toString(), novaConsulta.getMedico().getNome(), novaConsulta.getTipo().toString());
+        } catch (ConflitoAgendamentoException e) {
+            System.out.println("Horário indisponível: " + e.getMessage());
         }
     }
 
@@ -436,19 +633,47 @@ public class Main {
     }
 
     /**
-     * Lista todas as consultas agendadas no ConsultaServico.
+     * Lista todas as consultas agendadas no ConsultaServico, lendo uma página por vez.
      */
     public static void listarConsultas() {
         System.out.println("\n--- LISTA DE CONSULTAS ---");
-        List<Consulta> lista = consultaServico.getListaConsultas();
-        if (lista.isEmpty()) {
+        Pagina<ConsultaResumo> pagina = consultaServico.listarResumoConsultasPaginado(null, TAMANHO_PAGINA);
+        if (pagina.isVazia()) {
+            System.out.println("Nenhuma consulta agendada.");
+            return;
+        }
+
+        imprimirConsultas(pagina);
+        while (pagina.isTemProxima()) {
+            pagina = consultaServico.listarResumoConsultasPaginado(pagina.getUltimo(), TAMANHO_PAGINA);
+            imprimirConsultas(pagina);
+        }
+    }
+
+    /**
+     * Lista as consultas página por página, aguardando o usuário pedir a próxima.
+     *
+     * @param scanner Objeto Scanner para leitura da entrada do usuário.
+     */
+    public static void listarConsultas(Scanner scanner) {
+        System.out.println("\n--- LISTA DE CONSULTAS ---");
+        Pagina<ConsultaResumo> pagina = consultaServico.listarResumoConsultasPaginado(null, TAMANHO_PAGINA);
+        if (pagina.isVazia()) {
             System.out.println("Nenhuma consulta agendada.");
             return;
         }
 
-        for (Consulta c : lista) {
+        imprimirConsultas(pagina);
+        while (pagina.isTemProxima() && desejaProximaPagina(scanner)) {
+            pagina = consultaServico.listarResumoConsultasPaginado(pagina.getUltimo(), TAMANHO_PAGINA);
+            imprimirConsultas(pagina);
+        }
+    }
+
+    private static void imprimirConsultas(Pagina<ConsultaResumo> pagina) {
+        for (ConsultaResumo c : pagina.getItens()) {
             System.out.printf("ID: %d | Data/Hora: %s | Paciente: %s (ID: %d) | Médico: %s | Tipo: %s%n",
-                    c.getId(), c.getDataHora().toString(), c.getPaciente().getNome(), c.getPaciente().getId(), c.getMedico().getNome(), c.getTipo().toString());
+                    c.getId(), c.getDataHora().toString(), c.getNomePaciente(), c.getIdPaciente(), c.getNomeMedico(), c.getTipo().toString());
         }
     }
 
@@ -468,7 +693,7 @@ public class Main {
             return;
         }
 
-        List<Consulta> consultasFiltradas = secretariaServico.gerarRelatorioConsultas(LocalDate.now().atStartOfDay(), filtro);
+        List<Consulta> consultasFiltradas = secretariaServico.gerarRelatorioERegistrarLembretes(LocalDate.now().atStartOfDay(), filtro);
 
         if (consultasFiltradas.isEmpty()) {
             System.out.println("Nenhuma consulta agendada para o dia seguinte com o contato de " + filtro + ".");
@@ -486,15 +711,72 @@ public class Main {
 
         System.out.println("    -> SIMULANDO ENVIO de " + filtro + " para confirmação.");
 
-        if (filtro.equals("EMAIL")) {
-            gerenciadorDeMensagensServico.enviarEmails(consultasFiltradas);
-        } else {
-            gerenciadorDeMensagensServico.enviarMensagensSMS(consultasFiltradas);
-        }
+        enviarLembretesPendentes();
 
         System.out.println("Relatório de confirmação e simulação de envio de mensagem concluídos.");
     }
 
+    /**
+     * Gera os lembretes de todas as consultas do dia seguinte em uma única leitura, cada
+     * paciente no seu canal preferido (e-mail ou, na falta dele, SMS), e os envia.
+     */
+    public static void gerarLembretesDiaSeguinte() {
+        System.out.println("\n--- LEMBRETES DO DIA SEGUINTE (E-MAIL E SMS) ---");
+        ResultadoGeracaoLembretes geracao = secretariaServico.gerarLembretesDiaSeguinte(LocalDate.now().atStartOfDay());
+        if (geracao.getConsultas().isEmpty()) {
+            System.out.println("Nenhuma consulta agendada para o dia seguinte.");
+            return;
+        }
+
+        for (Consulta c : geracao.getConsultas()) {
+            CanalMensagem canal = geracao.getCanal(c);
+            System.out.printf("Consulta ID %d | Paciente: %s | Data/Hora: %s | Lembrete: %s%n",
+                    c.getId(), c.getPaciente().getNome(), c.getDataHora().toString(), canal != null ? canal : "-");
+        }
+        System.out.println(geracao);
+        enviarLembretesPendentes();
+    }
+
+    /**
+     * Exporta para um arquivo CSV ou JSON (conforme a extensão) todas as consultas do dia seguinte.
+     *
+     * @param scanner Objeto Scanner para leitura da entrada do usuário.
+     */
+    public static void exportarConsultasDiaSeguinte(Scanner scanner) {
+        System.out.println("\n--- EXPORTAR CONSULTAS DO DIA SEGUINTE ---");
+        System.out.print("Caminho do arquivo (.csv ou .json): ");
+        Path arquivo = Paths.get(scanner.nextLine().trim());
+
+        LocalDateTime amanha = LocalDate.now().plusDays(1).atStartOfDay();
+        try {
+            ResultadoExportacao resultado = exportacaoRelatorioServico.exportarConsultas(amanha, amanha.plusDays(1), null,
+                    arquivo, FormatoExportacao.deArquivo(arquivo));
+            System.out.println("Exportação concluída. " + resultado);
+        } catch (IllegalArgumentException | IOException e) {
+            System.out.println("Falha ao exportar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Envia os lembretes pendentes da fila e exibe o resultado. Se o agendador de lembretes
+     * já estiver enviando em segundo plano, os pendentes são entregues por ele.
+     */
+    private static void enviarLembretesPendentes() {
+        ResultadoRelayLembretes resultado = lembreteServico.processarPendentesSeLivre();
+        System.out.println(resultado != null ? resultado : "Os lembretes estão sendo enviados em segundo plano.");
+    }
+
+    /**
+     * Envia os lembretes pendentes da fila (por exemplo, os reagendados após uma falha)
+     * e exibe a situação da fila antes e depois do envio.
+     */
+    public static void processarLembretesPendentes() {
+        System.out.println("\n--- LEMBRETES PENDENTES ---");
+        System.out.println("Situação da fila: " + lembreteServico.contarPorStatus());
+        enviarLembretesPendentes();
+        System.out.println("Situação da fila: " + lembreteServico.contarPorStatus());
+    }
+
     /**
      * Exibe o menu de opções para o perfil de Médico.
      *
@@ -813,20 +1095,27 @@ public class Main {
             return;
         }
 
-        List<Prontuario> historico = paciente.getHistoricoProntuarios();
+        List<Prontuario> historico = medicoServico.listarProntuarios(idPaciente, null, TAMANHO_PAGINA);
         if (historico.isEmpty()) {
             System.out.println("Nenhum prontuário encontrado para o paciente " + paciente.getNome() + ".");
             return;
         }
 
         System.out.println("\n--- HISTÓRICO DE PRONTUÁRIOS - Paciente: " + paciente.getNome() + " ---");
-        for (Prontuario p : historico) {
-            System.out.printf("ID: %d | Data: %s | Médico: %s (CRM: %s)%n",
-                    p.getId(), p.getData(), p.getMedico().getNome(), p.getMedico().getCrm());
-            System.out.println("  Sintomas: " + p.getSintomas());
-            System.out.println("  Diagnóstico: " + p.getDiagnostico());
-            System.out.println("  Prescrição: " + p.getPrescricao());
-            System.out.println("--------------------------------------------------");
+        while (!historico.isEmpty()) {
+            Integer ultimoId = null;
+            for (Prontuario p : historico) {
+                System.out.printf("ID: %d | Data: %s | Médico: %s (CRM: %s)%n",
+                        p.getId(), p.getData(), p.getMedico().getNome(), p.getMedico().getCrm());
+                System.out.println("  Sintomas: " + p.getSintomas());
+                System.out.println("  Diagnóstico: " + p.getDiagnostico());
+                System.out.println("  Prescrição: " + p.getPrescricao());
+                System.out.println("--------------------------------------------------");
+                ultimoId = p.getId();
+            }
+            historico = historico.size() < TAMANHO_PAGINA
+                    ? new ArrayList<>()
+                    : medicoServico.listarProntuarios(idPaciente, ultimoId, TAMANHO_PAGINA);
         }
     }
 
@@ -857,6 +1146,7 @@ public class Main {
             System.out.println("2. Gerar Atestado");
             System.out.println("3. Gerar Declaração de Acompanhamento");
             System.out.println("4. Gerar Relatorios de Clientes Atendidos no Mês.");
+            System.out.println("5. Exportar Clientes Atendidos no Mês (CSV/JSON)");
             System.out.println("0. Voltar ao Menu Médico");
             System.out.print("Escolha a opção: ");
 
@@ -877,6 +1167,9 @@ public class Main {
                     case 4:
                         gerarRelatorioClientesAtendidos(scanner);
                         break;
+                    case 5:
+                        exportarClientesAtendidos(scanner);
+                        break;
                     case 0:
                         break;
                     default:
@@ -1002,9 +1295,7 @@ public class Main {
         int ano = scanner.nextInt();
         scanner.nextLine();
 
-        List<Consulta> todasConsultas = consultaServico.getListaConsultas();
-
-        List<Paciente> pacientes = medicoServico.getClientesAtendidosMes(idMedico, mes, ano, todasConsultas);
+        List<PacienteResumo> pacientes = medicoServico.getClientesAtendidosMes(idMedico, mes, ano);
 
         if (pacientes.isEmpty()) {
             System.out.printf("Nenhum paciente único atendido por %s no Mês/Ano: %d/%d%n",
@@ -1015,12 +1306,46 @@ public class Main {
         System.out.printf("--- PACIENTES ATENDIDOS POR %s (Mês/Ano: %d/%d) ---%n",
                 medico.getNome(), mes, ano);
 
-        for (Paciente p : pacientes) {
+        for (PacienteResumo p : pacientes) {
             System.out.printf("ID: %d | Nome: %s | CPF: %s%n",
                     p.getId(), p.getNome(), p.getCpf());
         }
     }
 
+    /**
+     * Exporta para um arquivo CSV ou JSON (conforme a extensão) os clientes atendidos por
+     * um médico em um mês/ano específico.
+     *
+     * @param scanner Objeto Scanner para leitura da entrada do usuário.
+     */
+    public static void exportarClientesAtendidos(Scanner scanner) {
+        System.out.println("\n--- EXPORTAR PACIENTES ATENDIDOS ---");
+
+        listarMedicos();
+        System.out.print("Digite o ID do médico: ");
+        int idMedico = scanner.nextInt();
+        scanner.nextLine();
+
+        System.out.print("Digite o Mês (1-12): ");
+        int mes = scanner.nextInt();
+        scanner.nextLine();
+
+        System.out.print("Digite o Ano (Ex: 2025): ");
+        int ano = scanner.nextInt();
+        scanner.nextLine();
+
+        System.out.print("Caminho do arquivo (.csv ou .json): ");
+        Path arquivo = Paths.get(scanner.nextLine().trim());
+
+        try {
+            ResultadoExportacao resultado = exportacaoRelatorioServico.exportarAtendidosMes(idMedico, mes, ano,
+                    arquivo, FormatoExportacao.deArquivo(arquivo));
+            System.out.println("Exportação concluída. " + resultado);
+        } catch (IllegalArgumentException | DateTimeException | IOException e) {
+            System.out.println("Falha ao exportar: " + e.getMessage());
+        }
+    }
+
     /**
      * Lista os médicos cadastrados no banco de dados através do MedicoServico.
      */
@@ -9,12 +9,23 @@ import java.time.LocalDateTime;
  * Representa o agendamento de uma Consulta na clínica.
  * Esta classe é central para o sistema, pois armazena a relação entre
  * um {@link Paciente}, um {@link Medico} e a data/hora em que o atendimento ocorrerá.
+ * <p>
+ * Um médico não pode ter duas consultas começando no mesmo horário (restrição única
+ * no banco, que vale também entre instâncias diferentes da aplicação), e a coluna de
+ * versão impede que duas alterações simultâneas da mesma consulta se sobrescrevam.
+ * </p>
  */
 @Entity
+@Table(indexes = @Index(name = "idx_consulta_datahora", columnList = "dataHora"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_consulta_medico_datahora", columnNames = {"medico_id", "dataHora"}))
 public class Consulta {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "consulta_seq")
+    @SequenceGenerator(name = "consulta_seq", sequenceName = "CONSULTA_SEQ", allocationSize = 50)
     private int id;
+    @Version
+    @Column(columnDefinition = "INTEGER DEFAULT 0 NOT NULL")
+    private int versao;
     private LocalDateTime dataHora;
 
     @ManyToOne
@@ -51,6 +62,10 @@ public class Consulta {
         this.id = id;
     }
 
+    public int getVersao() {
+        return versao;
+    }
+
     public LocalDateTime getDataHora() {
         return dataHora;
     }
@@ -82,4 +97,14 @@ public class Consulta {
     public void setTipo(TipoConsulta tipo) {
         this.tipo = tipo;
     }
+
+    /**
+     * Retorna o horário de término da consulta, de acordo com a duração do seu tipo.
+     * O intervalo ocupado pela consulta é [dataHora, dataHoraFim).
+     *
+     * @return A data e hora de término.
+     */
+    public LocalDateTime getDataHoraFim() {
+        return dataHora.plusMinutes(tipo.getDuracaoEmMinutos());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package modelo;
+
+import utilitario.TipoConsulta;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção leve de uma {@link Consulta}, usada nas listagens de consultas.
+ * Contém apenas os dados exibidos nas telas (data, paciente, médico e tipo),
+ * montados pelo banco em uma única consulta, sem carregar as entidades completas.
+ */
+public class ConsultaResumo {
+    private final int id;
+    private final LocalDateTime dataHora;
+    private final int idPaciente;
+    private final String nomePaciente;
+    private final String nomeMedico;
+    private final TipoConsulta tipo;
+
+    /**
+     * Cria um novo resumo de consulta.
+     *
+     * @param id           O ID da consulta.
+     * @param dataHora     A data e hora da consulta.
+     * @param idPaciente   O ID do paciente.
+     * @param nomePaciente O nome do paciente.
+     * @param nomeMedico   O nome do médico.
+     * @param tipo         O tipo da consulta.
+     */
+    public ConsultaResumo(int id, LocalDateTime dataHora, int idPaciente, String nomePaciente, String nomeMedico, TipoConsulta tipo) {
+        this.id = id;
+        this.dataHora = dataHora;
+        this.idPaciente = idPaciente;
+        this.nomePaciente = nomePaciente;
+        this.nomeMedico = nomeMedico;
+        this.tipo = tipo;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public LocalDateTime getDataHora() {
+        return dataHora;
+    }
+
+    public int getIdPaciente() {
+        return idPaciente;
+    }
+
+    public String getNomePaciente() {
+        return nomePaciente;
+    }
+
+    public String getNomeMedico() {
+        return nomeMedico;
+    }
+
+    public TipoConsulta getTipo() {
+        return tipo;
+    }
+}
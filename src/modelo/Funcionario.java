@@ -1,13 +1,19 @@
 package modelo;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 /**
  * Classe abstrata base que define os atributos e comportamentos comuns
  * a todos os funcionários da clínica.
+ * Como os funcionários mudam raramente, a hierarquia é mantida no cache de segundo nível.
  */
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public abstract class Funcionario {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
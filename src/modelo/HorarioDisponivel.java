@@ -0,0 +1,55 @@
+package modelo;
+
+import utilitario.TipoConsulta;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Um horário livre na agenda de um médico, sugerido para o agendamento de uma consulta.
+ */
+public class HorarioDisponivel {
+    private static final DateTimeFormatter FORMATO_DATA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final Medico medico;
+    private final LocalDateTime inicio;
+    private final LocalDateTime fim;
+    private final TipoConsulta tipo;
+
+    /**
+     * Cria um novo horário disponível.
+     *
+     * @param medico O médico livre no horário.
+     * @param inicio O início do horário.
+     * @param fim    O término do horário (exclusivo).
+     * @param tipo   O tipo de consulta que cabe no horário.
+     */
+    public HorarioDisponivel(Medico medico, LocalDateTime inicio, LocalDateTime fim, TipoConsulta tipo) {
+        this.medico = medico;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.tipo = tipo;
+    }
+
+    public Medico getMedico() {
+        return medico;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public TipoConsulta getTipo() {
+        return tipo;
+    }
+
+    @Override
+    public String toString() {
+        return inicio.format(FORMATO_DATA_HORA) + " às " + fim.format(FORMATO_HORA) + " - " + medico.getNome();
+    }
+}
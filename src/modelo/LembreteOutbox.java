@@ -0,0 +1,167 @@
+package modelo;
+
+import utilitario.CanalMensagem;
+import utilitario.StatusLembrete;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Um lembrete de consulta na fila de saída (outbox).
+ * <p>
+ * O lembrete é gravado na mesma transação que gera o relatório de consultas e só depois
+ * é enviado por {@link servico.LembreteServico#processarPendentes()}, que registra aqui o
+ * resultado de cada tentativa. A restrição única (consulta, canal, antecedência) garante que
+ * cada consulta tenha no máximo um lembrete por canal e antecedência, mesmo que o relatório
+ * seja gerado várias vezes. Os lembretes do relatório têm antecedência 0; os gravados pelo
+ * {@link servico.AgendadorLembretes} guardam quantos minutos antes da consulta são enviados.
+ * </p>
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_lembrete_consulta_canal_antecedencia",
+        columnNames = {"consulta_id", "canal", "antecedenciaMinutos"}),
+        indexes = @Index(name = "idx_lembrete_status", columnList = "status, proximaTentativa"))
+public class LembreteOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lembrete_seq")
+    @SequenceGenerator(name = "lembrete_seq", sequenceName = "LEMBRETE_SEQ", allocationSize = 50)
+    private int id;
+    @Version
+    private int versao;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Consulta consulta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private CanalMensagem canal;
+    @Column(columnDefinition = "INTEGER DEFAULT 0 NOT NULL")
+    private int antecedenciaMinutos;
+    private String nomeDestinatario;
+    private String destinatario;
+    @Column(length = 1000)
+    private String texto;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private StatusLembrete status;
+    private int tentativas;
+    private LocalDateTime criadoEm;
+    private LocalDateTime proximaTentativa;
+    private LocalDateTime reservadoAte;
+    private LocalDateTime enviadoEm;
+    @Column(length = 500)
+    private String ultimoErro;
+
+    public LembreteOutbox() {
+    }
+
+    /**
+     * Cria um lembrete pendente, pronto para ser enviado.
+     *
+     * @param consulta         A consulta lembrada.
+     * @param canal            O canal de envio.
+     * @param nomeDestinatario O nome do paciente.
+     * @param destinatario     O e-mail ou telefone do paciente.
+     * @param texto            O texto do lembrete.
+     * @param criadoEm         O momento do registro.
+     */
+    public LembreteOutbox(Consulta consulta, CanalMensagem canal, String nomeDestinatario, String destinatario, String texto, LocalDateTime criadoEm) {
+        this(consulta, canal, 0, nomeDestinatario, destinatario, texto, criadoEm);
+    }
+
+    /**
+     * Cria um lembrete pendente enviado com uma antecedência fixa em relação à consulta.
+     *
+     * @param consulta            A consulta lembrada.
+     * @param canal               O canal de envio.
+     * @param antecedenciaMinutos Quantos minutos antes da consulta o lembrete é enviado (0 para os do relatório).
+     * @param nomeDestinatario    O nome do paciente.
+     * @param destinatario        O e-mail ou telefone do paciente.
+     * @param texto               O texto do lembrete.
+     * @param criadoEm            O momento do registro.
+     */
+    public LembreteOutbox(Consulta consulta, CanalMensagem canal, int antecedenciaMinutos, String nomeDestinatario,
+                          String destinatario, String texto, LocalDateTime criadoEm) {
+        this.consulta = consulta;
+        this.antecedenciaMinutos = antecedenciaMinutos;
+        this.canal = canal;
+        this.nomeDestinatario = nomeDestinatario;
+        this.destinatario = destinatario;
+        this.texto = texto;
+        this.status = StatusLembrete.PENDENTE;
+        this.criadoEm = criadoEm;
+        this.proximaTentativa = criadoEm;
+    }
+
+    /**
+     * Reserva o lembrete para um envio, contando mais uma tentativa.
+     *
+     * @param reservadoAte Até quando a reserva vale; depois disso, outro processamento pode retomá-lo.
+     */
+    public void reservar(LocalDateTime reservadoAte) {
+        this.status = StatusLembrete.ENVIANDO;
+        this.reservadoAte = reservadoAte;
+        this.tentativas++;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getVersao() {
+        return versao;
+    }
+
+    public Consulta getConsulta() {
+        return consulta;
+    }
+
+    public CanalMensagem getCanal() {
+        return canal;
+    }
+
+    public int getAntecedenciaMinutos() {
+        return antecedenciaMinutos;
+    }
+
+    public String getNomeDestinatario() {
+        return nomeDestinatario;
+    }
+
+    public String getDestinatario() {
+        return destinatario;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    public StatusLembrete getStatus() {
+        return status;
+    }
+
+    public int getTentativas() {
+        return tentativas;
+    }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public LocalDateTime getProximaTentativa() {
+        return proximaTentativa;
+    }
+
+    public LocalDateTime getReservadoAte() {
+        return reservadoAte;
+    }
+
+    public LocalDateTime getEnviadoEm() {
+        return enviadoEm;
+    }
+
+    public String getUltimoErro() {
+        return ultimoErro;
+    }
+}
@@ -1,5 +1,6 @@
 package modelo;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 
 /**
@@ -10,6 +11,7 @@ import javax.persistence.Entity;
  * especialização.
  */
 @Entity
+@Cacheable
 public class Medico extends Funcionario {
     private String crm;
     private String especializacao;
@@ -1,5 +1,6 @@
 package modelo;
 
+import utilitario.NormalizadorTexto;
 import utilitario.TipoConvenio;
 
 import javax.persistence.*;
@@ -9,13 +10,27 @@ import java.util.List;
 
 /**
  * Guarda todos os dados de um paciente (dados pessoais, prontuários, etc.).
+ * O nome também é gravado em uma forma normalizada (sem acentos e em maiúsculas),
+ * indexada, para a busca por prefixo usada na seleção de pacientes.
+ * O CPF é gravado apenas com dígitos e é único (a restrição também serve de índice
+ * para a busca por CPF).
+ * A coluna de versão faz com que duas alterações simultâneas do mesmo paciente não se
+ * sobrescrevam: a segunda falha com {@link OptimisticLockException}.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_paciente_nomebusca", columnList = "nomeBusca"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_paciente_cpf", columnNames = "cpf"))
 public class Paciente {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "paciente_seq")
+    @SequenceGenerator(name = "paciente_seq", sequenceName = "PACIENTE_SEQ", allocationSize = 50)
     private int id;
+    @Version
+    @Column(columnDefinition = "INTEGER DEFAULT 0 NOT NULL")
+    private int versao;
     private String nome;
+    private String nomeBusca;
+    @Column(length = 14)
     private String cpf;
     private LocalDate dataNascimento;
 
@@ -31,7 +46,7 @@ public class Paciente {
     @Embedded
     private DadosAdicionais dadosAdicionais;
 
-    @OneToMany(mappedBy = "paciente", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "paciente", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Prontuario> prontuarios;
 
     public Paciente() {
@@ -64,6 +79,10 @@ public class Paciente {
         return id;
     }
 
+    public int getVersao() {
+        return versao;
+    }
+
     public void setId(int id) {
         this.id = id;
     }
@@ -82,6 +101,21 @@ public class Paciente {
 
     public void setNome(String nome) {
         this.nome = nome;
+        atualizarNomeBusca();
+    }
+
+    public String getNomeBusca() {
+        return nomeBusca;
+    }
+
+    /**
+     * Recalcula o nome normalizado a partir do nome atual.
+     * Chamado automaticamente antes de o paciente ser inserido ou atualizado.
+     */
+    @PrePersist
+    @PreUpdate
+    public void atualizarNomeBusca() {
+        this.nomeBusca = NormalizadorTexto.normalizar(nome);
     }
 
     public LocalDate getDataNascimento() {
@@ -124,6 +158,14 @@ public class Paciente {
         this.dadosAdicionais = dadosAdicionais;
     }
 
+    /**
+     * Retorna o histórico completo de prontuários.
+     * A coleção é carregada sob demanda (LAZY), portanto só pode ser lida enquanto
+     * o paciente estiver associado a um EntityManager aberto. Para exibir o histórico,
+     * prefira a consulta paginada {@code MedicoServico.listarProntuarios}.
+     *
+     * @return A lista de prontuários do paciente.
+     */
     public List<Prontuario> getHistoricoProntuarios() {
         return prontuarios;
     }
@@ -0,0 +1,60 @@
+package modelo;
+
+/**
+ * Projeção leve de um {@link Paciente}, contendo apenas os dados de identificação.
+ * É montada diretamente pelas consultas JPQL (SELECT NEW), sem carregar endereço,
+ * dados adicionais ou prontuários, e é utilizada em relatórios e listagens.
+ */
+public class PacienteResumo {
+    private final int id;
+    private final String nome;
+    private final String cpf;
+    private final String telefone;
+
+    /**
+     * Cria um novo resumo de paciente.
+     *
+     * @param id   O ID do paciente.
+     * @param nome O nome do paciente.
+     * @param cpf  O CPF do paciente.
+     */
+    public PacienteResumo(int id, String nome, String cpf) {
+        this(id, nome, cpf, null);
+    }
+
+    /**
+     * Cria um novo resumo de paciente, incluindo o telefone de contato.
+     *
+     * @param id       O ID do paciente.
+     * @param nome     O nome do paciente.
+     * @param cpf      O CPF do paciente.
+     * @param telefone O telefone do paciente.
+     */
+    public PacienteResumo(int id, String nome, String cpf, String telefone) {
+        this.id = id;
+        this.nome = nome;
+        this.cpf = cpf;
+        this.telefone = telefone;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public String getTelefone() {
+        return telefone;
+    }
+
+    @Override
+    public String toString() {
+        return this.nome;
+    }
+}
@@ -15,7 +15,8 @@ import java.time.LocalDate;
 public class Prontuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prontuario_seq")
+    @SequenceGenerator(name = "prontuario_seq", sequenceName = "PRONTUARIO_SEQ", allocationSize = 50)
     private int id;
     private LocalDate data;
     private String sintomas;
@@ -25,7 +26,7 @@ public class Prontuario {
     @ManyToOne
     private Medico medico;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "paciente_id")
     private Paciente paciente;
 
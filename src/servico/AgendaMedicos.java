@@ -0,0 +1,257 @@
+package servico;
+
+import utilitario.JPAUtil;
+import utilitario.TipoConsulta;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice em memória dos horários ocupados de cada médico, usado para sugerir horários
+ * livres sem ler todas as consultas.
+ * <p>
+ * Para cada médico, os intervalos [início, término) das consultas ficam em um conjunto
+ * ordenado pelo início. Como nenhuma consulta dura mais que a maior duração de
+ * {@link TipoConsulta}, as únicas candidatas a se sobrepor a [a, b) são as que começam
+ * entre (a - duração máxima) e b, encontradas por uma busca em O(log n).
+ * </p>
+ * <p>
+ * Os dias de cada médico são lidos do banco na primeira vez em que são consultados e,
+ * a partir daí, mantidos pelo {@link ConsultaServico}. Consultas gravadas por outra
+ * instância da aplicação não aparecem aqui até a agenda ser invalidada; por isso a
+ * verificação de conflito que antecede a gravação é feita no banco, e a agenda serve
+ * apenas às sugestões. Cada médico tem uma trava própria, que o serviço mantém durante
+ * a verificação e a gravação, para que dois agendamentos simultâneos nesta aplicação
+ * não ocupem o mesmo horário.
+ * </p>
+ */
+class AgendaMedicos {
+
+    /**
+     * A maior duração entre os tipos de consulta, em minutos.
+     */
+    static final int DURACAO_MAXIMA_MINUTOS = calcularDuracaoMaxima();
+
+    private static final Comparator<Intervalo> ORDEM = Comparator
+            .comparing((Intervalo i) -> i.inicio)
+            .thenComparingInt(i -> i.idConsulta);
+
+    /**
+     * O horário ocupado por uma consulta.
+     */
+    static class Intervalo {
+        final int idConsulta;
+        final LocalDateTime inicio;
+        final LocalDateTime fim;
+
+        Intervalo(int idConsulta, LocalDateTime inicio, LocalDateTime fim) {
+            this.idConsulta = idConsulta;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        boolean sobrepoe(LocalDateTime outroInicio, LocalDateTime outroFim) {
+            return inicio.isBefore(outroFim) && fim.isAfter(outroInicio);
+        }
+    }
+
+    /**
+     * Os intervalos já carregados de um médico.
+     */
+    private static class AgendaMedico {
+        private final ReentrantLock trava = new ReentrantLock();
+        private final NavigableSet<Intervalo> intervalos = new TreeSet<>(ORDEM);
+        private final Map<Integer, Intervalo> porConsulta = new HashMap<>();
+        private final Set<LocalDate> diasCarregados = new HashSet<>();
+    }
+
+    private final ConcurrentHashMap<Integer, AgendaMedico> agendas = new ConcurrentHashMap<>();
+
+    /**
+     * Retorna a trava da agenda do médico. Quem verifica um horário e grava a consulta
+     * deve mantê-la durante as duas etapas.
+     *
+     * @param idMedico O ID do médico.
+     * @return A trava (reentrante) da agenda.
+     */
+    ReentrantLock getTrava(int idMedico) {
+        return getAgenda(idMedico).trava;
+    }
+
+    /**
+     * Procura uma consulta do médico que se sobreponha ao intervalo informado.
+     *
+     * @param idMedico  O ID do médico.
+     * @param inicio    O início do intervalo.
+     * @param fim       O término do intervalo (exclusivo).
+     * @param idIgnorar O ID de uma consulta a desconsiderar (a própria consulta em uma atualização), ou 0.
+     * @return O primeiro intervalo em conflito, ou {@code null} se o horário estiver livre.
+     */
+    Intervalo buscarConflito(int idMedico, LocalDateTime inicio, LocalDateTime fim, int idIgnorar) {
+        for (Intervalo intervalo : listarOcupados(idMedico, inicio, fim)) {
+            if (intervalo.idConsulta != idIgnorar) {
+                return intervalo;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lista, em ordem de início, as consultas do médico que se sobrepõem ao intervalo.
+     *
+     * @param idMedico O ID do médico.
+     * @param inicio   O início do intervalo.
+     * @param fim      O término do intervalo (exclusivo).
+     * @return Os intervalos ocupados que tocam o período.
+     */
+    List<Intervalo> listarOcupados(int idMedico, LocalDateTime inicio, LocalDateTime fim) {
+        AgendaMedico agenda = getAgenda(idMedico);
+        LocalDateTime inicioCandidatos = inicio.minusMinutes(DURACAO_MAXIMA_MINUTOS);
+        agenda.trava.lock();
+        try {
+            carregarDias(idMedico, agenda, inicioCandidatos.toLocalDate(), fim.toLocalDate());
+            List<Intervalo> ocupados = new ArrayList<>();
+            NavigableSet<Intervalo> candidatos = agenda.intervalos.subSet(
+                    new Intervalo(Integer.MIN_VALUE, inicioCandidatos, null), false,
+                    new Intervalo(Integer.MIN_VALUE, fim, null), false);
+            for (Intervalo intervalo : candidatos) {
+                if (intervalo.sobrepoe(inicio, fim)) {
+                    ocupados.add(intervalo);
+                }
+            }
+            return ocupados;
+        } finally {
+            agenda.trava.unlock();
+        }
+    }
+
+    /**
+     * Registra uma consulta recém-gravada. Se o dia ainda não foi carregado, nada é feito,
+     * pois a consulta será lida do banco junto com o dia.
+     *
+     * @param idMedico   O ID do médico.
+     * @param idConsulta O ID da consulta.
+     * @param inicio     O início da consulta.
+     * @param fim        O término da consulta.
+     */
+    void adicionar(int idMedico, int idConsulta, LocalDateTime inicio, LocalDateTime fim) {
+        AgendaMedico agenda = getAgenda(idMedico);
+        agenda.trava.lock();
+        try {
+            if (agenda.diasCarregados.contains(inicio.toLocalDate())) {
+                registrar(agenda, new Intervalo(idConsulta, inicio, fim));
+            }
+        } finally {
+            agenda.trava.unlock();
+        }
+    }
+
+    /**
+     * Retira uma consulta da agenda do médico.
+     *
+     * @param idMedico   O ID do médico.
+     * @param idConsulta O ID da consulta.
+     */
+    void remover(int idMedico, int idConsulta) {
+        AgendaMedico agenda = getAgenda(idMedico);
+        agenda.trava.lock();
+        try {
+            Intervalo anterior = agenda.porConsulta.remove(idConsulta);
+            if (anterior != null) {
+                agenda.intervalos.remove(anterior);
+            }
+        } finally {
+            agenda.trava.unlock();
+        }
+    }
+
+    /**
+     * Descarta os dias carregados do médico; eles serão lidos novamente do banco.
+     *
+     * @param idMedico O ID do médico.
+     */
+    void invalidar(int idMedico) {
+        AgendaMedico agenda = getAgenda(idMedico);
+        agenda.trava.lock();
+        try {
+            agenda.intervalos.clear();
+            agenda.porConsulta.clear();
+            agenda.diasCarregados.clear();
+        } finally {
+            agenda.trava.unlock();
+        }
+    }
+
+    private AgendaMedico getAgenda(int idMedico) {
+        return agendas.computeIfAbsent(idMedico, id -> new AgendaMedico());
+    }
+
+    /**
+     * Lê do banco, em uma única consulta, os dias do período que ainda não estão na agenda.
+     * Deve ser chamado com a trava da agenda.
+     */
+    private void carregarDias(int idMedico, AgendaMedico agenda, LocalDate primeiroDia, LocalDate ultimoDia) {
+        LocalDate inicio = primeiroDia;
+        while (!inicio.isAfter(ultimoDia) && agenda.diasCarregados.contains(inicio)) {
+            inicio = inicio.plusDays(1);
+        }
+        LocalDate fim = ultimoDia;
+        while (!fim.isBefore(inicio) && agenda.diasCarregados.contains(fim)) {
+            fim = fim.minusDays(1);
+        }
+        if (inicio.isAfter(fim)) {
+            return;
+        }
+
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            List<Object[]> linhas = em.createQuery(
+                    "SELECT c.id, c.dataHora, c.tipo FROM Consulta c " +
+                    "WHERE c.medico.id = :idMedico AND c.dataHora >= :inicio AND c.dataHora < :fim", Object[].class)
+                    .setParameter("idMedico", idMedico)
+                    .setParameter("inicio", inicio.atStartOfDay())
+                    .setParameter("fim", fim.plusDays(1).atStartOfDay())
+                    .getResultList();
+            for (Object[] linha : linhas) {
+                LocalDateTime dataHora = (LocalDateTime) linha[1];
+                TipoConsulta tipo = (TipoConsulta) linha[2];
+                registrar(agenda, new Intervalo((Integer) linha[0], dataHora, dataHora.plusMinutes(tipo.getDuracaoEmMinutos())));
+            }
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+        for (LocalDate dia = inicio; !dia.isAfter(fim); dia = dia.plusDays(1)) {
+            agenda.diasCarregados.add(dia);
+        }
+    }
+
+    private void registrar(AgendaMedico agenda, Intervalo intervalo) {
+        Intervalo anterior = agenda.porConsulta.put(intervalo.idConsulta, intervalo);
+        if (anterior != null) {
+            agenda.intervalos.remove(anterior);
+        }
+        agenda.intervalos.add(intervalo);
+    }
+
+    private static int calcularDuracaoMaxima() {
+        int maxima = 0;
+        for (TipoConsulta tipo : TipoConsulta.values()) {
+            maxima = Math.max(maxima, tipo.getDuracaoEmMinutos());
+        }
+        return maxima;
+    }
+}
@@ -0,0 +1,281 @@
+package servico;
+
+import utilitario.RodaTemporizacao;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Agendador em segundo plano dos lembretes enviados com antecedência fixa antes de cada
+ * consulta (por padrão, 24 horas e 2 horas antes).
+ * <p>
+ * Cada consulta futura tem um evento por antecedência em uma {@link RodaTemporizacao}, com
+ * ticks de um minuto. Ao iniciar, as consultas futuras são lidas uma vez do banco; a partir
+ * daí, o agendador observa o {@link ConsultaServico} e agenda, move ou cancela os eventos de
+ * cada consulta cadastrada, alterada ou removida, com custo constante por consulta.
+ * </p>
+ * <p>
+ * A cada tick, os eventos vencidos são registrados na fila de saída pelo
+ * {@link LembreteServico} e os lembretes pendentes são enviados. Antecedências que já
+ * passaram quando a consulta é agendada são ignoradas; ao iniciar, porém, a mais próxima
+ * delas é enviada imediatamente, para que lembretes não se percam enquanto a aplicação
+ * estava fechada (a fila de saída não grava o mesmo lembrete duas vezes).
+ * </p>
+ */
+public class AgendadorLembretes implements ObservadorConsultas {
+
+    private static final Logger logger = Logger.getLogger(AgendadorLembretes.class.getName());
+
+    /**
+     * Propriedade de sistema com as antecedências dos lembretes, em minutos, separadas por vírgula.
+     */
+    public static final String PROPRIEDADE_ANTECEDENCIAS = "clinica.lembretes.antecedencias";
+    private static final String ANTECEDENCIAS_PADRAO = "1440,120";
+
+    /**
+     * Duração de cada tick da roda, que é também o atraso máximo de um lembrete.
+     */
+    static final long DURACAO_TICK_MS = TimeUnit.MINUTES.toMillis(1);
+    /**
+     * Quantidade de casas da roda (uma volta cobre pouco mais de 17 horas; eventos mais
+     * distantes esperam as voltas necessárias na mesma casa).
+     */
+    private static final int CASAS_RODA = 1024;
+
+    /**
+     * Um lembrete a registrar: a consulta e a antecedência, em minutos. A antecedência 0
+     * marca o horário da própria consulta, quando ela deixa de ser acompanhada.
+     */
+    static final class EventoLembrete {
+        final int idConsulta;
+        final int antecedenciaMinutos;
+
+        EventoLembrete(int idConsulta, int antecedenciaMinutos) {
+            this.idConsulta = idConsulta;
+            this.antecedenciaMinutos = antecedenciaMinutos;
+        }
+    }
+
+    /**
+     * O horário de uma consulta acompanhada e os seus eventos na roda.
+     */
+    private static final class ConsultaAcompanhada {
+        final LocalDateTime dataHora;
+        final List<RodaTemporizacao.Agendamento<EventoLembrete>> eventos = new ArrayList<>();
+
+        ConsultaAcompanhada(LocalDateTime dataHora) {
+            this.dataHora = dataHora;
+        }
+    }
+
+    private final ConsultaServico consultaServico;
+    private final LembreteServico lembreteServico;
+    private final int[] antecedenciasMinutos;
+    private final RodaTemporizacao<EventoLembrete> roda =
+            new RodaTemporizacao<>(DURACAO_TICK_MS, CASAS_RODA, System.currentTimeMillis());
+    private final Map<Integer, ConsultaAcompanhada> consultas = new HashMap<>();
+    private ScheduledExecutorService executor;
+
+    /**
+     * Construtor para o AgendadorLembretes, com as antecedências da propriedade
+     * {@value #PROPRIEDADE_ANTECEDENCIAS} (padrão: {@value #ANTECEDENCIAS_PADRAO}).
+     *
+     * @param consultaServico O serviço de consultas, observado a partir de {@link #iniciar()}.
+     * @param lembreteServico O serviço que registra e envia os lembretes.
+     */
+    public AgendadorLembretes(ConsultaServico consultaServico, LembreteServico lembreteServico) {
+        this(consultaServico, lembreteServico, lerAntecedencias(System.getProperty(PROPRIEDADE_ANTECEDENCIAS, ANTECEDENCIAS_PADRAO)));
+    }
+
+    /**
+     * Construtor para o AgendadorLembretes com antecedências próprias.
+     *
+     * @param consultaServico      O serviço de consultas, observado a partir de {@link #iniciar()}.
+     * @param lembreteServico      O serviço que registra e envia os lembretes.
+     * @param antecedenciasMinutos Quantos minutos antes de cada consulta enviar um lembrete.
+     * @throws IllegalArgumentException Se nenhuma antecedência for informada ou alguma não for positiva.
+     */
+    public AgendadorLembretes(ConsultaServico consultaServico, LembreteServico lembreteServico, int... antecedenciasMinutos) {
+        int[] ordenadas = Arrays.stream(antecedenciasMinutos).distinct().sorted().toArray();
+        if (ordenadas.length == 0 || ordenadas[0] <= 0) {
+            throw new IllegalArgumentException("As antecedências dos lembretes devem ser positivas.");
+        }
+        this.consultaServico = consultaServico;
+        this.lembreteServico = lembreteServico;
+        this.antecedenciasMinutos = ordenadas;
+    }
+
+    private static int[] lerAntecedencias(String valor) {
+        try {
+            return Arrays.stream(valor.split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .mapToInt(Integer::parseInt)
+                    .toArray();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Antecedências de lembrete inválidas em " + PROPRIEDADE_ANTECEDENCIAS + ": " + valor, e);
+        }
+    }
+
+    /**
+     * Lê as consultas futuras, passa a observar o serviço de consultas e inicia a thread
+     * que avança a roda a cada minuto. Chamadas repetidas não fazem nada.
+     */
+    public synchronized void iniciar() {
+        if (executor != null) {
+            return;
+        }
+        // O observador é registrado antes da leitura, para não perder consultas gravadas
+        // durante ela; uma consulta lida e também avisada é apenas reagendada
+        consultaServico.adicionarObservador(this);
+        for (Map.Entry<Integer, LocalDateTime> consulta : consultaServico.listarHorariosAPartirDe(LocalDateTime.now()).entrySet()) {
+            acompanhar(consulta.getKey(), consulta.getValue(), true);
+        }
+        logger.info(consultas.size() + " consulta(s) futuras com lembretes agendados.");
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "agendador-lembretes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::processarTick, 0, DURACAO_TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Para a thread do agendador e deixa de observar o serviço de consultas.
+     */
+    public synchronized void encerrar() {
+        consultaServico.removerObservador(this);
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * @return A quantidade de eventos aguardando na roda.
+     */
+    public int getEventosAgendados() {
+        return roda.getQuantidade();
+    }
+
+    @Override
+    public synchronized void consultaAgendada(int idConsulta, LocalDateTime dataHora) {
+        acompanhar(idConsulta, dataHora, false);
+    }
+
+    /**
+     * Reagenda os eventos da consulta se o horário mudou. Os lembretes do horário antigo já
+     * foram apagados pelo {@link ConsultaServico} na transação da alteração.
+     */
+    @Override
+    public synchronized void consultaAlterada(int idConsulta, LocalDateTime dataHora) {
+        ConsultaAcompanhada atual = consultas.get(idConsulta);
+        if (atual == null || !atual.dataHora.equals(dataHora)) {
+            acompanhar(idConsulta, dataHora, false);
+        }
+    }
+
+    @Override
+    public synchronized void consultaRemovida(int idConsulta) {
+        esquecer(idConsulta);
+    }
+
+    /**
+     * Agenda os eventos de uma consulta, substituindo os que ela já tivesse.
+     * Deve ser chamado com a trava deste objeto.
+     *
+     * @param recuperarAtrasado Se a antecedência mais próxima que já passou deve vencer imediatamente.
+     */
+    private void acompanhar(int idConsulta, LocalDateTime dataHora, boolean recuperarAtrasado) {
+        esquecer(idConsulta);
+        long agora = System.currentTimeMillis();
+        long instanteConsulta = dataHora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (instanteConsulta <= agora) {
+            return;
+        }
+
+        ConsultaAcompanhada consulta = new ConsultaAcompanhada(dataHora);
+        boolean atrasadoAgendado = false;
+        // Da menor para a maior antecedência: a primeira que já passou é a mais próxima
+        for (int antecedencia : antecedenciasMinutos) {
+            long instante = instanteConsulta - TimeUnit.MINUTES.toMillis(antecedencia);
+            if (instante <= agora && (!recuperarAtrasado || atrasadoAgendado)) {
+                continue;
+            }
+            atrasadoAgendado |= instante <= agora;
+            consulta.eventos.add(roda.agendar(new EventoLembrete(idConsulta, antecedencia), instante));
+        }
+        consulta.eventos.add(roda.agendar(new EventoLembrete(idConsulta, 0), instanteConsulta));
+        consultas.put(idConsulta, consulta);
+    }
+
+    /**
+     * Cancela os eventos ainda não vencidos de uma consulta. Deve ser chamado com a trava deste objeto.
+     */
+    private void esquecer(int idConsulta) {
+        ConsultaAcompanhada consulta = consultas.remove(idConsulta);
+        if (consulta != null) {
+            for (RodaTemporizacao.Agendamento<EventoLembrete> evento : consulta.eventos) {
+                roda.cancelar(evento);
+            }
+        }
+    }
+
+    /**
+     * Executado a cada tick: registra os lembretes vencidos e envia os pendentes da fila.
+     * Se o registro falhar, os eventos voltam para a roda e são tentados no próximo tick.
+     */
+    private void processarTick() {
+        List<EventoLembrete> lembretes = new ArrayList<>();
+        try {
+            List<EventoLembrete> vencidos = new ArrayList<>();
+            synchronized (this) {
+                roda.avancar(System.currentTimeMillis(), vencidos);
+                for (EventoLembrete evento : vencidos) {
+                    if (evento.antecedenciaMinutos == 0) {
+                        consultas.remove(evento.idConsulta);
+                    } else {
+                        lembretes.add(evento);
+                    }
+                }
+            }
+            if (!lembretes.isEmpty()) {
+                int registrados = lembreteServico.registrarLembretesAntecipados(lembretes);
+                logger.info(registrados + " lembrete(s) antecipados registrados.");
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Falha ao registrar " + lembretes.size() + " lembrete(s) antecipados.", e);
+            reagendar(lembretes);
+        }
+
+        try {
+            lembreteServico.processarPendentesSeLivre();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Falha ao enviar os lembretes pendentes.", e);
+        }
+    }
+
+    /**
+     * Devolve à roda, para o próximo tick, os eventos de consultas ainda acompanhadas.
+     */
+    private synchronized void reagendar(List<EventoLembrete> eventos) {
+        long proximoTick = System.currentTimeMillis() + DURACAO_TICK_MS;
+        for (EventoLembrete evento : eventos) {
+            ConsultaAcompanhada consulta = consultas.get(evento.idConsulta);
+            if (consulta != null) {
+                consulta.eventos.add(roda.agendar(evento, proximoTick));
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package servico;
+
+import modelo.HorarioDisponivel;
+import modelo.Medico;
+import utilitario.TipoConsulta;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serviço responsável por encontrar horários livres nas agendas dos médicos.
+ * <p>
+ * Para cada médico, as consultas de todo o período pesquisado são lidas de uma vez da
+ * agenda em memória do {@link ConsultaServico} e convertidas em um mapa de bits por dia,
+ * com um bit para cada intervalo de 5 minutos do expediente.
+ * Verificar se uma consulta cabe em um horário é então apenas procurar o próximo bit
+ * ocupado a partir dele, sem novas idas ao banco, de modo que um mês inteiro de agenda
+ * é percorrido em poucos milissegundos.
+ * </p>
+ */
+public class AgendamentoServico {
+
+    /**
+     * Horário de início do expediente.
+     */
+    private static final LocalTime ABERTURA = LocalTime.of(8, 0);
+    /**
+     * Horário de término do expediente; nenhuma consulta pode passar dele.
+     */
+    private static final LocalTime FECHAMENTO = LocalTime.of(18, 0);
+    /**
+     * Dias da semana sem atendimento.
+     */
+    private static final Set<DayOfWeek> DIAS_SEM_ATENDIMENTO = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+    /**
+     * Tamanho, em minutos, de cada intervalo representado por um bit.
+     */
+    private static final int GRANULARIDADE_MINUTOS = 5;
+    /**
+     * Intervalo, em minutos, entre os horários de início sugeridos (08:00, 08:15, ...).
+     */
+    private static final int PASSO_SUGESTAO_MINUTOS = 15;
+    /**
+     * Quantidade máxima de dias pesquisados a partir da data inicial.
+     */
+    public static final int DIAS_PESQUISADOS = 31;
+
+    private static final int MINUTOS_EXPEDIENTE = (int) Duration.between(ABERTURA, FECHAMENTO).toMinutes();
+    private static final int INTERVALOS_POR_DIA = MINUTOS_EXPEDIENTE / GRANULARIDADE_MINUTOS;
+    private static final int INTERVALOS_POR_PASSO = PASSO_SUGESTAO_MINUTOS / GRANULARIDADE_MINUTOS;
+    private static final BitSet DIA_LIVRE = new BitSet(INTERVALOS_POR_DIA);
+
+    private static final Comparator<HorarioDisponivel> ORDEM = Comparator
+            .comparing(HorarioDisponivel::getInicio)
+            .thenComparing(h -> h.getMedico().getNome(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
+    private final ConsultaServico consultaServico;
+    private final MedicoServico medicoServico;
+
+    /**
+     * Construtor para o AgendamentoServico.
+     *
+     * @param consultaServico O serviço de consultas, cuja agenda de horários ocupados é consultada.
+     * @param medicoServico   O serviço de médicos, usado na busca por especialização.
+     */
+    public AgendamentoServico(ConsultaServico consultaServico, MedicoServico medicoServico) {
+        this.consultaServico = consultaServico;
+        this.medicoServico = medicoServico;
+    }
+
+    /**
+     * Busca os próximos horários livres de um médico para uma consulta do tipo informado.
+     *
+     * @param medico     O médico.
+     * @param tipo       O tipo da consulta, que define a duração.
+     * @param aPartirDe  O momento a partir do qual procurar (normalmente agora).
+     * @param quantidade A quantidade máxima de horários retornados.
+     * @return Os horários livres em ordem cronológica, dentro dos próximos {@value #DIAS_PESQUISADOS} dias.
+     * @throws IllegalArgumentException Se o médico, o tipo ou a data inicial não forem informados.
+     */
+    public List<HorarioDisponivel> buscarHorariosLivres(Medico medico, TipoConsulta tipo, LocalDateTime aPartirDe, int quantidade) {
+        if (medico == null) {
+            throw new IllegalArgumentException("O médico deve ser informado.");
+        }
+        return buscarHorariosLivres(List.of(medico), tipo, aPartirDe, quantidade);
+    }
+
+    /**
+     * Busca os próximos horários livres entre todos os médicos de uma especialização.
+     * Quando dois médicos estão livres no mesmo horário, ambos são sugeridos.
+     *
+     * @param especializacao A especialização (sem diferenciar maiúsculas).
+     * @param tipo           O tipo da consulta, que define a duração.
+     * @param aPartirDe      O momento a partir do qual procurar (normalmente agora).
+     * @param quantidade     A quantidade máxima de horários retornados.
+     * @return Os horários livres em ordem cronológica, ou uma lista vazia se nenhum médico tiver a especialização.
+     * @throws IllegalArgumentException Se o tipo ou a data inicial não forem informados.
+     */
+    public List<HorarioDisponivel> buscarHorariosLivresPorEspecializacao(String especializacao, TipoConsulta tipo, LocalDateTime aPartirDe, int quantidade) {
+        List<Medico> medicos = new ArrayList<>();
+        if (especializacao != null) {
+            for (Medico medico : medicoServico.listarTodos()) {
+                if (especializacao.trim().equalsIgnoreCase(medico.getEspecializacao())) {
+                    medicos.add(medico);
+                }
+            }
+        }
+        return buscarHorariosLivres(medicos, tipo, aPartirDe, quantidade);
+    }
+
+    /**
+     * Percorre os dias em ordem, reunindo os horários livres de todos os médicos em cada dia,
+     * até atingir a quantidade pedida.
+     */
+    private List<HorarioDisponivel> buscarHorariosLivres(List<Medico> medicos, TipoConsulta tipo, LocalDateTime aPartirDe, int quantidade) {
+        if (tipo == null || aPartirDe == null) {
+            throw new IllegalArgumentException("O tipo de consulta e a data inicial devem ser informados.");
+        }
+        List<HorarioDisponivel> horarios = new ArrayList<>();
+        if (medicos.isEmpty() || quantidade <= 0) {
+            return horarios;
+        }
+
+        LocalDate primeiroDia = aPartirDe.toLocalDate();
+        LocalDate ultimoDia = primeiroDia.plusDays(DIAS_PESQUISADOS - 1);
+        List<Map<LocalDate, BitSet>> ocupacoes = new ArrayList<>(medicos.size());
+        for (Medico medico : medicos) {
+            ocupacoes.add(montarOcupacao(medico.getId(), primeiroDia, ultimoDia));
+        }
+
+        int duracao = tipo.getDuracaoEmMinutos();
+        int intervalosConsulta = (duracao + GRANULARIDADE_MINUTOS - 1) / GRANULARIDADE_MINUTOS;
+        List<HorarioDisponivel> doDia = new ArrayList<>();
+        for (LocalDate dia = primeiroDia; !dia.isAfter(ultimoDia) && horarios.size() < quantidade; dia = dia.plusDays(1)) {
+            if (DIAS_SEM_ATENDIMENTO.contains(dia.getDayOfWeek())) {
+                continue;
+            }
+            int primeiroIntervalo = dia.equals(primeiroDia) ? primeiroIntervaloSugerido(aPartirDe) : 0;
+
+            doDia.clear();
+            for (int i = 0; i < medicos.size(); i++) {
+                BitSet ocupacao = ocupacoes.get(i).getOrDefault(dia, DIA_LIVRE);
+                for (int inicio = primeiroIntervalo; inicio + intervalosConsulta <= INTERVALOS_POR_DIA; inicio += INTERVALOS_POR_PASSO) {
+                    int proximoOcupado = ocupacao.nextSetBit(inicio);
+                    if (proximoOcupado == -1 || proximoOcupado >= inicio + intervalosConsulta) {
+                        LocalDateTime dataHora = dia.atTime(ABERTURA).plusMinutes((long) inicio * GRANULARIDADE_MINUTOS);
+                        doDia.add(new HorarioDisponivel(medicos.get(i), dataHora, dataHora.plusMinutes(duracao), tipo));
+                    }
+                }
+            }
+            doDia.sort(ORDEM);
+            for (int i = 0; i < doDia.size() && horarios.size() < quantidade; i++) {
+                horarios.add(doDia.get(i));
+            }
+        }
+        return horarios;
+    }
+
+    /**
+     * Monta o mapa de bits de cada dia do período em que o médico tem consultas.
+     * Dias sem consultas ficam fora do mapa.
+     */
+    private Map<LocalDate, BitSet> montarOcupacao(int idMedico, LocalDate primeiroDia, LocalDate ultimoDia) {
+        Map<LocalDate, BitSet> ocupacao = new HashMap<>();
+        List<AgendaMedicos.Intervalo> ocupados = consultaServico.getAgenda()
+                .listarOcupados(idMedico, primeiroDia.atStartOfDay(), ultimoDia.plusDays(1).atStartOfDay());
+        for (AgendaMedicos.Intervalo intervalo : ocupados) {
+            for (LocalDate dia = intervalo.inicio.toLocalDate(); dia.atStartOfDay().isBefore(intervalo.fim); dia = dia.plusDays(1)) {
+                marcar(ocupacao, dia, intervalo.inicio, intervalo.fim);
+            }
+        }
+        return ocupacao;
+    }
+
+    /**
+     * Marca como ocupados, no dia informado, os intervalos do expediente tocados por [inicio, fim).
+     */
+    private static void marcar(Map<LocalDate, BitSet> ocupacao, LocalDate dia, LocalDateTime inicio, LocalDateTime fim) {
+        LocalDateTime abertura = dia.atTime(ABERTURA);
+        long minutoInicio = Math.max(0, Duration.between(abertura, inicio).toMinutes());
+        long minutoFim = Math.min(MINUTOS_EXPEDIENTE, minutosArredondadosParaCima(abertura, fim));
+        if (minutoFim <= minutoInicio) {
+            return;
+        }
+        int primeiro = (int) (minutoInicio / GRANULARIDADE_MINUTOS);
+        int ultimo = (int) ((minutoFim + GRANULARIDADE_MINUTOS - 1) / GRANULARIDADE_MINUTOS);
+        ocupacao.computeIfAbsent(dia, d -> new BitSet(INTERVALOS_POR_DIA)).set(primeiro, ultimo);
+    }
+
+    /**
+     * Calcula o primeiro intervalo do dia, alinhado ao passo das sugestões, que não começa antes do momento informado.
+     */
+    private static int primeiroIntervaloSugerido(LocalDateTime aPartirDe) {
+        long minutos = minutosArredondadosParaCima(aPartirDe.toLocalDate().atTime(ABERTURA), aPartirDe);
+        if (minutos <= 0) {
+            return 0;
+        }
+        long passos = (minutos + PASSO_SUGESTAO_MINUTOS - 1) / PASSO_SUGESTAO_MINUTOS;
+        return (int) Math.min(passos * INTERVALOS_POR_PASSO, INTERVALOS_POR_DIA);
+    }
+
+    private static long minutosArredondadosParaCima(LocalDateTime de, LocalDateTime ate) {
+        Duration duracao = Duration.between(de, ate);
+        long minutos = duracao.toMinutes();
+        return duracao.minusMinutes(minutos).isZero() || duracao.isNegative() ? minutos : minutos + 1;
+    }
+}
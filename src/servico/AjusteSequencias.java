@@ -0,0 +1,94 @@
+package servico;
+
+import utilitario.JPAUtil;
+
+import javax.persistence.EntityManager;
+import java.util.logging.Logger;
+
+/**
+ * Ajusta as sequências que geram os IDs de pacientes, consultas e prontuários em bancos
+ * criados quando esses IDs ainda eram colunas IDENTITY.
+ * <p>
+ * A atualização automática do esquema cria as sequências começando em 1, enquanto as tabelas
+ * já têm os IDs 1, 2, ...; os novos registros colidiriam com os existentes. Como o Derby não
+ * tem {@code ALTER SEQUENCE ... RESTART}, a sequência atrasada é apagada e recriada a partir
+ * do maior ID da tabela. As colunas antigas são {@code GENERATED BY DEFAULT AS IDENTITY} e
+ * aceitam os IDs vindos da sequência sem alteração.
+ * </p>
+ * <p>
+ * O otimizador "pooled" do Hibernate trata cada valor lido da sequência como o fim de um bloco
+ * de {@value #TAMANHO_ALOCACAO} IDs; por isso a sequência recomeça em
+ * {@code MAX(id) + }{@value #TAMANHO_ALOCACAO}, e o primeiro ID gerado é {@code MAX(id) + 1}.
+ * Uma sequência que já está à frente da tabela não é alterada, de modo que a verificação
+ * custa apenas duas consultas por tabela nos bancos já migrados.
+ * </p>
+ */
+public final class AjusteSequencias {
+
+    private static final Logger logger = Logger.getLogger(AjusteSequencias.class.getName());
+
+    /**
+     * O {@code allocationSize} das sequências mapeadas nas entidades.
+     */
+    private static final int TAMANHO_ALOCACAO = 50;
+
+    /**
+     * As tabelas e as sequências de seus IDs.
+     */
+    private static final String[][] SEQUENCIAS = {
+            {"Paciente", "PACIENTE_SEQ"},
+            {"Consulta", "CONSULTA_SEQ"},
+            {"Prontuario", "PRONTUARIO_SEQ"}};
+
+    private AjusteSequencias() {
+    }
+
+    /**
+     * Recria, a partir do maior ID de cada tabela, as sequências que ficaram para trás.
+     * Deve ser chamado na inicialização da aplicação, antes do primeiro cadastro.
+     *
+     * @return A quantidade de sequências recriadas.
+     */
+    public static int ajustar() {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            int recriadas = 0;
+            for (String[] sequencia : SEQUENCIAS) {
+                if (ajustar(em, sequencia[0], sequencia[1])) {
+                    recriadas++;
+                }
+            }
+            em.getTransaction().commit();
+            return recriadas;
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    private static boolean ajustar(EntityManager em, String tabela, String sequencia) {
+        Number maiorId = (Number) em.createNativeQuery("SELECT MAX(id) FROM " + tabela).getSingleResult();
+        if (maiorId == null) {
+            return false;
+        }
+        long inicio = maiorId.longValue() + TAMANHO_ALOCACAO;
+        Number proximo = (Number) em.createNativeQuery(
+                "SELECT SYSCS_UTIL.SYSCS_PEEK_AT_SEQUENCE(CURRENT SCHEMA, '" + sequencia + "') FROM SYSIBM.SYSDUMMY1")
+                .getSingleResult();
+        if (proximo != null && proximo.longValue() >= inicio) {
+            return false;
+        }
+        em.createNativeQuery("DROP SEQUENCE " + sequencia + " RESTRICT").executeUpdate();
+        em.createNativeQuery("CREATE SEQUENCE " + sequencia + " AS INTEGER START WITH " + inicio +
+                " INCREMENT BY " + TAMANHO_ALOCACAO).executeUpdate();
+        logger.info("Sequência " + sequencia + " recriada a partir de " + inicio + " (maior ID em " + tabela + ": " + maiorId + ").");
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package servico;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Lançada quando um agendamento ocupa um horário que se sobrepõe a outra consulta
+ * do mesmo médico.
+ */
+public class ConflitoAgendamentoException extends RuntimeException {
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final int idConsultaExistente;
+    private final LocalDateTime inicioExistente;
+    private final LocalDateTime fimExistente;
+
+    /**
+     * Cria a exceção com os dados da consulta que já ocupa o horário.
+     *
+     * @param nomeMedico          O nome do médico.
+     * @param idConsultaExistente O ID da consulta já agendada.
+     * @param inicioExistente     O início da consulta já agendada.
+     * @param fimExistente        O término da consulta já agendada.
+     */
+    public ConflitoAgendamentoException(String nomeMedico, int idConsultaExistente, LocalDateTime inicioExistente, LocalDateTime fimExistente) {
+        super(nomeMedico + " já possui a consulta " + idConsultaExistente + " em " + inicioExistente.format(FORMATO_DATA)
+                + ", das " + inicioExistente.format(FORMATO_HORA) + " às " + fimExistente.format(FORMATO_HORA) + ".");
+        this.idConsultaExistente = idConsultaExistente;
+        this.inicioExistente = inicioExistente;
+        this.fimExistente = fimExistente;
+    }
+
+    public int getIdConsultaExistente() {
+        return idConsultaExistente;
+    }
+
+    public LocalDateTime getInicioExistente() {
+        return inicioExistente;
+    }
+
+    public LocalDateTime getFimExistente() {
+        return fimExistente;
+    }
+}
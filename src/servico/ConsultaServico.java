@@ -1,39 +1,264 @@
 package servico;
 
 import modelo.Consulta;
+import modelo.ConsultaResumo;
 import modelo.Paciente;
 import modelo.Medico;
 import utilitario.JPAUtil;
+import utilitario.Pagina;
 import utilitario.TipoConsulta;
 
 import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Serviço responsável por gerenciar as operações relacionadas a Consultas,
  * utilizando JPA para persistência de dados.
+ * <p>
+ * Agendamentos simultâneos são protegidos em dois níveis: dentro da aplicação, cada
+ * médico tem uma trava própria (agendamentos de médicos diferentes não esperam uns pelos
+ * outros), e a sobreposição de horários é verificada no banco, na transação que grava a
+ * consulta, de modo que as consultas gravadas por outras instâncias também são vistas.
+ * Entre instâncias, a restrição única (médico, data/hora) recusa ainda duas consultas
+ * gravadas ao mesmo tempo com o mesmo início, e a versão da {@link Consulta} recusa a
+ * alteração feita sobre uma versão antiga.
+ * </p>
  */
 public class ConsultaServico {
 
+    private static final Logger logger = Logger.getLogger(ConsultaServico.class.getName());
+
+    /**
+     * Quantidade de consultas enviadas ao banco a cada flush no cadastro em lote.
+     * Deve acompanhar a propriedade hibernate.jdbc.batch_size do persistence.xml.
+     */
+    private static final int TAMANHO_LOTE = 50;
+
+    /**
+     * Quantidade de tentativas de {@link #atualizarConsultaComRetentativa(int, Consumer)}
+     * quando a consulta é alterada por outro usuário ao mesmo tempo.
+     */
+    private static final int TENTATIVAS_CONFLITO_VERSAO = 3;
+
+    /**
+     * Espera base, em milissegundos, antes de cada nova tentativa (cresce a cada tentativa).
+     */
+    private static final int ESPERA_RETENTATIVA_MS = 20;
+
+    /**
+     * Horários ocupados de cada médico, usados na verificação de conflitos.
+     */
+    private final AgendaMedicos agenda = new AgendaMedicos();
+
+    /**
+     * Observadores avisados a cada consulta cadastrada, alterada ou removida.
+     */
+    private final List<ObservadorConsultas> observadores = new CopyOnWriteArrayList<>();
+
+    /**
+     * Retorna a agenda de horários ocupados dos médicos, compartilhada com os
+     * serviços que procuram horários livres.
+     *
+     * @return A agenda mantida por este serviço.
+     */
+    AgendaMedicos getAgenda() {
+        return agenda;
+    }
+
+    /**
+     * Registra um observador, avisado depois de cada consulta cadastrada, alterada ou removida.
+     *
+     * @param observador O observador.
+     */
+    public void adicionarObservador(ObservadorConsultas observador) {
+        observadores.add(observador);
+    }
+
+    /**
+     * Retira um observador registrado com {@link #adicionarObservador(ObservadorConsultas)}.
+     *
+     * @param observador O observador.
+     */
+    public void removerObservador(ObservadorConsultas observador) {
+        observadores.remove(observador);
+    }
+
+    /**
+     * Avisa os observadores de uma alteração já gravada. A falha de um observador não
+     * impede os demais nem desfaz a alteração.
+     */
+    private void notificar(Consumer<ObservadorConsultas> aviso) {
+        for (ObservadorConsultas observador : observadores) {
+            try {
+                aviso.accept(observador);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Falha ao avisar um observador de consultas.", e);
+            }
+        }
+    }
+
     /**
      * Cadastra uma nova consulta no sistema.
+     * O horário [dataHora, dataHora + duração do tipo) não pode se sobrepor a outra
+     * consulta do mesmo médico.
      *
      * @param dataHora A data e hora da consulta.
      * @param medico   O médico que realizará a consulta.
      * @param paciente O paciente agendado para a consulta.
      * @param tipo     O tipo de consulta (normal ou retorno).
      * @return O objeto Consulta recém-cadastrado e persistido.
+     * @throws ConflitoAgendamentoException Se o médico já tiver uma consulta no horário,
+     *                                      inclusive uma gravada por outra instância da aplicação.
      */
     public Consulta cadastrarConsulta(LocalDateTime dataHora, Medico medico, Paciente paciente, TipoConsulta tipo) {
+        validarDados(dataHora, medico, paciente, tipo);
         Consulta novaConsulta = new Consulta(dataHora, medico, paciente, tipo);
-        
+
+        ReentrantLock trava = agenda.getTrava(medico.getId());
+        trava.lock();
+        try {
+            EntityManager em = JPAUtil.getEntityManager();
+            try {
+                em.getTransaction().begin();
+                verificarConflito(em, novaConsulta, 0);
+                em.persist(novaConsulta);
+                em.getTransaction().commit();
+            } catch (PersistenceException e) {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                recusarSeHorarioOcupado(novaConsulta, 0);
+                throw e;
+            } catch (RuntimeException e) {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                throw e;
+            } finally {
+                if (em.isOpen()) {
+                    em.close();
+                }
+            }
+            agenda.adicionar(medico.getId(), novaConsulta.getId(), novaConsulta.getDataHora(), novaConsulta.getDataHoraFim());
+        } finally {
+            trava.unlock();
+        }
+        notificar(o -> o.consultaAgendada(novaConsulta.getId(), novaConsulta.getDataHora()));
+        return novaConsulta;
+    }
+
+    /**
+     * Verifica se o médico está livre no horário que uma consulta do tipo informado ocuparia.
+     *
+     * @param idMedico O ID do médico.
+     * @param dataHora O início pretendido.
+     * @param tipo     O tipo da consulta, que define a duração.
+     * @return {@code true} se nenhuma consulta do médico se sobrepõe ao horário.
+     */
+    public boolean isHorarioDisponivel(int idMedico, LocalDateTime dataHora, TipoConsulta tipo) {
+        return agenda.buscarConflito(idMedico, dataHora, dataHora.plusMinutes(tipo.getDuracaoEmMinutos()), 0) == null;
+    }
+
+    /**
+     * Lança {@link ConflitoAgendamentoException} se a consulta se sobrepuser a outra do mesmo médico.
+     * <p>
+     * A verificação é feita no banco, na transação da gravação, e não na agenda em memória:
+     * uma consulta gravada por outra instância da aplicação depois de a agenda ter sido
+     * carregada também é encontrada. Como nenhuma consulta dura mais que a maior duração
+     * dos tipos, as candidatas são as que começam em (início - duração máxima, fim), uma
+     * faixa do índice (médico, data/hora).
+     * </p>
+     *
+     * @param em        O EntityManager da transação que gravará a consulta.
+     * @param consulta  A consulta a verificar.
+     * @param idIgnorar O ID da própria consulta, em uma atualização, ou 0.
+     */
+    private void verificarConflito(EntityManager em, Consulta consulta, int idIgnorar) {
+        LocalDateTime inicio = consulta.getDataHora();
+        LocalDateTime fim = consulta.getDataHoraFim();
+        List<Object[]> candidatas = em.createQuery(
+                "SELECT c.id, c.dataHora, c.tipo FROM Consulta c " +
+                "WHERE c.medico.id = :idMedico AND c.dataHora > :inicioCandidatas AND c.dataHora < :fim " +
+                "AND c.id <> :idIgnorar ORDER BY c.dataHora", Object[].class)
+                .setParameter("idMedico", consulta.getMedico().getId())
+                .setParameter("inicioCandidatas", inicio.minusMinutes(AgendaMedicos.DURACAO_MAXIMA_MINUTOS))
+                .setParameter("fim", fim)
+                .setParameter("idIgnorar", idIgnorar)
+                // A consulta alterada só é gravada no commit, dentro da verificação da restrição única
+                .setFlushMode(FlushModeType.COMMIT)
+                .getResultList();
+        for (Object[] candidata : candidatas) {
+            LocalDateTime inicioOcupado = (LocalDateTime) candidata[1];
+            LocalDateTime fimOcupado = inicioOcupado.plusMinutes(((TipoConsulta) candidata[2]).getDuracaoEmMinutos());
+            if (fimOcupado.isAfter(inicio)) {
+                throw new ConflitoAgendamentoException(consulta.getMedico().getNome(), (Integer) candidata[0], inicioOcupado, fimOcupado);
+            }
+        }
+    }
+
+    private void validarDados(LocalDateTime dataHora, Medico medico, Paciente paciente, TipoConsulta tipo) {
+        if (dataHora == null || medico == null || paciente == null || tipo == null) {
+            throw new IllegalArgumentException("Data/hora, médico, paciente e tipo da consulta são obrigatórios.");
+        }
+    }
+
+    /**
+     * Cadastra várias consultas de uma só vez, em uma única transação, enviando
+     * os INSERTs em lotes de JDBC.
+     * Destinado a cargas de dados: não verifica conflitos de horário, e as agendas
+     * em memória dos médicos envolvidos são descartadas para serem relidas do banco.
+     *
+     * @param consultas As consultas a serem cadastradas (com ID 0).
+     * @return A quantidade de consultas cadastradas.
+     */
+    public int cadastrarConsultas(List<Consulta> consultas) {
         EntityManager em = JPAUtil.getEntityManager();
         try {
             em.getTransaction().begin();
-            em.persist(novaConsulta);
+            int cadastradas = 0;
+            for (Consulta consulta : consultas) {
+                em.persist(consulta);
+                cadastradas++;
+                if (cadastradas % TAMANHO_LOTE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
             em.getTransaction().commit();
-            return novaConsulta;
+
+            Set<Integer> medicos = new HashSet<>();
+            for (Consulta consulta : consultas) {
+                if (consulta.getMedico() != null && medicos.add(consulta.getMedico().getId())) {
+                    agenda.invalidar(consulta.getMedico().getId());
+                }
+            }
+            for (Consulta consulta : consultas) {
+                notificar(o -> o.consultaAgendada(consulta.getId(), consulta.getDataHora()));
+            }
+            return cadastradas;
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
         } finally {
             if (em.isOpen()) {
                 em.close();
@@ -43,37 +268,198 @@ public class ConsultaServico {
 
     /**
      * Atualiza os dados de uma consulta existente.
+     * A atualização só é gravada se a consulta ainda estiver na versão lida pela tela;
+     * caso contrário, outro usuário a alterou nesse meio-tempo e as alterações dele não
+     * são sobrescritas.
      *
      * @param id       O ID da consulta a ser atualizada.
+     * @param versao   A versão da consulta quando ela foi lida para edição ({@link Consulta#getVersao()}).
      * @param dataHora A nova data e hora da consulta.
      * @param medico   O novo médico da consulta.
      * @param paciente O novo paciente da consulta.
      * @param tipo     O novo tipo de consulta.
      * @return {@code true} se a consulta foi encontrada e atualizada, {@code false} caso contrário.
+     * @throws ConflitoAgendamentoException Se o novo horário se sobrepuser a outra consulta do médico.
+     * @throws OptimisticLockException      Se a consulta foi alterada por outro usuário depois de lida.
+     */
+    public Boolean atualizarConsulta(int id, int versao, LocalDateTime dataHora, Medico medico, Paciente paciente, TipoConsulta tipo) {
+        validarDados(dataHora, medico, paciente, tipo);
+        return atualizarConsulta(id, consulta -> {
+            if (consulta.getVersao() != versao) {
+                throw new OptimisticLockException("A consulta foi alterada por outro usuário depois de aberta. Abra-a novamente antes de salvar.");
+            }
+            consulta.setDataHora(dataHora);
+            consulta.setMedico(medico);
+            consulta.setPaciente(paciente);
+            consulta.setTipo(tipo);
+        }, 1);
+    }
+
+    /**
+     * Altera uma consulta lendo sempre a versão mais recente do banco. Se outro usuário
+     * gravar a mesma consulta entre a leitura e a gravação, a consulta é lida de novo e a
+     * alteração é reaplicada, até {@value #TENTATIVAS_CONFLITO_VERSAO} vezes.
+     * A alteração deve, portanto, poder ser executada mais de uma vez.
+     *
+     * @param id        O ID da consulta.
+     * @param alteracao A alteração a aplicar sobre a consulta lida do banco.
+     * @return {@code true} se a consulta foi encontrada e atualizada, {@code false} caso contrário.
+     * @throws ConflitoAgendamentoException Se o novo horário se sobrepuser a outra consulta do médico.
+     * @throws OptimisticLockException      Se a consulta continuou sendo alterada por outros usuários em todas as tentativas.
+     */
+    public boolean atualizarConsultaComRetentativa(int id, Consumer<Consulta> alteracao) {
+        return atualizarConsulta(id, alteracao, TENTATIVAS_CONFLITO_VERSAO);
+    }
+
+    private boolean atualizarConsulta(int id, Consumer<Consulta> alteracao, int tentativas) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return aplicarAlteracao(id, alteracao);
+            } catch (PersistenceException e) {
+                OptimisticLockException conflito = buscarConflitoDeVersao(e);
+                if (conflito == null) {
+                    throw e;
+                }
+                if (tentativa >= tentativas) {
+                    throw conflito;
+                }
+                aguardarRetentativa(tentativa, conflito);
+            }
+        }
+    }
+
+    /**
+     * Lê a consulta, aplica a alteração e grava, na mesma transação. A verificação de
+     * conflito e a gravação são feitas com a trava do médico de destino.
+     * <p>
+     * Se a data/hora ou o paciente mudarem, todos os lembretes da consulta, enviados ou não,
+     * são apagados na mesma transação: o texto deles traz o horário antigo, e a sua
+     * existência impediria a geração dos lembretes do novo horário.
+     * </p>
      */
-    public Boolean atualizarConsulta(int id, LocalDateTime dataHora, Medico medico, Paciente paciente, TipoConsulta tipo) {
+    private boolean aplicarAlteracao(int id, Consumer<Consulta> alteracao) {
+        int idMedicoAnterior;
+        int idMedicoNovo;
+        LocalDateTime dataHora;
         EntityManager em = JPAUtil.getEntityManager();
         try {
+            em.getTransaction().begin();
             Consulta consulta = em.find(Consulta.class, id);
-            if (consulta != null) {
-                em.getTransaction().begin();
-                consulta.setDataHora(dataHora);
-                consulta.setMedico(medico);
-                consulta.setPaciente(paciente);
-                consulta.setTipo(tipo);
-                em.getTransaction().commit();
-                return true;
+            if (consulta == null) {
+                em.getTransaction().rollback();
+                return false;
             }
-            return false;
+            idMedicoAnterior = consulta.getMedico().getId();
+            LocalDateTime dataHoraAnterior = consulta.getDataHora();
+            Integer idPacienteAnterior = idPaciente(consulta);
+            alteracao.accept(consulta);
+            validarDados(consulta.getDataHora(), consulta.getMedico(), consulta.getPaciente(), consulta.getTipo());
+            idMedicoNovo = consulta.getMedico().getId();
+            dataHora = consulta.getDataHora();
+            boolean remarcada = !dataHora.equals(dataHoraAnterior) || !Objects.equals(idPacienteAnterior, idPaciente(consulta));
+
+            ReentrantLock trava = agenda.getTrava(idMedicoNovo);
+            trava.lock();
+            try {
+                verificarConflito(em, consulta, id);
+                try {
+                    if (remarcada) {
+                        descartarLembretes(em, id);
+                    }
+                    em.getTransaction().commit();
+                } catch (PersistenceException e) {
+                    if (buscarConflitoDeVersao(e) == null) {
+                        recusarSeHorarioOcupado(consulta, id);
+                    }
+                    throw e;
+                }
+                if (idMedicoAnterior == idMedicoNovo) {
+                    agenda.remover(idMedicoAnterior, id);
+                }
+                agenda.adicionar(idMedicoNovo, id, consulta.getDataHora(), consulta.getDataHoraFim());
+            } finally {
+                trava.unlock();
+            }
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
         } finally {
             if (em.isOpen()) {
                 em.close();
             }
         }
+        // A agenda do médico anterior é ajustada fora da trava do novo médico, para que
+        // duas trocas de médico em sentidos opostos não fiquem esperando uma pela outra
+        if (idMedicoAnterior != idMedicoNovo) {
+            agenda.remover(idMedicoAnterior, id);
+        }
+        notificar(o -> o.consultaAlterada(id, dataHora));
+        return true;
+    }
+
+    private static Integer idPaciente(Consulta consulta) {
+        return consulta.getPaciente() != null ? consulta.getPaciente().getId() : null;
+    }
+
+    /**
+     * Apaga todos os lembretes da consulta, inclusive os já enviados, que se referem ao
+     * horário anterior: enquanto existissem, o relatório e o agendador considerariam a
+     * consulta já lembrada e não gerariam os lembretes do novo horário. Um lembrete que
+     * esteja sendo enviado neste momento também é apagado; o resultado do envio, gravado
+     * pelo ID e pela reserva, simplesmente não encontra mais a linha.
+     */
+    private static void descartarLembretes(EntityManager em, int idConsulta) {
+        em.createQuery("DELETE FROM LembreteOutbox l WHERE l.consulta.id = :id")
+                .setParameter("id", idConsulta)
+                .executeUpdate();
+    }
+
+    /**
+     * Chamado quando o banco recusa a gravação de uma consulta: a recusa pode vir da
+     * restrição única (médico, data/hora), por um agendamento feito em outra instância
+     * da aplicação. A agenda do médico é relida do banco e, se o horário estiver de fato
+     * ocupado, lança {@link ConflitoAgendamentoException}; caso contrário, não faz nada
+     * e o chamador repassa o erro original.
+     */
+    private void recusarSeHorarioOcupado(Consulta consulta, int idIgnorar) {
+        agenda.invalidar(consulta.getMedico().getId());
+        AgendaMedicos.Intervalo conflito = agenda.buscarConflito(consulta.getMedico().getId(),
+                consulta.getDataHora(), consulta.getDataHoraFim(), idIgnorar);
+        if (conflito != null) {
+            throw new ConflitoAgendamentoException(consulta.getMedico().getNome(), conflito.idConsulta, conflito.inicio, conflito.fim);
+        }
     }
 
     /**
-     * Remove uma consulta do sistema com base no seu ID.
+     * Procura, na cadeia de causas, a falha de versão gerada quando uma entidade foi gravada
+     * por outro usuário depois de lida (o Hibernate a envolve em uma RollbackException no commit).
+     */
+    static OptimisticLockException buscarConflitoDeVersao(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof OptimisticLockException) {
+                return (OptimisticLockException) causa;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Espera um tempo crescente e um pouco aleatório antes de uma nova tentativa, para que
+     * dois usuários em conflito não voltem a gravar exatamente ao mesmo tempo.
+     */
+    private static void aguardarRetentativa(int tentativa, OptimisticLockException conflito) {
+        try {
+            Thread.sleep(ESPERA_RETENTATIVA_MS * tentativa + ThreadLocalRandom.current().nextInt(ESPERA_RETENTATIVA_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflito;
+        }
+    }
+
+    /**
+     * Remove uma consulta do sistema com base no seu ID, junto com os seus lembretes.
      *
      * @param id O ID da consulta a ser removida.
      * @return {@code true} se a consulta foi encontrada e removida, {@code false} caso contrário.
@@ -84,8 +470,13 @@ public class ConsultaServico {
             Consulta consulta = em.find(Consulta.class, id);
             if (consulta != null) {
                 em.getTransaction().begin();
+                em.createQuery("DELETE FROM LembreteOutbox l WHERE l.consulta.id = :id")
+                        .setParameter("id", id)
+                        .executeUpdate();
                 em.remove(consulta);
                 em.getTransaction().commit();
+                agenda.remover(consulta.getMedico().getId(), id);
+                notificar(o -> o.consultaRemovida(id));
                 return true;
             }
             return false;
@@ -134,4 +525,220 @@ public class ConsultaServico {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Retorna o resumo de todas as consultas cadastradas, ordenado por data e hora.
+     * Busca apenas as colunas exibidas nas listagens (ID, data, paciente, médico e tipo)
+     * em uma única instrução SQL, sem montar as entidades Paciente e Medico.
+     *
+     * @return Uma lista de resumos de consultas.
+     */
+    public List<ConsultaResumo> listarResumoConsultas() {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            return em.createQuery(
+                    "SELECT NEW modelo.ConsultaResumo(c.id, c.dataHora, p.id, p.nome, m.nome, c.tipo) " +
+                    "FROM Consulta c JOIN c.paciente p JOIN c.medico m " +
+                    "ORDER BY c.dataHora", ConsultaResumo.class).getResultList();
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Retorna a quantidade total de consultas cadastradas.
+     *
+     * @return O número de consultas.
+     */
+    public int contarConsultas() {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            return em.createQuery("SELECT COUNT(c) FROM Consulta c", Long.class).getSingleResult().intValue();
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Retorna uma faixa do resumo de consultas, ordenada por data/hora e ID.
+     * Usado pelas tabelas que carregam apenas as linhas visíveis, quando saltam para uma
+     * posição distante; o banco percorre as linhas anteriores à faixa, de modo que as
+     * páginas vizinhas devem ser lidas por {@link #listarResumoConsultasPaginado(ConsultaResumo, int)}
+     * e {@link #listarResumoConsultasAntes(ConsultaResumo, int)}.
+     *
+     * @param inicio     A posição da primeira consulta (começando em 0).
+     * @param quantidade A quantidade máxima de consultas.
+     * @return Os resumos das consultas da faixa.
+     */
+    public List<ConsultaResumo> listarResumoConsultas(int inicio, int quantidade) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            return em.createQuery(
+                    "SELECT NEW modelo.ConsultaResumo(c.id, c.dataHora, p.id, p.nome, m.nome, c.tipo) " +
+                    "FROM Consulta c JOIN c.paciente p JOIN c.medico m " +
+                    "ORDER BY c.dataHora, c.id", ConsultaResumo.class)
+                    .setFirstResult(inicio)
+                    .setMaxResults(quantidade)
+                    .getResultList();
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Retorna uma página do resumo de consultas, ordenada por data/hora e ID, começando
+     * logo após a última consulta da página anterior (paginação por chave).
+     *
+     * @param ultima        A última consulta da página anterior, ou {@code null} para a primeira página.
+     * @param tamanhoPagina A quantidade máxima de consultas na página.
+     * @return A página de resumos de consultas.
+     */
+    public Pagina<ConsultaResumo> listarResumoConsultasPaginado(ConsultaResumo ultima, int tamanhoPagina) {
+        String jpql = "SELECT NEW modelo.ConsultaResumo(c.id, c.dataHora, p.id, p.nome, m.nome, c.tipo) " +
+                "FROM Consulta c JOIN c.paciente p JOIN c.medico m" +
+                (ultima != null ? " WHERE c.dataHora > :dataHora OR (c.dataHora = :dataHora AND c.id > :id)" : "") +
+                " ORDER BY c.dataHora, c.id";
+
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            TypedQuery<ConsultaResumo> query = em.createQuery(jpql, ConsultaResumo.class);
+            if (ultima != null) {
+                query.setParameter("dataHora", ultima.getDataHora());
+                query.setParameter("id", ultima.getId());
+            }
+            query.setMaxResults(tamanhoPagina + 1);
+            return Pagina.de(query.getResultList(), tamanhoPagina);
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Retorna o resumo das consultas imediatamente anteriores a uma consulta, na ordem
+     * de data/hora e ID (paginação por chave no sentido inverso). Usado pelas tabelas ao
+     * rolar para cima.
+     *
+     * @param primeira   A primeira consulta da página seguinte.
+     * @param quantidade A quantidade máxima de consultas.
+     * @return Os resumos das consultas, em ordem crescente de data/hora e ID.
+     */
+    public List<ConsultaResumo> listarResumoConsultasAntes(ConsultaResumo primeira, int quantidade) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            List<ConsultaResumo> resumos = new ArrayList<>(em.createQuery(
+                    "SELECT NEW modelo.ConsultaResumo(c.id, c.dataHora, p.id, p.nome, m.nome, c.tipo) " +
+                    "FROM Consulta c JOIN c.paciente p JOIN c.medico m " +
+                    "WHERE c.dataHora < :dataHora OR (c.dataHora = :dataHora AND c.id < :id) " +
+                    "ORDER BY c.dataHora DESC, c.id DESC", ConsultaResumo.class)
+                    .setParameter("dataHora", primeira.getDataHora())
+                    .setParameter("id", primeira.getId())
+                    .setMaxResults(quantidade)
+                    .getResultList());
+            Collections.reverse(resumos);
+            return resumos;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Busca as consultas agendadas dentro de um intervalo de datas.
+     * O filtro é aplicado diretamente no banco (coluna dataHora indexada),
+     * trazendo o paciente e o médico na mesma consulta SQL.
+     *
+     * @param inicio Início do intervalo (inclusivo).
+     * @param fim    Fim do intervalo (exclusivo).
+     * @return A lista de consultas do período, ordenada por data e hora.
+     */
+    public List<Consulta> buscarConsultasPorPeriodo(LocalDateTime inicio, LocalDateTime fim) {
+        return buscarConsultasPorPeriodo(inicio, fim, null);
+    }
+
+    /**
+     * Busca as consultas agendadas dentro de um intervalo de datas, mantendo apenas
+     * aquelas cujo paciente possui o tipo de contato informado.
+     *
+     * @param inicio        Início do intervalo (inclusivo).
+     * @param fim           Fim do intervalo (exclusivo).
+     * @param filtroContato O tipo de contato exigido ("EMAIL" ou "TELEFONE"), ou {@code null} para não filtrar.
+     * @return A lista de consultas do período, ordenada por data e hora.
+     */
+    public List<Consulta> buscarConsultasPorPeriodo(LocalDateTime inicio, LocalDateTime fim, String filtroContato) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            return buscarConsultasPorPeriodo(em, inicio, fim, filtroContato);
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Mesma busca de {@link #buscarConsultasPorPeriodo(LocalDateTime, LocalDateTime, String)},
+     * feita com um EntityManager do chamador, para participar da sua transação.
+     */
+    List<Consulta> buscarConsultasPorPeriodo(EntityManager em, LocalDateTime inicio, LocalDateTime fim, String filtroContato) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT c FROM Consulta c JOIN FETCH c.paciente p JOIN FETCH c.medico m " +
+                "WHERE c.dataHora >= :inicio AND c.dataHora < :fim");
+        jpql.append(condicaoContato(filtroContato));
+        jpql.append(" ORDER BY c.dataHora");
+
+        TypedQuery<Consulta> query = em.createQuery(jpql.toString(), Consulta.class);
+        query.setParameter("inicio", inicio);
+        query.setParameter("fim", fim);
+        return query.getResultList();
+    }
+
+    /**
+     * Monta a condição JPQL que mantém apenas os pacientes (alias {@code p}) com o tipo de contato informado.
+     *
+     * @param filtroContato "EMAIL", "TELEFONE" ou {@code null}.
+     * @return A condição, iniciada por " AND ", ou uma String vazia se não houver filtro.
+     */
+    static String condicaoContato(String filtroContato) {
+        if ("EMAIL".equals(filtroContato)) {
+            return " AND p.contato.email IS NOT NULL AND p.contato.email <> ''";
+        } else if ("TELEFONE".equals(filtroContato)) {
+            return " AND p.contato.telefone IS NOT NULL AND p.contato.telefone <> ''";
+        }
+        return "";
+    }
+
+    /**
+     * Lista o horário de todas as consultas a partir de um momento, lendo apenas o ID e a
+     * data e hora de cada uma.
+     *
+     * @param aPartirDe O momento inicial (inclusivo).
+     * @return A data e hora de cada consulta, pelo ID, em ordem de horário.
+     */
+    Map<Integer, LocalDateTime> listarHorariosAPartirDe(LocalDateTime aPartirDe) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            List<Object[]> linhas = em.createQuery(
+                    "SELECT c.id, c.dataHora FROM Consulta c WHERE c.dataHora >= :inicio ORDER BY c.dataHora", Object[].class)
+                    .setParameter("inicio", aPartirDe)
+                    .getResultList();
+            Map<Integer, LocalDateTime> horarios = new LinkedHashMap<>();
+            for (Object[] linha : linhas) {
+                horarios.put((Integer) linha[0], (LocalDateTime) linha[1]);
+            }
+            return horarios;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+}
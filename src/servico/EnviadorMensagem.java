@@ -0,0 +1,30 @@
+package servico;
+
+import utilitario.CanalMensagem;
+
+import java.util.List;
+
+/**
+ * Entrega mensagens por um canal (um servidor SMTP, um provedor de SMS, ...).
+ * <p>
+ * A {@link FilaEnvioMensagens} chama o enviador com lotes de mensagens do seu canal,
+ * a partir de várias threads ao mesmo tempo; as implementações devem, portanto, ser
+ * seguras para uso concorrente.
+ * </p>
+ */
+public interface EnviadorMensagem {
+
+    /**
+     * @return O canal atendido por este enviador.
+     */
+    CanalMensagem getCanal();
+
+    /**
+     * Entrega um lote de mensagens.
+     * Uma exceção lançada aqui faz com que todo o lote seja considerado não entregue.
+     *
+     * @param lote As mensagens a entregar, todas do canal deste enviador.
+     * @return As mensagens do lote que não puderam ser entregues (vazia se todas foram).
+     */
+    List<Mensagem> enviar(List<Mensagem> lote);
+}
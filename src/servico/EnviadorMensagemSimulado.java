@@ -0,0 +1,57 @@
+package servico;
+
+import utilitario.CanalMensagem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enviador que apenas simula a entrega, escrevendo as mensagens no console.
+ * Usado enquanto a clínica não tem um servidor de e-mail ou um provedor de SMS
+ * configurado; a latência de cada lote imita a ida e volta a um servidor real.
+ */
+public class EnviadorMensagemSimulado implements EnviadorMensagem {
+
+    private final CanalMensagem canal;
+    private final long latenciaPorLoteMs;
+
+    /**
+     * Construtor para o EnviadorMensagemSimulado.
+     *
+     * @param canal             O canal simulado.
+     * @param latenciaPorLoteMs O tempo, em milissegundos, que cada lote leva para ser "entregue".
+     */
+    public EnviadorMensagemSimulado(CanalMensagem canal, long latenciaPorLoteMs) {
+        this.canal = canal;
+        this.latenciaPorLoteMs = latenciaPorLoteMs;
+    }
+
+    @Override
+    public CanalMensagem getCanal() {
+        return canal;
+    }
+
+    /**
+     * Escreve o lote no console em uma única operação, para que as linhas de lotes
+     * enviados em paralelo não se misturem.
+     */
+    @Override
+    public List<Mensagem> enviar(List<Mensagem> lote) {
+        String rotulo = canal == CanalMensagem.EMAIL ? "email" : "SMS";
+        StringBuilder saida = new StringBuilder(lote.size() * 96);
+        for (Mensagem mensagem : lote) {
+            saida.append("Enviando ").append(rotulo).append(" para: ").append(mensagem.getDestinatario())
+                    .append(" | Mensagem: ").append(mensagem.getTexto()).append(System.lineSeparator());
+        }
+        if (latenciaPorLoteMs > 0) {
+            try {
+                Thread.sleep(latenciaPorLoteMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new ArrayList<>(lote);
+            }
+        }
+        System.out.print(saida);
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,252 @@
+package servico;
+
+import utilitario.FormatoExportacao;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escreve as linhas de um relatório em um arquivo, uma de cada vez, por um canal NIO com
+ * buffer. Nenhuma linha fica retida depois de escrita, de modo que a memória usada não
+ * depende do tamanho do relatório.
+ * <p>
+ * O conteúdo é gravado em um arquivo temporário ao lado do destino e só substitui o destino
+ * em {@link #concluir()}; uma exportação interrompida não deixa um arquivo pela metade.
+ * </p>
+ */
+abstract class EscritorExportacao implements Closeable {
+
+    /**
+     * Tamanho, em caracteres, do buffer de escrita (e, em bytes, do buffer do codificador).
+     */
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    protected final String[] colunas;
+    protected final Writer saida;
+    private final FileChannel canal;
+    private final Path temporario;
+    private final Path destino;
+    private long linhas;
+    private boolean concluido;
+
+    private EscritorExportacao(Path destino, String[] colunas) throws IOException {
+        this.destino = destino;
+        this.colunas = colunas;
+        this.temporario = destino.resolveSibling(destino.getFileName() + ".parcial");
+        this.canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.saida = new BufferedWriter(Channels.newWriter(canal, StandardCharsets.UTF_8.newEncoder(), TAMANHO_BUFFER), TAMANHO_BUFFER);
+    }
+
+    /**
+     * Abre um escritor no formato informado e escreve o início do arquivo.
+     *
+     * @param destino O arquivo a gerar (substituído se existir).
+     * @param formato O formato do arquivo.
+     * @param colunas Os nomes das colunas, na ordem dos valores de cada linha.
+     * @return O escritor, que deve ser concluído e fechado.
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    static EscritorExportacao abrir(Path destino, FormatoExportacao formato, String... colunas) throws IOException {
+        EscritorExportacao escritor = formato == FormatoExportacao.JSON
+                ? new Json(destino, colunas) : new Csv(destino, colunas);
+        try {
+            escritor.iniciar();
+            return escritor;
+        } catch (IOException | RuntimeException e) {
+            escritor.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Escreve uma linha do relatório.
+     *
+     * @param valores Os valores, na ordem das colunas. {@code null} é escrito como vazio (CSV) ou null (JSON).
+     * @throws IOException Se a escrita falhar.
+     */
+    void escrever(Object... valores) throws IOException {
+        if (valores.length != colunas.length) {
+            throw new IllegalArgumentException("A linha tem " + valores.length + " valores, mas o relatório tem " + colunas.length + " colunas.");
+        }
+        escreverLinha(valores, linhas);
+        linhas++;
+    }
+
+    /**
+     * @return A quantidade de linhas escritas até agora.
+     */
+    long getLinhas() {
+        return linhas;
+    }
+
+    /**
+     * Escreve o final do arquivo, grava tudo no disco e move o arquivo temporário para o destino.
+     *
+     * @throws IOException Se a escrita ou a substituição do destino falhar.
+     */
+    void concluir() throws IOException {
+        finalizar();
+        saida.flush();
+        canal.force(false);
+        saida.close();
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+        concluido = true;
+    }
+
+    /**
+     * Fecha o arquivo; se a exportação não foi concluída, o arquivo temporário é apagado.
+     */
+    @Override
+    public void close() throws IOException {
+        if (concluido) {
+            return;
+        }
+        try {
+            saida.close();
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    protected abstract void iniciar() throws IOException;
+
+    protected abstract void escreverLinha(Object[] valores, long indice) throws IOException;
+
+    protected abstract void finalizar() throws IOException;
+
+    /**
+     * CSV com separador ";" e cabeçalho. Campos com separador, aspas ou quebras de linha
+     * ficam entre aspas, com as aspas internas duplicadas.
+     */
+    private static final class Csv extends EscritorExportacao {
+
+        Csv(Path destino, String[] colunas) throws IOException {
+            super(destino, colunas);
+        }
+
+        @Override
+        protected void iniciar() throws IOException {
+            escreverLinha(colunas, -1);
+        }
+
+        @Override
+        protected void escreverLinha(Object[] valores, long indice) throws IOException {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    saida.write(';');
+                }
+                if (valores[i] != null) {
+                    escreverCampo(String.valueOf(valores[i]));
+                }
+            }
+            saida.write('\n');
+        }
+
+        @Override
+        protected void finalizar() {
+        }
+
+        private void escreverCampo(String valor) throws IOException {
+            boolean aspas = false;
+            for (int i = 0; i < valor.length() && !aspas; i++) {
+                char c = valor.charAt(i);
+                aspas = c == ';' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!aspas) {
+                saida.write(valor);
+                return;
+            }
+            saida.write('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == '"') {
+                    saida.write('"');
+                }
+                saida.write(c);
+            }
+            saida.write('"');
+        }
+    }
+
+    /**
+     * Um vetor JSON com um objeto por linha, escrito um objeto de cada vez. Números e
+     * booleanos são escritos como tais; os demais valores, como texto.
+     */
+    private static final class Json extends EscritorExportacao {
+
+        Json(Path destino, String[] colunas) throws IOException {
+            super(destino, colunas);
+        }
+
+        @Override
+        protected void iniciar() throws IOException {
+            saida.write('[');
+        }
+
+        @Override
+        protected void escreverLinha(Object[] valores, long indice) throws IOException {
+            saida.write(indice == 0 ? "\n{" : ",\n{");
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    saida.write(',');
+                }
+                escreverTexto(colunas[i]);
+                saida.write(':');
+                Object valor = valores[i];
+                if (valor == null) {
+                    saida.write("null");
+                } else if (valor instanceof Number || valor instanceof Boolean) {
+                    saida.write(valor.toString());
+                } else {
+                    escreverTexto(valor.toString());
+                }
+            }
+            saida.write('}');
+        }
+
+        @Override
+        protected void finalizar() throws IOException {
+            saida.write(getLinhas() == 0 ? "]\n" : "\n]\n");
+        }
+
+        private void escreverTexto(String texto) throws IOException {
+            saida.write('"');
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                switch (c) {
+                    case '"':
+                        saida.write("\\\"");
+                        break;
+                    case '\\':
+                        saida.write("\\\\");
+                        break;
+                    case '\n':
+                        saida.write("\\n");
+                        break;
+                    case '\r':
+                        saida.write("\\r");
+                        break;
+                    case '\t':
+                        saida.write("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            saida.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            saida.write(c);
+                        }
+                }
+            }
+            saida.write('"');
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package servico;
+
+import utilitario.FormatoExportacao;
+import utilitario.JPAUtil;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Serviço responsável por exportar relatórios para arquivos CSV ou JSON.
+ * <p>
+ * As linhas são lidas do banco por um cursor ({@code getResultStream}), em blocos de
+ * {@value #TAMANHO_BLOCO_CURSOR} linhas, e cada uma é escrita no arquivo assim que lida,
+ * pelo {@link EscritorExportacao}. As consultas selecionam apenas as colunas do relatório,
+ * sem carregar entidades no contexto de persistência, de modo que a memória usada é a
+ * mesma para um relatório de 10 ou de 10 milhões de linhas.
+ * </p>
+ */
+public class ExportacaoRelatorioServico {
+
+    /**
+     * Quantidade de linhas trazidas do banco a cada ida do cursor.
+     */
+    private static final int TAMANHO_BLOCO_CURSOR = 1000;
+
+    private static final String[] COLUNAS_CONSULTAS = {
+            "id", "dataHora", "tipo", "paciente", "cpf", "email", "telefone", "medico"};
+    private static final String[] COLUNAS_ATENDIDOS = {"id", "nome", "cpf"};
+
+    /**
+     * Exporta as consultas de um período, com o paciente, o contato e o médico de cada uma.
+     *
+     * @param inicio        Início do período (inclusivo).
+     * @param fim           Fim do período (exclusivo).
+     * @param filtroContato O tipo de contato exigido ("EMAIL" ou "TELEFONE"), ou {@code null} para não filtrar.
+     * @param arquivo       O arquivo a gerar (substituído se existir).
+     * @param formato       O formato do arquivo.
+     * @return A quantidade de linhas exportadas, o tempo e a vazão.
+     * @throws IOException Se o arquivo não puder ser escrito.
+     */
+    public ResultadoExportacao exportarConsultas(LocalDateTime inicio, LocalDateTime fim, String filtroContato,
+                                                 Path arquivo, FormatoExportacao formato) throws IOException {
+        String jpql = "SELECT c.id, c.dataHora, c.tipo, p.nome, p.cpf, p.contato.email, p.contato.telefone, m.nome " +
+                "FROM Consulta c JOIN c.paciente p JOIN c.medico m " +
+                "WHERE c.dataHora >= :inicio AND c.dataHora < :fim" + ConsultaServico.condicaoContato(filtroContato) +
+                " ORDER BY c.dataHora, c.id";
+        return exportar(arquivo, formato, COLUNAS_CONSULTAS, em -> em.createQuery(jpql, Object[].class)
+                .setParameter("inicio", inicio)
+                .setParameter("fim", fim));
+    }
+
+    /**
+     * Exporta os pacientes distintos atendidos por um médico em um mês, ordenados por nome
+     * (as mesmas linhas de {@link MedicoServico#getClientesAtendidosMes(int, int, int)}).
+     *
+     * @param idMedico O ID do médico.
+     * @param mes      O mês de referência.
+     * @param ano      O ano de referência.
+     * @param arquivo  O arquivo a gerar (substituído se existir).
+     * @param formato  O formato do arquivo.
+     * @return A quantidade de linhas exportadas, o tempo e a vazão.
+     * @throws IOException Se o arquivo não puder ser escrito.
+     */
+    public ResultadoExportacao exportarAtendidosMes(int idMedico, int mes, int ano, Path arquivo,
+                                                    FormatoExportacao formato) throws IOException {
+        LocalDateTime inicio = LocalDate.of(ano, mes, 1).atStartOfDay();
+        LocalDateTime fim = inicio.plusMonths(1);
+        return exportar(arquivo, formato, COLUNAS_ATENDIDOS, em -> em.createQuery(
+                "SELECT DISTINCT p.id, p.nome, p.cpf " +
+                "FROM Consulta c JOIN c.paciente p " +
+                "WHERE c.medico.id = :idMedico AND c.dataHora >= :inicio AND c.dataHora < :fim " +
+                "ORDER BY p.nome", Object[].class)
+                .setParameter("idMedico", idMedico)
+                .setParameter("inicio", inicio)
+                .setParameter("fim", fim));
+    }
+
+    /**
+     * Monta a consulta de um relatório a partir do EntityManager da exportação.
+     */
+    private interface ConsultaRelatorio {
+        TypedQuery<Object[]> criar(EntityManager em);
+    }
+
+    /**
+     * Percorre o cursor da consulta escrevendo cada linha no arquivo. A leitura é feita dentro
+     * de uma transação, para que a conexão (e o cursor) fique aberta até o fim.
+     */
+    private ResultadoExportacao exportar(Path arquivo, FormatoExportacao formato, String[] colunas,
+                                         ConsultaRelatorio consulta) throws IOException {
+        ResultadoExportacao resultado = new ResultadoExportacao(arquivo);
+        EntityManager em = JPAUtil.getEntityManager();
+        try (EscritorExportacao escritor = EscritorExportacao.abrir(arquivo, formato, colunas)) {
+            em.getTransaction().begin();
+            TypedQuery<Object[]> query = consulta.criar(em);
+            query.setHint("org.hibernate.fetchSize", TAMANHO_BLOCO_CURSOR);
+            query.setHint("org.hibernate.readOnly", true);
+            try (Stream<Object[]> linhas = query.getResultStream()) {
+                Iterator<Object[]> iterador = linhas.iterator();
+                while (iterador.hasNext()) {
+                    escritor.escrever(iterador.next());
+                }
+            }
+            em.getTransaction().commit();
+            escritor.concluir();
+            resultado.concluir(escritor.getLinhas());
+            return resultado;
+        } catch (IOException | RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package servico;
+
+import utilitario.CanalMensagem;
+import utilitario.LimitadorTaxa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fila de envio assíncrono de mensagens, com uma fila limitada e um grupo de threads por canal.
+ * <p>
+ * {@link #enviar(Collection)} apenas coloca as mensagens na fila do seu canal e devolve um
+ * {@link CompletableFuture} que é concluído quando todas tiverem sido entregues ou tiverem
+ * falhado. As threads de cada canal retiram da fila lotes de até {@code tamanhoLote}
+ * mensagens, respeitam o limite de mensagens por segundo do canal e entregam o lote ao
+ * {@link EnviadorMensagem}. Quando a fila está cheia, quem envia espera por espaço, o que
+ * impede que um envio muito grande ocupe toda a memória.
+ * </p>
+ */
+public class FilaEnvioMensagens {
+
+    private static final Logger logger = Logger.getLogger(FilaEnvioMensagens.class.getName());
+
+    /**
+     * Tempo máximo, em milissegundos, que uma thread ociosa espera por mensagens antes de
+     * verificar se a fila foi encerrada.
+     */
+    private static final long ESPERA_FILA_MS = 200;
+
+    /**
+     * Uma mensagem na fila, junto com o envio do qual faz parte.
+     */
+    private static class Envio {
+        final Mensagem mensagem;
+        final Acompanhamento acompanhamento;
+
+        Envio(Mensagem mensagem, Acompanhamento acompanhamento) {
+            this.mensagem = mensagem;
+            this.acompanhamento = acompanhamento;
+        }
+    }
+
+    /**
+     * Conta as mensagens pendentes de uma chamada a {@link #enviar(Collection)} e conclui o
+     * seu Future quando a última for processada.
+     */
+    private static class Acompanhamento {
+        final ResultadoEnvio resultado;
+        final CompletableFuture<ResultadoEnvio> futuro = new CompletableFuture<>();
+        final AtomicInteger pendentes;
+
+        Acompanhamento(int total) {
+            this.resultado = new ResultadoEnvio(total);
+            this.pendentes = new AtomicInteger(total);
+        }
+
+        void registrar(Mensagem mensagem, boolean entregue) {
+            if (entregue) {
+                resultado.registrarEnviada();
+            } else {
+                resultado.registrarFalha(mensagem);
+            }
+            if (pendentes.decrementAndGet() == 0) {
+                resultado.concluir();
+                futuro.complete(resultado);
+            }
+        }
+    }
+
+    /**
+     * A fila, as threads e o limite de taxa de um canal.
+     */
+    private class Canal {
+        final EnviadorMensagem enviador;
+        final BlockingQueue<Envio> fila;
+        final LimitadorTaxa limitador;
+        final int tamanhoLote;
+
+        Canal(EnviadorMensagem enviador, int capacidadeFila, int tamanhoLote, int mensagensPorSegundo) {
+            this.enviador = enviador;
+            this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+            this.limitador = new LimitadorTaxa(mensagensPorSegundo, Math.max(mensagensPorSegundo, tamanhoLote));
+            this.tamanhoLote = tamanhoLote;
+        }
+
+        /**
+         * Laço de cada thread do canal: retira um lote, espera a taxa permitir e entrega.
+         * Ao encerrar a fila, as mensagens já enfileiradas ainda são entregues.
+         */
+        void processar() {
+            List<Envio> lote = new ArrayList<>(tamanhoLote);
+            while (!encerrada || !fila.isEmpty()) {
+                try {
+                    Envio primeiro = fila.poll(ESPERA_FILA_MS, TimeUnit.MILLISECONDS);
+                    if (primeiro == null) {
+                        continue;
+                    }
+                    lote.add(primeiro);
+                    fila.drainTo(lote, tamanhoLote - 1);
+                    limitador.adquirir(lote.size());
+                    entregar(lote);
+                } catch (InterruptedException e) {
+                    for (Envio envio : lote) {
+                        envio.acompanhamento.registrar(envio.mensagem, false);
+                    }
+                    return;
+                } finally {
+                    lote.clear();
+                }
+            }
+        }
+
+        private void entregar(List<Envio> lote) {
+            List<Mensagem> mensagens = new ArrayList<>(lote.size());
+            for (Envio envio : lote) {
+                mensagens.add(envio.mensagem);
+            }
+            Set<Mensagem> falhas = Collections.newSetFromMap(new IdentityHashMap<>());
+            try {
+                falhas.addAll(enviador.enviar(mensagens));
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Falha ao enviar um lote de " + lote.size() + " mensagens por " + enviador.getCanal(), e);
+                falhas.addAll(mensagens);
+            }
+            for (Envio envio : lote) {
+                envio.acompanhamento.registrar(envio.mensagem, !falhas.contains(envio.mensagem));
+            }
+        }
+    }
+
+    private final Map<CanalMensagem, Canal> canais = new EnumMap<>(CanalMensagem.class);
+    private volatile boolean encerrada = false;
+
+    /**
+     * Registra o enviador de um canal e inicia as suas threads.
+     * Deve ser chamado antes do primeiro envio, uma vez por canal.
+     *
+     * @param enviador            O enviador do canal.
+     * @param quantidadeThreads   Quantas entregas do canal podem ocorrer ao mesmo tempo.
+     * @param capacidadeFila      Quantas mensagens podem aguardar na fila do canal.
+     * @param tamanhoLote         A quantidade máxima de mensagens entregues ao enviador de uma vez.
+     * @param mensagensPorSegundo O limite de mensagens por segundo do canal.
+     * @throws IllegalStateException Se o canal já tiver um enviador registrado.
+     */
+    public synchronized void registrar(EnviadorMensagem enviador, int quantidadeThreads, int capacidadeFila, int tamanhoLote, int mensagensPorSegundo) {
+        if (canais.containsKey(enviador.getCanal())) {
+            throw new IllegalStateException("O canal " + enviador.getCanal() + " já tem um enviador registrado.");
+        }
+        Canal canal = new Canal(enviador, capacidadeFila, tamanhoLote, mensagensPorSegundo);
+        canais.put(enviador.getCanal(), canal);
+        for (int i = 1; i <= quantidadeThreads; i++) {
+            Thread thread = new Thread(canal::processar, "envio-" + enviador.getCanal().name().toLowerCase() + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Coloca as mensagens nas filas dos seus canais. Mensagens sem destinatário, ou de um
+     * canal sem enviador, são contadas como falha imediatamente.
+     * O método só espera enquanto alguma fila estiver cheia; a entrega ocorre em segundo plano.
+     *
+     * @param mensagens As mensagens a enviar.
+     * @return Um Future concluído com o resultado quando todas as mensagens forem processadas.
+     */
+    public CompletableFuture<ResultadoEnvio> enviar(Collection<Mensagem> mensagens) {
+        Acompanhamento acompanhamento = new Acompanhamento(mensagens.size());
+        if (mensagens.isEmpty()) {
+            acompanhamento.resultado.concluir();
+            acompanhamento.futuro.complete(acompanhamento.resultado);
+            return acompanhamento.futuro;
+        }
+
+        boolean interrompido = false;
+        for (Mensagem mensagem : mensagens) {
+            Canal canal = canais.get(mensagem.getCanal());
+            if (interrompido || encerrada || canal == null || !mensagem.isTemDestinatario()) {
+                acompanhamento.registrar(mensagem, false);
+                continue;
+            }
+            try {
+                canal.fila.put(new Envio(mensagem, acompanhamento));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrompido = true;
+                acompanhamento.registrar(mensagem, false);
+            }
+        }
+        return acompanhamento.futuro;
+    }
+
+    /**
+     * Encerra a fila: novos envios falham imediatamente e as threads terminam depois de
+     * entregar as mensagens já enfileiradas.
+     */
+    public void encerrar() {
+        encerrada = true;
+    }
+}
@@ -3,20 +3,67 @@ package servico;
 import modelo.Consulta;
 import modelo.Contato;
 import modelo.Paciente;
+import utilitario.CanalMensagem;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Serviço responsável por gerenciar o envio de mensagens (e-mails e SMS)
  * para os pacientes sobre suas consultas agendadas.
+ * <p>
+ * As mensagens são entregues em segundo plano por uma {@link FilaEnvioMensagens}, em lotes
+ * e com um limite de mensagens por segundo em cada canal; os métodos de envio retornam
+ * assim que as mensagens estão na fila. Os textos vêm dos {@link ModelosMensagem}, que
+ * podem ser personalizados por canal.
+ * </p>
  */
 public class GerenciadorDeMensagensServico {
+
+    /**
+     * Threads, capacidade da fila, tamanho do lote e mensagens por segundo de cada canal.
+     */
+    private static final int THREADS_EMAIL = 4;
+    private static final int CAPACIDADE_FILA_EMAIL = 1000;
+    private static final int LOTE_EMAIL = 50;
+    private static final int TAXA_EMAIL = 500;
+    private static final int THREADS_SMS = 4;
+    private static final int CAPACIDADE_FILA_SMS = 1000;
+    private static final int LOTE_SMS = 20;
+    private static final int TAXA_SMS = 100;
+
+    /**
+     * Latência, em milissegundos, de cada lote nos enviadores simulados.
+     */
+    private static final long LATENCIA_SIMULADA_EMAIL_MS = 20;
+    private static final long LATENCIA_SIMULADA_SMS_MS = 10;
+
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final FilaEnvioMensagens filaEnvio = new FilaEnvioMensagens();
+    private final ModelosMensagem modelos = ModelosMensagem.getInstancia();
+
     /**
-     * Construtor padrão para o GerenciadorDeMensagensServico.
+     * Construtor padrão para o GerenciadorDeMensagensServico, com enviadores simulados
+     * que escrevem as mensagens no console.
      */
     public GerenciadorDeMensagensServico() {
+        this(new EnviadorMensagemSimulado(CanalMensagem.EMAIL, LATENCIA_SIMULADA_EMAIL_MS),
+                new EnviadorMensagemSimulado(CanalMensagem.SMS, LATENCIA_SIMULADA_SMS_MS));
+    }
+
+    /**
+     * Construtor para o GerenciadorDeMensagensServico com enviadores próprios.
+     *
+     * @param enviadorEmail O enviador usado para os e-mails.
+     * @param enviadorSms   O enviador usado para os SMS.
+     */
+    public GerenciadorDeMensagensServico(EnviadorMensagem enviadorEmail, EnviadorMensagem enviadorSms) {
+        filaEnvio.registrar(enviadorEmail, THREADS_EMAIL, CAPACIDADE_FILA_EMAIL, LOTE_EMAIL, TAXA_EMAIL);
+        filaEnvio.registrar(enviadorSms, THREADS_SMS, CAPACIDADE_FILA_SMS, LOTE_SMS, TAXA_SMS);
     }
 
     /**
@@ -24,27 +71,10 @@ public class GerenciadorDeMensagensServico {
      * Caso o paciente não possua e-mail cadastrado, uma mensagem de falha é exibida.
      *
      * @param listaConsultasDiaSeguinte A lista de consultas agendadas para o dia seguinte.
+     * @return Um Future concluído com o resultado quando todos os e-mails forem processados.
      */
-    public void enviarEmails(List<Consulta> listaConsultasDiaSeguinte) {
-        ListIterator<Consulta> it = listaConsultasDiaSeguinte.listIterator();
-        DateTimeFormatter formatador = DateTimeFormatter.ofPattern("HH:mm");
-
-        while (it.hasNext()) {
-            Consulta consulta = it.next();
-            Paciente paciente = consulta.getPaciente();
-            Contato contato = paciente.getContato();
-
-            Boolean temEmail = contato.getEmail() != null && !contato.getEmail().isEmpty();
-            if (!temEmail) {
-                System.out.println("Falha ao enviar email para: " + paciente.getNome());
-            } else {
-                System.out.println(
-                        "Enviando email para: " + contato.getEmail() +
-                                " | Mensagem: Consulta agendada para amanhã as " + consulta.getDataHora().format(formatador)
-                );
-            }
-
-        }
+    public CompletableFuture<ResultadoEnvio> enviarEmails(List<Consulta> listaConsultasDiaSeguinte) {
+        return enviarLembretes(listaConsultasDiaSeguinte, CanalMensagem.EMAIL);
     }
 
     /**
@@ -52,26 +82,102 @@ public class GerenciadorDeMensagensServico {
      * Caso o paciente não possua telefone cadastrado, uma mensagem de falha é exibida.
      *
      * @param listaConsultasDiaSeguinte A lista de consultas agendadas para o dia seguinte.
+     * @return Um Future concluído com o resultado quando todos os SMS forem processados.
+     */
+    public CompletableFuture<ResultadoEnvio> enviarMensagensSMS(List<Consulta> listaConsultasDiaSeguinte) {
+        return enviarLembretes(listaConsultasDiaSeguinte, CanalMensagem.SMS);
+    }
+
+    /**
+     * Coloca mensagens já montadas na fila de envio.
+     *
+     * @param mensagens As mensagens a enviar.
+     * @return Um Future concluído com o resultado quando todas as mensagens forem processadas.
      */
-    public void enviarMensagensSMS(List<Consulta> listaConsultasDiaSeguinte) {
-        ListIterator<Consulta> it = listaConsultasDiaSeguinte.listIterator();
-        DateTimeFormatter formatador = DateTimeFormatter.ofPattern("HH:mm");
-
-        while (it.hasNext()) {
-            Consulta consulta = it.next();
-            Paciente paciente = consulta.getPaciente();
-            Contato contato = paciente.getContato();
-
-            Boolean temTelefone = contato.getTelefone() != null && !contato.getTelefone().isEmpty();
-            if (!temTelefone) {
-                System.out.println("Falha ao enviar SMS para: " + paciente.getNome());
-            } else {
-                System.out.println(
-                        "Enviando SMS para: " + contato.getTelefone() +
-                                " | Mensagem: Consulta agendada para amanhã as " + consulta.getDataHora().format(formatador)
-                );
+    public CompletableFuture<ResultadoEnvio> enviar(List<Mensagem> mensagens) {
+        return filaEnvio.enviar(mensagens);
+    }
+
+    /**
+     * Encerra a fila de envio depois de entregar as mensagens já enfileiradas.
+     */
+    public void encerrar() {
+        filaEnvio.encerrar();
+    }
+
+    /**
+     * Monta o lembrete de cada consulta no canal informado e o coloca na fila de envio.
+     * Pacientes sem e-mail ou telefone (conforme o canal) são informados no console e
+     * contados como falha.
+     */
+    private CompletableFuture<ResultadoEnvio> enviarLembretes(List<Consulta> consultas, CanalMensagem canal) {
+        List<Mensagem> mensagens = new ArrayList<>(consultas.size());
+        for (Consulta consulta : consultas) {
+            Mensagem mensagem = criarLembrete(consulta, canal);
+            if (!mensagem.isTemDestinatario()) {
+                System.out.println("Falha ao enviar " + (canal == CanalMensagem.EMAIL ? "email" : "SMS") + " para: " + mensagem.getNomeDestinatario());
             }
+            mensagens.add(mensagem);
+        }
+        return filaEnvio.enviar(mensagens);
+    }
 
+    /**
+     * Monta o lembrete de uma consulta do dia seguinte para o canal informado.
+     *
+     * @param consulta A consulta, com o paciente carregado.
+     * @param canal    O canal de envio.
+     * @return A mensagem, sem destinatário se o paciente não tiver o contato do canal.
+     */
+    Mensagem criarLembrete(Consulta consulta, CanalMensagem canal) {
+        return criarLembrete(List.of(consulta), canal);
+    }
+
+    /**
+     * Monta um único lembrete para as consultas do dia seguinte de um mesmo paciente,
+     * com os horários de todas elas.
+     *
+     * @param consultas As consultas do paciente, em ordem de horário (ao menos uma).
+     * @param canal     O canal de envio.
+     * @return A mensagem, associada à primeira consulta.
+     */
+    Mensagem criarLembrete(List<Consulta> consultas, CanalMensagem canal) {
+        Consulta primeira = consultas.get(0);
+        Paciente paciente = primeira.getPaciente();
+        Contato contato = paciente.getContato();
+        String destinatario = canal == CanalMensagem.EMAIL ? contato.getEmail() : contato.getTelefone();
+
+        String texto;
+        if (consultas.size() == 1) {
+            texto = modelos.get(ModelosMensagem.LEMBRETE, canal)
+                    .renderizar(paciente.getNome(), primeira.getDataHora().format(FORMATO_HORA));
+        } else {
+            StringBuilder horarios = new StringBuilder(consultas.size() * 7);
+            for (int i = 0; i < consultas.size(); i++) {
+                if (i > 0) {
+                    horarios.append(", ");
+                }
+                FORMATO_HORA.formatTo(consultas.get(i).getDataHora(), horarios);
+            }
+            texto = modelos.get(ModelosMensagem.LEMBRETE_VARIAS, canal).renderizar(paciente.getNome(), horarios);
         }
+        return new Mensagem(canal, primeira.getId(), paciente.getNome(), destinatario, texto);
+    }
+
+    /**
+     * Monta o lembrete enviado com antecedência fixa antes de uma consulta, com a data e a
+     * hora completas (a consulta pode não ser no dia seguinte).
+     *
+     * @param consulta A consulta, com o paciente carregado.
+     * @param canal    O canal de envio.
+     * @return A mensagem, sem destinatário se o paciente não tiver o contato do canal.
+     */
+    Mensagem criarLembreteAntecipado(Consulta consulta, CanalMensagem canal) {
+        Paciente paciente = consulta.getPaciente();
+        Contato contato = paciente.getContato();
+        String destinatario = canal == CanalMensagem.EMAIL ? contato.getEmail() : contato.getTelefone();
+        String texto = modelos.get(ModelosMensagem.LEMBRETE_ANTECIPADO, canal).renderizar(paciente.getNome(),
+                consulta.getDataHora().format(FORMATO_DATA), consulta.getDataHora().format(FORMATO_HORA));
+        return new Mensagem(canal, consulta.getId(), paciente.getNome(), destinatario, texto);
     }
 }
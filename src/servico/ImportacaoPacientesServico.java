@@ -0,0 +1,234 @@
+package servico;
+
+import modelo.Contato;
+import modelo.Endereco;
+import modelo.Paciente;
+import utilitario.TipoConvenio;
+import utilitario.ValidadorCpf;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Serviço responsável por importar pacientes a partir de arquivos CSV.
+ * <p>
+ * O arquivo é lido de forma sequencial, em blocos de linhas. Cada bloco é convertido
+ * em objetos {@link Paciente} (com validação de CPF) por um conjunto de threads, enquanto
+ * a thread que chamou a importação grava os blocos já prontos, na ordem do arquivo,
+ * através do {@link PacienteServico#cadastrarPacientes(List)}. Apenas alguns blocos
+ * ficam em memória ao mesmo tempo, independentemente do tamanho do arquivo.
+ * </p>
+ * <p>
+ * Formato esperado (separador ";", cabeçalho opcional):
+ * {@code nome;cpf;dataNascimento;rua;numero;complemento;bairro;cidade;uf;telefone;email;convenio}.
+ * A data pode estar em AAAA-MM-DD ou DD/MM/AAAA e o convênio deve ser PARTICULAR ou PLANO_SAUDE.
+ * </p>
+ */
+public class ImportacaoPacientesServico {
+    /**
+     * Quantidade de linhas convertidas por tarefa e gravadas por transação.
+     */
+    private static final int TAMANHO_BLOCO = 500;
+    /**
+     * Quantidade máxima de blocos convertidos aguardando gravação.
+     */
+    private static final int MAXIMO_BLOCOS_PENDENTES = 8;
+    private static final int QUANTIDADE_CAMPOS = 12;
+    private static final DateTimeFormatter FORMATO_DATA_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private PacienteServico pacienteServico;
+
+    /**
+     * Construtor para o ImportacaoPacientesServico.
+     *
+     * @param pacienteServico O serviço de pacientes usado para gravar os lotes.
+     */
+    public ImportacaoPacientesServico(PacienteServico pacienteServico) {
+        this.pacienteServico = pacienteServico;
+    }
+
+    /**
+     * Importa os pacientes de um arquivo CSV.
+     *
+     * @param arquivo   O caminho do arquivo CSV (codificação UTF-8).
+     * @param progresso Chamado após a gravação de cada bloco com o resultado parcial. Pode ser {@code null}.
+     * @return O resultado final da importação, com as quantidades e a vazão.
+     * @throws IOException Se o arquivo não puder ser lido.
+     */
+    public ResultadoImportacao importar(Path arquivo, Consumer<ResultadoImportacao> progresso) throws IOException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ExecutorService conversores = Executors.newFixedThreadPool(threads);
+        Deque<Future<BlocoConvertido>> pendentes = new ArrayDeque<>();
+
+        try (BufferedReader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            List<LinhaCsv> bloco = new ArrayList<>(TAMANHO_BLOCO);
+            String linha;
+            int numeroLinha = 0;
+
+            while ((linha = leitor.readLine()) != null) {
+                numeroLinha++;
+                if (linha.isBlank() || (numeroLinha == 1 && linha.toLowerCase().startsWith("nome"))) {
+                    continue;
+                }
+                bloco.add(new LinhaCsv(numeroLinha, linha));
+
+                if (bloco.size() == TAMANHO_BLOCO) {
+                    List<LinhaCsv> paraConverter = bloco;
+                    pendentes.add(conversores.submit(() -> converterBloco(paraConverter)));
+                    bloco = new ArrayList<>(TAMANHO_BLOCO);
+
+                    if (pendentes.size() >= MAXIMO_BLOCOS_PENDENTES) {
+                        gravar(pendentes.poll(), resultado, progresso);
+                    }
+                }
+            }
+            if (!bloco.isEmpty()) {
+                List<LinhaCsv> paraConverter = bloco;
+                pendentes.add(conversores.submit(() -> converterBloco(paraConverter)));
+            }
+            while (!pendentes.isEmpty()) {
+                gravar(pendentes.poll(), resultado, progresso);
+            }
+        } finally {
+            conversores.shutdownNow();
+        }
+
+        resultado.concluir();
+        return resultado;
+    }
+
+    /**
+     * Aguarda a conversão de um bloco e grava seus pacientes válidos em uma transação.
+     */
+    private void gravar(Future<BlocoConvertido> futuro, ResultadoImportacao resultado, Consumer<ResultadoImportacao> progresso) throws IOException {
+        BlocoConvertido bloco;
+        try {
+            bloco = futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importação interrompida.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao converter as linhas do arquivo.", e.getCause());
+        }
+
+        int gravados = bloco.pacientes.isEmpty() ? 0 : pacienteServico.cadastrarPacientes(bloco.pacientes);
+        if (gravados < bloco.pacientes.size()) {
+            // Os pacientes ignorados por CPF repetido continuam com ID 0
+            for (int i = 0; i < bloco.pacientes.size(); i++) {
+                Paciente paciente = bloco.pacientes.get(i);
+                if (paciente.getId() == 0) {
+                    bloco.erros.add("Linha " + bloco.linhasPacientes.get(i) + ": CPF já cadastrado (" + paciente.getCpf() + ").");
+                }
+            }
+        }
+        resultado.registrarLote(bloco.linhasLidas, gravados, bloco.erros);
+
+        if (progresso != null) {
+            progresso.accept(resultado);
+        }
+    }
+
+    /**
+     * Converte um bloco de linhas em pacientes, separando as linhas inválidas.
+     * Executado pelas threads de conversão.
+     */
+    private BlocoConvertido converterBloco(List<LinhaCsv> linhas) {
+        BlocoConvertido bloco = new BlocoConvertido(linhas.size());
+        for (LinhaCsv linha : linhas) {
+            try {
+                bloco.pacientes.add(converterLinha(linha.texto));
+                bloco.linhasPacientes.add(linha.numero);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                bloco.erros.add("Linha " + linha.numero + ": " + e.getMessage());
+            }
+        }
+        return bloco;
+    }
+
+    /**
+     * Converte uma linha do CSV em um novo Paciente.
+     *
+     * @param texto A linha do arquivo.
+     * @return O paciente montado (ainda não persistido).
+     * @throws IllegalArgumentException Se a linha estiver incompleta, o CPF for inválido ou o convênio for desconhecido.
+     */
+    private Paciente converterLinha(String texto) {
+        String[] campos = texto.split(";", -1);
+        if (campos.length < QUANTIDADE_CAMPOS) {
+            throw new IllegalArgumentException("esperados " + QUANTIDADE_CAMPOS + " campos, encontrados " + campos.length + ".");
+        }
+
+        String nome = campos[0].trim();
+        if (nome.isEmpty()) {
+            throw new IllegalArgumentException("nome não informado.");
+        }
+        String cpf = campos[1].trim();
+        if (!ValidadorCpf.isValido(cpf)) {
+            throw new IllegalArgumentException("CPF inválido (" + cpf + ").");
+        }
+
+        LocalDate dataNascimento = converterData(campos[2].trim());
+        Endereco endereco = new Endereco(campos[3].trim(), campos[4].trim(), campos[5].trim(),
+                campos[6].trim(), campos[7].trim(), campos[8].trim());
+        Contato contato = new Contato(campos[9].trim(), campos[10].trim());
+        TipoConvenio convenio;
+        try {
+            convenio = TipoConvenio.valueOf(campos[11].trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("convênio inválido (" + campos[11].trim() + ").");
+        }
+
+        return new Paciente(0, nome, ValidadorCpf.somenteDigitos(cpf), dataNascimento, endereco, contato, convenio);
+    }
+
+    private LocalDate converterData(String data) {
+        if (data.contains("/")) {
+            return LocalDate.parse(data, FORMATO_DATA_BR);
+        }
+        return LocalDate.parse(data);
+    }
+
+    /**
+     * Uma linha do arquivo com o seu número, para as mensagens de erro.
+     */
+    private static class LinhaCsv {
+        private final int numero;
+        private final String texto;
+
+        LinhaCsv(int numero, String texto) {
+            this.numero = numero;
+            this.texto = texto;
+        }
+    }
+
+    /**
+     * O resultado da conversão de um bloco: os pacientes válidos (com o número da linha
+     * de cada um) e os erros encontrados.
+     */
+    private static class BlocoConvertido {
+        private final int linhasLidas;
+        private final List<Paciente> pacientes = new ArrayList<>();
+        private final List<Integer> linhasPacientes = new ArrayList<>();
+        private final List<String> erros = new ArrayList<>();
+
+        BlocoConvertido(int linhasLidas) {
+            this.linhasLidas = linhasLidas;
+        }
+    }
+}
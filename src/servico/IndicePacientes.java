@@ -0,0 +1,237 @@
+package servico;
+
+import modelo.Paciente;
+import modelo.PacienteResumo;
+import utilitario.ArvorePrefixos;
+import utilitario.NormalizadorTexto;
+import utilitario.Pagina;
+import utilitario.ValidadorCpf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória dos pacientes, para a busca por prefixo de nome ou CPF.
+ * <p>
+ * Cada paciente é indexado pelo CPF (apenas dígitos) e pelo nome normalizado a partir
+ * de cada palavra (para "JOAO DA SILVA": "JOAO DA SILVA", "DA SILVA" e "SILVA"), de modo
+ * que a busca encontra o paciente digitando o início de qualquer parte do nome, sem
+ * acentos e sem diferenciar maiúsculas.
+ * </p>
+ * <p>
+ * O índice é montado na primeira busca, lendo os pacientes em páginas, e depois é
+ * mantido pelo {@link PacienteServico} a cada cadastro, atualização e remoção. Alterações
+ * feitas no banco por outra instância da aplicação aparecem após {@link #invalidar()} ou
+ * quando o índice completa {@value #VALIDADE_PADRAO_SEGUNDOS} segundos (propriedade de
+ * sistema {@value #PROPRIEDADE_VALIDADE}), sendo então montado de novo na busca seguinte.
+ * As buscas usam uma trava de leitura e podem ocorrer em paralelo; as alterações usam
+ * a trava de escrita.
+ * </p>
+ */
+class IndicePacientes {
+
+    /**
+     * Quantidade de pacientes lidos do banco por vez na montagem do índice.
+     */
+    private static final int TAMANHO_CARGA = 1000;
+
+    /**
+     * Propriedade de sistema com a validade do índice, em segundos.
+     */
+    static final String PROPRIEDADE_VALIDADE = "clinica.pacientes.indice.validade";
+    private static final long VALIDADE_PADRAO_SEGUNDOS = 300;
+
+    private final PacienteServico pacienteServico;
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+    private final ArvorePrefixos<Integer> porNome = new ArvorePrefixos<>();
+    private final ArvorePrefixos<Integer> porCpf = new ArvorePrefixos<>();
+    private final Map<Integer, PacienteResumo> pacientes = new HashMap<>();
+    private final long validadeNanos = TimeUnit.SECONDS.toNanos(Long.getLong(PROPRIEDADE_VALIDADE, VALIDADE_PADRAO_SEGUNDOS));
+    private volatile boolean carregado = false;
+    private volatile long carregadoEmNanos;
+
+    /**
+     * Construtor para o IndicePacientes.
+     *
+     * @param pacienteServico O serviço usado para ler os pacientes na montagem do índice.
+     */
+    IndicePacientes(PacienteServico pacienteServico) {
+        this.pacienteServico = pacienteServico;
+    }
+
+    /**
+     * Busca os pacientes cujo CPF (se o termo for numérico) ou alguma parte do nome começa com o termo.
+     *
+     * @param termo  O texto digitado.
+     * @param limite A quantidade máxima de pacientes.
+     * @return Os pacientes encontrados, na ordem alfabética da chave que correspondeu.
+     */
+    List<PacienteResumo> buscar(String termo, int limite) {
+        garantirCarregado();
+        String texto = termo == null ? "" : termo.trim();
+        String digitos = ValidadorCpf.somenteDigitos(texto);
+        boolean buscaPorCpf = !digitos.isEmpty() && texto.matches("[0-9.\\-]+");
+
+        trava.readLock().lock();
+        try {
+            Set<Integer> ids = new LinkedHashSet<>();
+            if (buscaPorCpf) {
+                porCpf.buscar(digitos, limite, ids);
+            } else {
+                porNome.buscar(NormalizadorTexto.normalizar(texto), limite, ids);
+            }
+            List<PacienteResumo> encontrados = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                encontrados.add(pacientes.get(id));
+            }
+            return encontrados;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inclui ou substitui um paciente no índice. Ignorado enquanto o índice não foi montado,
+     * pois a montagem já lerá o paciente do banco.
+     *
+     * @param paciente O paciente cadastrado ou atualizado.
+     */
+    void adicionar(Paciente paciente) {
+        PacienteResumo resumo = new PacienteResumo(paciente.getId(), paciente.getNome(), paciente.getCpf(),
+                paciente.getContato() != null ? paciente.getContato().getTelefone() : null);
+        trava.writeLock().lock();
+        try {
+            if (carregado) {
+                indexar(resumo);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retira um paciente do índice.
+     *
+     * @param id O ID do paciente removido.
+     */
+    void remover(int id) {
+        trava.writeLock().lock();
+        try {
+            desindexar(id);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta o índice; ele será montado novamente na próxima busca.
+     */
+    void invalidar() {
+        trava.writeLock().lock();
+        try {
+            limpar();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deve ser chamado com a trava de escrita.
+     */
+    private void limpar() {
+        carregado = false;
+        porNome.limpar();
+        porCpf.limpar();
+        pacientes.clear();
+    }
+
+    private boolean isValido() {
+        return carregado && System.nanoTime() - carregadoEmNanos < validadeNanos;
+    }
+
+    /**
+     * Monta o índice na primeira chamada, ou depois de invalidado ou vencido, lendo apenas
+     * o resumo dos pacientes, em páginas buscadas pela chave, de modo que cada página custa
+     * o mesmo independentemente de quantas já foram lidas.
+     */
+    private void garantirCarregado() {
+        if (isValido()) {
+            return;
+        }
+        trava.writeLock().lock();
+        try {
+            if (isValido()) {
+                return;
+            }
+            limpar();
+            Pagina<PacienteResumo> pagina = pacienteServico.listarResumoPacientesPaginado(null, TAMANHO_CARGA);
+            while (true) {
+                for (PacienteResumo resumo : pagina.getItens()) {
+                    indexar(resumo);
+                }
+                if (!pagina.isTemProxima()) {
+                    break;
+                }
+                pagina = pacienteServico.listarResumoPacientesPaginado(pagina.getUltimo().getId(), TAMANHO_CARGA);
+            }
+            carregadoEmNanos = System.nanoTime();
+            carregado = true;
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Grava as chaves de um paciente, removendo antes as de uma versão anterior.
+     * Deve ser chamado com a trava de escrita.
+     */
+    private void indexar(PacienteResumo resumo) {
+        desindexar(resumo.getId());
+        pacientes.put(resumo.getId(), resumo);
+        for (String chave : chavesNome(resumo.getNome())) {
+            porNome.adicionar(chave, resumo.getId());
+        }
+        String cpf = ValidadorCpf.somenteDigitos(resumo.getCpf());
+        if (!cpf.isEmpty()) {
+            porCpf.adicionar(cpf, resumo.getId());
+        }
+    }
+
+    /**
+     * Remove as chaves de um paciente, se ele estiver no índice.
+     * Deve ser chamado com a trava de escrita.
+     */
+    private void desindexar(int id) {
+        PacienteResumo anterior = pacientes.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String chave : chavesNome(anterior.getNome())) {
+            porNome.remover(chave, id);
+        }
+        porCpf.remover(ValidadorCpf.somenteDigitos(anterior.getCpf()), id);
+    }
+
+    /**
+     * Gera as chaves do nome: o nome normalizado a partir de cada uma das suas palavras.
+     */
+    private static List<String> chavesNome(String nome) {
+        String normalizado = NormalizadorTexto.normalizar(nome);
+        List<String> chaves = new ArrayList<>();
+        if (normalizado.isEmpty()) {
+            return chaves;
+        }
+        chaves.add(normalizado);
+        for (int i = normalizado.indexOf(' '); i >= 0; i = normalizado.indexOf(' ', i + 1)) {
+            chaves.add(normalizado.substring(i + 1));
+        }
+        return chaves;
+    }
+}
@@ -0,0 +1,589 @@
+package servico;
+
+import modelo.Consulta;
+import modelo.Contato;
+import modelo.LembreteOutbox;
+import utilitario.CanalMensagem;
+import utilitario.JPAUtil;
+import utilitario.StatusLembrete;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Serviço responsável pela fila de saída (outbox) dos lembretes de consulta.
+ * <p>
+ * Gerar o relatório de consultas do dia seguinte grava, na mesma transação, um
+ * {@link LembreteOutbox} pendente para cada consulta que ainda não tem lembrete no canal.
+ * O envio é feito depois, por {@link #processarPendentes()}, que reserva os pendentes em
+ * lotes, entrega-os pelo {@link GerenciadorDeMensagensServico} e grava o resultado: enviado,
+ * reagendado com espera crescente ou, esgotadas as tentativas, falha definitiva.
+ * </p>
+ * <p>
+ * Como o lembrete só muda para ENVIADO depois da entrega, uma queda no meio do envio faz
+ * com que os lembretes reservados sejam retomados quando a reserva expirar: um lembrete
+ * pode, nesse caso, ser entregue novamente, mas nunca é perdido nem duplicado na tabela.
+ * </p>
+ * <p>
+ * Além dos lembretes do relatório, o {@link AgendadorLembretes} registra aqui, por
+ * {@link #registrarLembretesAntecipados(List)}, os lembretes enviados com antecedência fixa
+ * (por exemplo, 24 horas e 2 horas antes de cada consulta).
+ * </p>
+ */
+public class LembreteServico {
+
+    private static final Logger logger = Logger.getLogger(LembreteServico.class.getName());
+
+    /**
+     * Quantidade de lembretes reservados e enviados por vez.
+     */
+    private static final int TAMANHO_LOTE = 500;
+    /**
+     * Quantidade de lembretes enviados ao banco a cada flush no registro.
+     * Deve acompanhar a propriedade hibernate.jdbc.batch_size do persistence.xml.
+     */
+    private static final int TAMANHO_LOTE_GRAVACAO = 50;
+    /**
+     * Quantidade de tentativas de envio antes da falha definitiva.
+     */
+    private static final int MAXIMO_TENTATIVAS = 5;
+    /**
+     * Espera antes da segunda tentativa; dobra a cada nova falha (30 s, 1 min, 2 min, ...).
+     */
+    private static final int ESPERA_INICIAL_SEGUNDOS = 30;
+    /**
+     * Tempo após o qual um lembrete reservado e não concluído pode ser retomado.
+     */
+    private static final int DURACAO_RESERVA_MINUTOS = 5;
+    /**
+     * Quantidade de reservas seguidas perdidas para outra instância antes de desistir.
+     */
+    private static final int MAXIMO_CONFLITOS_RESERVA = 3;
+
+    private final ConsultaServico consultaServico;
+    private final GerenciadorDeMensagensServico gerenciadorDeMensagens;
+    private final AtomicBoolean processando = new AtomicBoolean(false);
+
+    /**
+     * Construtor para o LembreteServico.
+     *
+     * @param consultaServico        O serviço de consultas, usado na geração do relatório.
+     * @param gerenciadorDeMensagens O serviço que entrega as mensagens.
+     */
+    public LembreteServico(ConsultaServico consultaServico, GerenciadorDeMensagensServico gerenciadorDeMensagens) {
+        this.consultaServico = consultaServico;
+        this.gerenciadorDeMensagens = gerenciadorDeMensagens;
+    }
+
+    /**
+     * Busca as consultas do período cujo paciente tem o contato informado e, na mesma
+     * transação, registra um lembrete pendente para as que ainda não têm lembrete no canal.
+     *
+     * @param inicio        Início do período (inclusivo).
+     * @param fim           Fim do período (exclusivo).
+     * @param filtroContato O tipo de contato ("EMAIL" ou "TELEFONE"), que define o canal.
+     * @return As consultas do período, ordenadas por data e hora.
+     * @throws IllegalArgumentException Se o filtro não for "EMAIL" nem "TELEFONE".
+     */
+    public List<Consulta> registrarLembretes(LocalDateTime inicio, LocalDateTime fim, String filtroContato) {
+        CanalMensagem canal;
+        if ("EMAIL".equals(filtroContato)) {
+            canal = CanalMensagem.EMAIL;
+        } else if ("TELEFONE".equals(filtroContato)) {
+            canal = CanalMensagem.SMS;
+        } else {
+            throw new IllegalArgumentException("Filtro de contato inválido: " + filtroContato);
+        }
+
+        try {
+            return registrarLembretes(inicio, fim, filtroContato, canal);
+        } catch (PersistenceException e) {
+            // Outro relatório do mesmo período pode ter gravado os mesmos lembretes ao mesmo
+            // tempo (restrição única); na segunda vez eles já são encontrados e ignorados
+            logger.info("Registro de lembretes repetido após conflito: " + e.getMessage());
+            return registrarLembretes(inicio, fim, filtroContato, canal);
+        }
+    }
+
+    private List<Consulta> registrarLembretes(LocalDateTime inicio, LocalDateTime fim, String filtroContato, CanalMensagem canal) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Consulta> consultas = consultaServico.buscarConsultasPorPeriodo(em, inicio, fim, filtroContato);
+            Set<Integer> comLembrete = new HashSet<>(em.createQuery(
+                    "SELECT l.consulta.id FROM LembreteOutbox l " +
+                    "WHERE l.canal = :canal AND l.consulta.dataHora >= :inicio AND l.consulta.dataHora < :fim", Integer.class)
+                    .setParameter("canal", canal)
+                    .setParameter("inicio", inicio)
+                    .setParameter("fim", fim)
+                    .getResultList());
+
+            LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            int registrados = 0;
+            for (Consulta consulta : consultas) {
+                if (comLembrete.contains(consulta.getId())) {
+                    continue;
+                }
+                Mensagem mensagem = gerenciadorDeMensagens.criarLembrete(consulta, canal);
+                em.persist(new LembreteOutbox(consulta, canal, mensagem.getNomeDestinatario(),
+                        mensagem.getDestinatario(), mensagem.getTexto(), agora));
+                registrados++;
+                if (registrados % TAMANHO_LOTE_GRAVACAO == 0) {
+                    em.flush();
+                }
+            }
+            em.getTransaction().commit();
+            return consultas;
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Lê uma única vez todas as consultas do período e registra, na mesma transação, um
+     * lembrete por paciente no canal preferido: e-mail, se o paciente tiver e-mail, ou SMS,
+     * se tiver apenas telefone. Um paciente com várias consultas no período recebe um só
+     * lembrete com todos os horários, e pacientes que já têm lembrete em algum canal no
+     * período não recebem outro.
+     *
+     * @param inicio Início do período (inclusivo).
+     * @param fim    Fim do período (exclusivo).
+     * @return As consultas do período, o canal de cada paciente e as quantidades por canal.
+     */
+    public ResultadoGeracaoLembretes registrarLembretesTodosCanais(LocalDateTime inicio, LocalDateTime fim) {
+        try {
+            return registrarTodosCanais(inicio, fim);
+        } catch (PersistenceException e) {
+            logger.info("Registro de lembretes repetido após conflito: " + e.getMessage());
+            return registrarTodosCanais(inicio, fim);
+        }
+    }
+
+    private ResultadoGeracaoLembretes registrarTodosCanais(LocalDateTime inicio, LocalDateTime fim) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Consulta> consultas = consultaServico.buscarConsultasPorPeriodo(em, inicio, fim, null);
+            Set<Integer> pacientesLembrados = new HashSet<>(em.createQuery(
+                    "SELECT DISTINCT l.consulta.paciente.id FROM LembreteOutbox l " +
+                    "WHERE l.consulta.dataHora >= :inicio AND l.consulta.dataHora < :fim", Integer.class)
+                    .setParameter("inicio", inicio)
+                    .setParameter("fim", fim)
+                    .getResultList());
+
+            // As consultas já vêm em ordem de horário; o agrupamento mantém essa ordem
+            Map<Integer, List<Consulta>> porPaciente = new LinkedHashMap<>();
+            for (Consulta consulta : consultas) {
+                porPaciente.computeIfAbsent(consulta.getPaciente().getId(), id -> new ArrayList<>()).add(consulta);
+            }
+
+            ResultadoGeracaoLembretes resultado = new ResultadoGeracaoLembretes(consultas);
+            LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            int registrados = 0;
+            for (Map.Entry<Integer, List<Consulta>> paciente : porPaciente.entrySet()) {
+                if (pacientesLembrados.contains(paciente.getKey())) {
+                    resultado.registrarJaExistente();
+                    continue;
+                }
+                List<Consulta> consultasDoPaciente = paciente.getValue();
+                CanalMensagem canal = canalPreferido(consultasDoPaciente.get(0).getPaciente().getContato());
+                if (canal == null) {
+                    resultado.registrarSemContato();
+                    continue;
+                }
+                Mensagem mensagem = gerenciadorDeMensagens.criarLembrete(consultasDoPaciente, canal);
+                em.persist(new LembreteOutbox(consultasDoPaciente.get(0), canal, mensagem.getNomeDestinatario(),
+                        mensagem.getDestinatario(), mensagem.getTexto(), agora));
+                resultado.registrar(consultasDoPaciente, canal);
+                registrados++;
+                if (registrados % TAMANHO_LOTE_GRAVACAO == 0) {
+                    em.flush();
+                }
+            }
+            em.getTransaction().commit();
+            return resultado;
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Registra, em uma transação, um lembrete pendente para cada evento vencido no
+     * {@link AgendadorLembretes}, no canal preferido do paciente. Eventos de consultas que
+     * não existem mais, de pacientes sem contato, que já têm lembrete com a mesma
+     * antecedência ou que ainda não venceram no horário atual da consulta são ignorados.
+     *
+     * @param eventos Os eventos vencidos.
+     * @return A quantidade de lembretes registrados.
+     */
+    int registrarLembretesAntecipados(List<AgendadorLembretes.EventoLembrete> eventos) {
+        if (eventos.isEmpty()) {
+            return 0;
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (AgendadorLembretes.EventoLembrete evento : eventos) {
+            ids.add(evento.idConsulta);
+        }
+
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            Map<Integer, Consulta> consultas = new HashMap<>();
+            for (Consulta consulta : em.createQuery(
+                    "SELECT c FROM Consulta c JOIN FETCH c.paciente WHERE c.id IN :ids", Consulta.class)
+                    .setParameter("ids", ids)
+                    .getResultList()) {
+                consultas.put(consulta.getId(), consulta);
+            }
+            Set<Map.Entry<Integer, Integer>> existentes = new HashSet<>();
+            for (Object[] linha : em.createQuery(
+                    "SELECT l.consulta.id, l.antecedenciaMinutos FROM LembreteOutbox l WHERE l.consulta.id IN :ids", Object[].class)
+                    .setParameter("ids", ids)
+                    .getResultList()) {
+                existentes.add(new AbstractMap.SimpleImmutableEntry<>((Integer) linha[0], (Integer) linha[1]));
+            }
+
+            LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            LocalDateTime limite = agora.plus(AgendadorLembretes.DURACAO_TICK_MS, ChronoUnit.MILLIS);
+            int registrados = 0;
+            for (AgendadorLembretes.EventoLembrete evento : eventos) {
+                Consulta consulta = consultas.get(evento.idConsulta);
+                if (consulta == null || isAntecipado(consulta, evento.antecedenciaMinutos, limite)
+                        || !existentes.add(new AbstractMap.SimpleImmutableEntry<>(evento.idConsulta, evento.antecedenciaMinutos))) {
+                    continue;
+                }
+                CanalMensagem canal = canalPreferido(consulta.getPaciente().getContato());
+                if (canal == null) {
+                    continue;
+                }
+                Mensagem mensagem = gerenciadorDeMensagens.criarLembreteAntecipado(consulta, canal);
+                em.persist(new LembreteOutbox(consulta, canal, evento.antecedenciaMinutos, mensagem.getNomeDestinatario(),
+                        mensagem.getDestinatario(), mensagem.getTexto(), agora));
+                registrados++;
+                if (registrados % TAMANHO_LOTE_GRAVACAO == 0) {
+                    em.flush();
+                }
+            }
+            em.getTransaction().commit();
+            return registrados;
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Indica se o evento ainda não deveria ter vencido: acontece quando a consulta foi
+     * remarcada para mais tarde depois de o evento sair da roda, e o horário lido agora
+     * coloca o lembrete mais de um tick no futuro. O agendador já reagendou o evento
+     * para o novo horário.
+     */
+    private static boolean isAntecipado(Consulta consulta, int antecedenciaMinutos, LocalDateTime limite) {
+        return consulta.getDataHora().minusMinutes(antecedenciaMinutos).isAfter(limite);
+    }
+
+    /**
+     * Remove a restrição única antiga (consulta, canal) de bancos criados antes dos lembretes
+     * antecipados; ela impediria os lembretes de mesma consulta e canal com antecedências
+     * diferentes. A atualização automática do esquema cria a nova restrição, mas não apaga a antiga.
+     * A restrição é procurada no catálogo do Derby antes, de modo que em um banco novo ou já
+     * migrado nada é alterado.
+     *
+     * @return {@code true} se a restrição existia e foi removida.
+     */
+    public boolean removerRestricaoUnicaAntiga() {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            Number existentes = (Number) em.createNativeQuery(
+                    "SELECT COUNT(*) FROM SYS.SYSCONSTRAINTS c " +
+                    "JOIN SYS.SYSTABLES t ON c.TABLEID = t.TABLEID " +
+                    "JOIN SYS.SYSSCHEMAS s ON t.SCHEMAID = s.SCHEMAID " +
+                    "WHERE c.CONSTRAINTNAME = 'UK_LEMBRETE_CONSULTA_CANAL' " +
+                    "AND t.TABLENAME = 'LEMBRETEOUTBOX' AND s.SCHEMANAME = CURRENT SCHEMA")
+                    .getSingleResult();
+            boolean removida = existentes.intValue() > 0;
+            if (removida) {
+                em.createNativeQuery("ALTER TABLE LembreteOutbox DROP CONSTRAINT uk_lembrete_consulta_canal").executeUpdate();
+                logger.info("Restrição única antiga dos lembretes (consulta, canal) removida.");
+            }
+            em.getTransaction().commit();
+            return removida;
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Escolhe o canal do lembrete: e-mail quando houver, senão SMS.
+     *
+     * @return O canal, ou {@code null} se o paciente não tiver e-mail nem telefone.
+     */
+    private static CanalMensagem canalPreferido(Contato contato) {
+        if (contato == null) {
+            return null;
+        }
+        if (contato.getEmail() != null && !contato.getEmail().isBlank()) {
+            return CanalMensagem.EMAIL;
+        }
+        if (contato.getTelefone() != null && !contato.getTelefone().isBlank()) {
+            return CanalMensagem.SMS;
+        }
+        return null;
+    }
+
+    /**
+     * Envia os lembretes pendentes cuja hora de tentativa já chegou, em lotes, até a fila
+     * esvaziar. Lembretes reagendados para mais tarde ficam para o próximo processamento.
+     *
+     * @return O resultado do processamento, com a vazão de envio.
+     * @throws IllegalStateException Se a fila já estiver sendo processada nesta aplicação.
+     */
+    public ResultadoRelayLembretes processarPendentes() {
+        ResultadoRelayLembretes resultado = processarPendentesSeLivre();
+        if (resultado == null) {
+            throw new IllegalStateException("Os lembretes já estão sendo processados.");
+        }
+        return resultado;
+    }
+
+    /**
+     * Como {@link #processarPendentes()}, mas não faz nada se a fila já estiver sendo
+     * processada nesta aplicação; os pendentes ficam para o processamento em andamento
+     * ou para o próximo.
+     *
+     * @return O resultado do processamento, ou {@code null} se outro já estava em andamento.
+     */
+    public ResultadoRelayLembretes processarPendentesSeLivre() {
+        if (!processando.compareAndSet(false, true)) {
+            return null;
+        }
+        ResultadoRelayLembretes resultado = new ResultadoRelayLembretes();
+        try {
+            int conflitos = 0;
+            while (true) {
+                LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+                LocalDateTime reserva = agora.plusMinutes(DURACAO_RESERVA_MINUTOS);
+                List<LembreteOutbox> lote;
+                try {
+                    lote = reservarLote(agora, reserva);
+                } catch (PersistenceException e) {
+                    // Outra instância reservou parte do lote antes; tenta o próximo
+                    if (ConsultaServico.buscarConflitoDeVersao(e) == null || ++conflitos > MAXIMO_CONFLITOS_RESERVA) {
+                        throw e;
+                    }
+                    continue;
+                }
+                if (lote.isEmpty()) {
+                    break;
+                }
+                conflitos = 0;
+
+                List<Mensagem> mensagens = new ArrayList<>(lote.size());
+                for (LembreteOutbox lembrete : lote) {
+                    mensagens.add(new Mensagem(lembrete.getCanal(), lembrete.getConsulta().getId(),
+                            lembrete.getNomeDestinatario(), lembrete.getDestinatario(), lembrete.getTexto()));
+                }
+                ResultadoEnvio envio = gerenciadorDeMensagens.enviar(mensagens).join();
+                registrarResultado(lote, mensagens, envio, reserva, resultado);
+            }
+        } finally {
+            resultado.concluir();
+            processando.set(false);
+        }
+        return resultado;
+    }
+
+    /**
+     * Conta os lembretes em cada situação.
+     *
+     * @return A quantidade de lembretes por situação (situações sem lembretes ficam com 0).
+     */
+    public Map<StatusLembrete, Long> contarPorStatus() {
+        Map<StatusLembrete, Long> contagem = new EnumMap<>(StatusLembrete.class);
+        for (StatusLembrete status : StatusLembrete.values()) {
+            contagem.put(status, 0L);
+        }
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            List<Object[]> linhas = em.createQuery(
+                    "SELECT l.status, COUNT(l) FROM LembreteOutbox l GROUP BY l.status", Object[].class)
+                    .getResultList();
+            for (Object[] linha : linhas) {
+                contagem.put((StatusLembrete) linha[0], (Long) linha[1]);
+            }
+            return contagem;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Reserva, em uma transação, o próximo lote de lembretes pendentes (ou com a reserva
+     * expirada). A versão dos lembretes faz o commit falhar se outra instância da aplicação
+     * reservar algum deles ao mesmo tempo.
+     */
+    private List<LembreteOutbox> reservarLote(LocalDateTime agora, LocalDateTime reserva) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<LembreteOutbox> lote = em.createQuery(
+                    "SELECT l FROM LembreteOutbox l " +
+                    "WHERE (l.status = :pendente AND l.proximaTentativa <= :agora) " +
+                    "OR (l.status = :enviando AND l.reservadoAte < :agora) " +
+                    "ORDER BY l.id", LembreteOutbox.class)
+                    .setParameter("pendente", StatusLembrete.PENDENTE)
+                    .setParameter("enviando", StatusLembrete.ENVIANDO)
+                    .setParameter("agora", agora)
+                    .setMaxResults(TAMANHO_LOTE)
+                    .getResultList();
+            for (LembreteOutbox lembrete : lote) {
+                lembrete.reservar(reserva);
+            }
+            em.getTransaction().commit();
+            return lote;
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Grava o resultado do envio de um lote com poucas instruções UPDATE: uma para os
+     * enviados e uma para cada quantidade de tentativas entre os que falharam (que define
+     * a espera até a próxima tentativa). Só são alterados os lembretes que ainda estão
+     * com a reserva feita por este processamento.
+     */
+    private void registrarResultado(List<LembreteOutbox> lote, List<Mensagem> mensagens, ResultadoEnvio envio,
+                                    LocalDateTime reserva, ResultadoRelayLembretes resultado) {
+        Set<Mensagem> falhas = Collections.newSetFromMap(new IdentityHashMap<>());
+        falhas.addAll(envio.getMensagensComFalha());
+
+        List<Integer> enviados = new ArrayList<>();
+        List<Integer> semDestinatario = new ArrayList<>();
+        Map<Integer, List<Integer>> falhasPorTentativa = new TreeMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            LembreteOutbox lembrete = lote.get(i);
+            Mensagem mensagem = mensagens.get(i);
+            if (!falhas.contains(mensagem)) {
+                enviados.add(lembrete.getId());
+            } else if (!mensagem.isTemDestinatario()) {
+                semDestinatario.add(lembrete.getId());
+            } else {
+                falhasPorTentativa.computeIfAbsent(lembrete.getTentativas(), t -> new ArrayList<>()).add(lembrete.getId());
+            }
+        }
+
+        LocalDateTime agora = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        int reagendados = 0;
+        int falhasDefinitivas = semDestinatario.size();
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            if (!enviados.isEmpty()) {
+                em.createQuery("UPDATE LembreteOutbox l SET l.status = :enviado, l.enviadoEm = :agora, " +
+                        "l.reservadoAte = NULL, l.ultimoErro = NULL, l.versao = l.versao + 1 " +
+                        "WHERE l.id IN :ids AND l.status = :enviando AND l.reservadoAte = :reserva")
+                        .setParameter("enviado", StatusLembrete.ENVIADO)
+                        .setParameter("agora", agora)
+                        .setParameter("ids", enviados)
+                        .setParameter("enviando", StatusLembrete.ENVIANDO)
+                        .setParameter("reserva", reserva)
+                        .executeUpdate();
+            }
+            if (!semDestinatario.isEmpty()) {
+                marcarFalha(em, semDestinatario, StatusLembrete.FALHA_DEFINITIVA, agora,
+                        "Paciente sem contato cadastrado para o canal.", reserva);
+            }
+            for (Map.Entry<Integer, List<Integer>> grupo : falhasPorTentativa.entrySet()) {
+                int tentativas = grupo.getKey();
+                if (tentativas >= MAXIMO_TENTATIVAS) {
+                    marcarFalha(em, grupo.getValue(), StatusLembrete.FALHA_DEFINITIVA, agora,
+                            "Envio falhou após " + tentativas + " tentativas.", reserva);
+                    falhasDefinitivas += grupo.getValue().size();
+                } else {
+                    long espera = (long) ESPERA_INICIAL_SEGUNDOS << (tentativas - 1);
+                    marcarFalha(em, grupo.getValue(), StatusLembrete.PENDENTE, agora.plusSeconds(espera),
+                            "Envio falhou na tentativa " + tentativas + ".", reserva);
+                    reagendados += grupo.getValue().size();
+                }
+            }
+            em.getTransaction().commit();
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+        resultado.registrarLote(enviados.size(), reagendados, falhasDefinitivas);
+    }
+
+    private void marcarFalha(EntityManager em, List<Integer> ids, StatusLembrete status, LocalDateTime proximaTentativa,
+                             String erro, LocalDateTime reserva) {
+        em.createQuery("UPDATE LembreteOutbox l SET l.status = :status, l.proximaTentativa = :proxima, " +
+                "l.reservadoAte = NULL, l.ultimoErro = :erro, l.versao = l.versao + 1 " +
+                "WHERE l.id IN :ids AND l.status = :enviando AND l.reservadoAte = :reserva")
+                .setParameter("status", status)
+                .setParameter("proxima", proximaTentativa)
+                .setParameter("erro", erro)
+                .setParameter("ids", ids)
+                .setParameter("enviando", StatusLembrete.ENVIANDO)
+                .setParameter("reserva", reserva)
+                .executeUpdate();
+    }
+}
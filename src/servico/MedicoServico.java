@@ -3,9 +3,11 @@
 import modelo.*;
 import utilitario.JPAUtil;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,6 +16,11 @@ import java.util.List;
  * adicionais do paciente, gestão de prontuários e geração de documentos médicos (Receita, Atestado, Declaração).
  */
 public class MedicoServico {
+    /**
+     * Região do cache de consultas onde fica guardado o resultado de {@link #listarTodos()}.
+     */
+    private static final String REGIAO_LISTA_MEDICOS = "consulta.listaMedicos";
+
     private PacienteServico pacienteServico;
 
     /**
@@ -41,6 +48,7 @@ public class MedicoServico {
                 em.merge(medico);
             }
             em.getTransaction().commit();
+            invalidarCache(em, medico.getId());
         } finally {
             em.close();
         }
@@ -63,6 +71,7 @@ public class MedicoServico {
 
     /**
      * Retorna uma lista com todos os médicos cadastrados.
+     * O resultado fica no cache de consultas até que um médico seja salvo ou removido.
      *
      * @return Uma lista de objetos Medico.
      */
@@ -70,6 +79,8 @@ public class MedicoServico {
         EntityManager em = JPAUtil.getEntityManager();
         try {
             TypedQuery<Medico> query = em.createQuery("FROM Medico", Medico.class);
+            query.setHint("org.hibernate.cacheable", true);
+            query.setHint("org.hibernate.cacheRegion", REGIAO_LISTA_MEDICOS);
             return query.getResultList();
         } finally {
             em.close();
@@ -90,11 +101,25 @@ public class MedicoServico {
                 em.remove(medico);
             }
             em.getTransaction().commit();
+            invalidarCache(em, id);
         } finally {
             em.close();
         }
     }
 
+    /**
+     * Remove do cache de segundo nível o médico alterado e a lista de médicos em cache,
+     * para que a próxima leitura busque os dados atualizados no banco.
+     *
+     * @param em       O EntityManager usado na alteração.
+     * @param idMedico O ID do médico salvo ou removido.
+     */
+    private void invalidarCache(EntityManager em, int idMedico) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        cache.evict(Medico.class, idMedico);
+        cache.unwrap(org.hibernate.Cache.class).evictQueryRegion(REGIAO_LISTA_MEDICOS);
+    }
+
     /**
      * Atualiza os dados adicionais de saúde de um paciente.
      *
@@ -190,9 +215,8 @@ public class MedicoServico {
                 Prontuario novoProntuario = new Prontuario(0, LocalDate.now(), sintomas, diagnostico, prescricao, medico);
                 novoProntuario.setPaciente(paciente);
 
-                paciente.adicionarProntuario(novoProntuario);
-
-                em.merge(paciente);
+                // Persiste direto, sem inicializar o histórico (LAZY) do paciente
+                em.persist(novoProntuario);
 
                 em.getTransaction().commit();
                 return true;
@@ -220,17 +244,28 @@ public class MedicoServico {
      * @return {@code true} se o paciente e o prontuário foram encontrados e atualizados, {@code false} caso contrário.
      */
     public boolean atualizarProntuario(int idPaciente, int idProntuario, String sintomas, String diagnostico, String prescricao) {
-        Paciente paciente = pacienteServico.buscarPacientePorId(idPaciente);
-        if (paciente != null) {
-            Prontuario prontuario = paciente.buscarProntuarioPorId(idProntuario);
-            if (prontuario != null) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            Prontuario prontuario = em.find(Prontuario.class, idProntuario);
+
+            if (prontuario != null && prontuario.getPaciente() != null && prontuario.getPaciente().getId() == idPaciente) {
+                em.getTransaction().begin();
                 prontuario.setSintomas(sintomas);
                 prontuario.setDiagnostico(diagnostico);
                 prontuario.setPrescricao(prescricao);
+                em.getTransaction().commit();
                 return true;
             }
+            return false;
+        } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            e.printStackTrace();
+            return false;
+        } finally {
+            em.close();
         }
-        return false;
     }
 
     /**
@@ -243,18 +278,13 @@ public class MedicoServico {
     public boolean removerProntuario(int idPaciente, int idProntuario) {
         EntityManager em = JPAUtil.getEntityManager();
         try {
-            Paciente paciente = em.find(Paciente.class, idPaciente);
+            Prontuario prontuario = em.find(Prontuario.class, idProntuario);
 
-            if (paciente != null) {
+            if (prontuario != null && prontuario.getPaciente() != null && prontuario.getPaciente().getId() == idPaciente) {
                 em.getTransaction().begin();
-
-                boolean removeu = paciente.removerProntuarioPorId(idProntuario);
-
-                if (removeu) {
-                    em.merge(paciente); 
-                    em.getTransaction().commit(); 
-                    return true;
-                }
+                em.remove(prontuario);
+                em.getTransaction().commit();
+                return true;
             }
             return false;
         } catch (Exception e) {
@@ -268,6 +298,51 @@ public class MedicoServico {
         }
     }
 
+    /**
+     * Busca um prontuário pelo seu ID, já com o médico responsável carregado.
+     *
+     * @param idProntuario O ID do prontuário.
+     * @return O prontuário encontrado ou {@code null} se não existir.
+     */
+    public Prontuario buscarProntuarioPorId(int idProntuario) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            return em.find(Prontuario.class, idProntuario);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Retorna uma página do histórico de prontuários de um paciente, do mais recente
+     * para o mais antigo. A paginação é feita por chave (keyset): a próxima página
+     * começa logo após o último ID recebido, sem precisar percorrer as anteriores.
+     *
+     * @param idPaciente    O ID do paciente.
+     * @param ultimoId      O ID do último prontuário da página anterior, ou {@code null} para a primeira página.
+     * @param tamanhoPagina A quantidade máxima de prontuários a retornar.
+     * @return Os prontuários da página, com o médico responsável já carregado.
+     */
+    public List<Prontuario> listarProntuarios(int idPaciente, Integer ultimoId, int tamanhoPagina) {
+        String jpql = "SELECT pr FROM Prontuario pr JOIN FETCH pr.medico " +
+                "WHERE pr.paciente.id = :idPaciente" +
+                (ultimoId != null ? " AND pr.id < :ultimoId" : "") +
+                " ORDER BY pr.id DESC";
+
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            TypedQuery<Prontuario> query = em.createQuery(jpql, Prontuario.class);
+            query.setParameter("idPaciente", idPaciente);
+            if (ultimoId != null) {
+                query.setParameter("ultimoId", ultimoId);
+            }
+            query.setMaxResults(tamanhoPagina);
+            return query.getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
     /**
      * Gera uma receita médica formatada para um paciente.
      *
@@ -281,13 +356,8 @@ public class MedicoServico {
         if (paciente == null) {
             return "ERRO: Paciente não encontrado";
         }
-        return String.format("--- Receita Médica ---\n" +
-                        "Paciente: %s\n" +
-                        "CPF: %s\n" +
-                        "Prescrição: %s\n" +
-                        "Data: %s\n" +
-                        "Ass: %s (CRM: %s)",
-                paciente.getNome(), paciente.getCpf(), prescricao, LocalDate.now(), medico.getNome(), medico.getCrm());
+        return ModelosMensagem.getInstancia().get(ModelosMensagem.RECEITA)
+                .renderizar(paciente.getNome(), paciente.getCpf(), prescricao, LocalDate.now(), medico.getNome(), medico.getCrm());
     }
 
     /**
@@ -303,11 +373,8 @@ public class MedicoServico {
         if (paciente == null) {
             return "ERRO: Paciente não encontrado";
         }
-        return String.format("--- Atestado Médico ---\n" +
-                        "Atesto para os devido fins que paciente %s, portador(a) do CPF %s, necessita de %d dias(s) de afastamento.\n\n" +
-                        "Data: %s\n" +
-                        "Ass: %s (CRM: %s)",
-                paciente.getNome(), paciente.getCpf(), diasAfastamento, LocalDate.now(), medico.getNome(), medico.getCrm());
+        return ModelosMensagem.getInstancia().get(ModelosMensagem.ATESTADO)
+                .renderizar(paciente.getNome(), paciente.getCpf(), diasAfastamento, LocalDate.now(), medico.getNome(), medico.getCrm());
     }
 
     /**
@@ -324,37 +391,38 @@ public class MedicoServico {
         if (paciente == null) {
             return "ERRO: Paciente não encontrado";
         }
-        return String.format("--- Declaração de Acompanhamento---\n" +
-                        "Declaro para os devido fins que o(a) Sr(a) %s, esteve nesta unidade hospitalar no dia %s, acompanhando o(a) paciente %s.\n\n" +
-                        "Data: %s\n" +
-                        "Ass: %s (CRM: %s)",
-                nomeAcompanhante, LocalDate.now(), paciente.getNome(), LocalDate.now(), medico.getNome(), medico.getCrm());
+        return ModelosMensagem.getInstancia().get(ModelosMensagem.DECLARACAO)
+                .renderizar(nomeAcompanhante, paciente.getNome(), LocalDate.now(), medico.getNome(), medico.getCrm());
     }
 
     /**
-     * Retorna uma lista de pacientes atendidos por um médico em um mês e ano específicos.
+     * Retorna os pacientes distintos atendidos por um médico em um mês e ano específicos.
+     * O filtro por médico e período, a junção com o paciente e a eliminação de
+     * repetidos são feitos pelo banco, que devolve apenas as projeções necessárias.
      *
-     * @param idMedico       O ID do médico.
-     * @param mes            O mês de referência.
-     * @param ano            O ano de referência.
-     * @param todasConsultas A lista completa de todas as consultas.
-     * @return Uma lista de objetos Paciente.
+     * @param idMedico O ID do médico.
+     * @param mes      O mês de referência.
+     * @param ano      O ano de referência.
+     * @return Uma lista de resumos de pacientes, ordenada por nome.
      */
-    public List<Paciente> getClientesAtendidosMes(int idMedico, int mes, int ano, List<Consulta> todasConsultas) {
-        List<Paciente> pacientesAtendidos = new ArrayList<>();
-        for (Consulta consulta : todasConsultas) {
-            if (consulta.getDataHora().getYear() == ano) {
-                if (consulta.getDataHora().getMonthValue() == mes) {
-                    if (consulta.getMedico().getId() == idMedico) {
-                        Paciente paciente = consulta.getPaciente();
-                        if (!pacientesAtendidos.contains(paciente)) {
-                            pacientesAtendidos.add(paciente);
-                        }
-                    }
-                }
-            }
+    public List<PacienteResumo> getClientesAtendidosMes(int idMedico, int mes, int ano) {
+        LocalDateTime inicio = LocalDate.of(ano, mes, 1).atStartOfDay();
+        LocalDateTime fim = inicio.plusMonths(1);
+
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            TypedQuery<PacienteResumo> query = em.createQuery(
+                    "SELECT DISTINCT NEW modelo.PacienteResumo(p.id, p.nome, p.cpf) " +
+                    "FROM Consulta c JOIN c.paciente p " +
+                    "WHERE c.medico.id = :idMedico AND c.dataHora >= :inicio AND c.dataHora < :fim " +
+                    "ORDER BY p.nome", PacienteResumo.class);
+            query.setParameter("idMedico", idMedico);
+            query.setParameter("inicio", inicio);
+            query.setParameter("fim", fim);
+            return query.getResultList();
+        } finally {
+            em.close();
         }
-        return pacientesAtendidos;
     }
 
     /**
@@ -0,0 +1,60 @@
+package servico;
+
+import utilitario.CanalMensagem;
+
+/**
+ * Uma mensagem a ser entregue a um paciente por um {@link EnviadorMensagem}.
+ */
+public class Mensagem {
+    private final CanalMensagem canal;
+    private final int idConsulta;
+    private final String nomeDestinatario;
+    private final String destinatario;
+    private final String texto;
+
+    /**
+     * Cria uma nova mensagem.
+     *
+     * @param canal            O canal de envio.
+     * @param idConsulta       O ID da consulta a que a mensagem se refere, ou 0.
+     * @param nomeDestinatario O nome do paciente, usado nos relatórios de falha.
+     * @param destinatario     O endereço no canal (e-mail ou telefone).
+     * @param texto            O texto da mensagem.
+     */
+    public Mensagem(CanalMensagem canal, int idConsulta, String nomeDestinatario, String destinatario, String texto) {
+        this.canal = canal;
+        this.idConsulta = idConsulta;
+        this.nomeDestinatario = nomeDestinatario;
+        this.destinatario = destinatario;
+        this.texto = texto;
+    }
+
+    public CanalMensagem getCanal() {
+        return canal;
+    }
+
+    public int getIdConsulta() {
+        return idConsulta;
+    }
+
+    public String getNomeDestinatario() {
+        return nomeDestinatario;
+    }
+
+    public String getDestinatario() {
+        return destinatario;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    /**
+     * Indica se a mensagem tem para onde ser enviada.
+     *
+     * @return {@code true} se o destinatário foi informado.
+     */
+    public boolean isTemDestinatario() {
+        return destinatario != null && !destinatario.isBlank();
+    }
+}
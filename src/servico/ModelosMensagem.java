@@ -0,0 +1,175 @@
+package servico;
+
+import utilitario.CanalMensagem;
+import utilitario.ModeloTexto;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Os modelos dos textos enviados aos pacientes (lembretes) e dos documentos emitidos pelos
+ * médicos (receita, atestado e declaração), compilados uma única vez ao carregar a classe.
+ * <p>
+ * Os textos padrão podem ser substituídos por um arquivo de propriedades em UTF-8, indicado
+ * pela propriedade de sistema {@value #PROPRIEDADE_ARQUIVO} (padrão:
+ * {@value #ARQUIVO_PADRAO} no diretório de trabalho, se existir). Cada chave aceita as
+ * variáveis listadas abaixo, no formato {@code ${nome}}; os lembretes aceitam ainda uma
+ * versão por canal, com o sufixo {@code .email} ou {@code .sms} (por exemplo,
+ * {@code lembrete.sms}). Um modelo inválido é registrado no log e o padrão é mantido.
+ * </p>
+ * <ul>
+ * <li>{@code lembrete}, {@code lembrete.varias}: paciente, horarios</li>
+ * <li>{@code lembrete.antecipado}: paciente, data, hora</li>
+ * <li>{@code receita}: paciente, cpf, prescricao, data, medico, crm</li>
+ * <li>{@code atestado}: paciente, cpf, dias, data, medico, crm</li>
+ * <li>{@code declaracao}: acompanhante, paciente, data, medico, crm</li>
+ * </ul>
+ */
+final class ModelosMensagem {
+
+    private static final Logger logger = Logger.getLogger(ModelosMensagem.class.getName());
+
+    /**
+     * Propriedade de sistema com o caminho do arquivo de modelos personalizados.
+     */
+    static final String PROPRIEDADE_ARQUIVO = "clinica.modelos.arquivo";
+    private static final String ARQUIVO_PADRAO = "modelos-mensagem.properties";
+
+    static final String LEMBRETE = "lembrete";
+    static final String LEMBRETE_VARIAS = "lembrete.varias";
+    static final String LEMBRETE_ANTECIPADO = "lembrete.antecipado";
+    static final String RECEITA = "receita";
+    static final String ATESTADO = "atestado";
+    static final String DECLARACAO = "declaracao";
+
+    /**
+     * As variáveis de cada modelo, na ordem em que os valores são passados.
+     */
+    private static final Map<String, String[]> VARIAVEIS = new LinkedHashMap<>();
+    /**
+     * Os textos padrão, idênticos aos usados antes dos modelos personalizáveis.
+     */
+    private static final Map<String, String> PADROES = new HashMap<>();
+
+    static {
+        definir(LEMBRETE, "Consulta agendada para amanhã as ${horarios}", "paciente", "horarios");
+        definir(LEMBRETE_VARIAS, "Consultas agendadas para amanhã as ${horarios}", "paciente", "horarios");
+        definir(LEMBRETE_ANTECIPADO, "Consulta agendada para ${data} as ${hora}", "paciente", "data", "hora");
+        definir(RECEITA, "--- Receita Médica ---\n" +
+                "Paciente: ${paciente}\n" +
+                "CPF: ${cpf}\n" +
+                "Prescrição: ${prescricao}\n" +
+                "Data: ${data}\n" +
+                "Ass: ${medico} (CRM: ${crm})",
+                "paciente", "cpf", "prescricao", "data", "medico", "crm");
+        definir(ATESTADO, "--- Atestado Médico ---\n" +
+                "Atesto para os devido fins que paciente ${paciente}, portador(a) do CPF ${cpf}, necessita de ${dias} dias(s) de afastamento.\n\n" +
+                "Data: ${data}\n" +
+                "Ass: ${medico} (CRM: ${crm})",
+                "paciente", "cpf", "dias", "data", "medico", "crm");
+        definir(DECLARACAO, "--- Declaração de Acompanhamento---\n" +
+                "Declaro para os devido fins que o(a) Sr(a) ${acompanhante}, esteve nesta unidade hospitalar no dia ${data}, acompanhando o(a) paciente ${paciente}.\n\n" +
+                "Data: ${data}\n" +
+                "Ass: ${medico} (CRM: ${crm})",
+                "acompanhante", "paciente", "data", "medico", "crm");
+    }
+
+    private static final ModelosMensagem INSTANCIA = carregar();
+
+    private final Map<String, ModeloTexto> gerais = new HashMap<>();
+    private final Map<String, Map<CanalMensagem, ModeloTexto>> porCanal = new HashMap<>();
+
+    private ModelosMensagem() {
+    }
+
+    /**
+     * @return Os modelos da aplicação, com as personalizações do arquivo, se houver.
+     */
+    static ModelosMensagem getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Retorna um modelo de documento (ou o modelo geral de um lembrete).
+     *
+     * @param chave A chave do modelo.
+     * @return O modelo compilado.
+     */
+    ModeloTexto get(String chave) {
+        return gerais.get(chave);
+    }
+
+    /**
+     * Retorna o modelo de um lembrete para o canal, ou o modelo geral se o canal não tiver um próprio.
+     *
+     * @param chave A chave do modelo.
+     * @param canal O canal de envio.
+     * @return O modelo compilado.
+     */
+    ModeloTexto get(String chave, CanalMensagem canal) {
+        return porCanal.get(chave).get(canal);
+    }
+
+    private static void definir(String chave, String padrao, String... variaveis) {
+        VARIAVEIS.put(chave, variaveis);
+        PADROES.put(chave, padrao);
+    }
+
+    private static ModelosMensagem carregar() {
+        Properties personalizados = lerArquivo(Paths.get(System.getProperty(PROPRIEDADE_ARQUIVO, ARQUIVO_PADRAO)));
+        ModelosMensagem instancia = new ModelosMensagem();
+        for (Map.Entry<String, String[]> definicao : VARIAVEIS.entrySet()) {
+            String chave = definicao.getKey();
+            ModeloTexto padrao = ModeloTexto.compilar(PADROES.get(chave), definicao.getValue());
+            ModeloTexto geral = compilar(personalizados, chave, definicao.getValue(), padrao);
+            Map<CanalMensagem, ModeloTexto> doCanal = new EnumMap<>(CanalMensagem.class);
+            for (CanalMensagem canal : CanalMensagem.values()) {
+                doCanal.put(canal, compilar(personalizados, chave + "." + canal.name().toLowerCase(), definicao.getValue(), geral));
+            }
+            instancia.gerais.put(chave, geral);
+            instancia.porCanal.put(chave, doCanal);
+        }
+        return instancia;
+    }
+
+    /**
+     * Compila o modelo personalizado da chave, ou devolve o alternativo se não houver ou for inválido.
+     */
+    private static ModeloTexto compilar(Properties personalizados, String chave, String[] variaveis, ModeloTexto alternativo) {
+        String texto = personalizados.getProperty(chave);
+        if (texto == null) {
+            return alternativo;
+        }
+        try {
+            return ModeloTexto.compilar(texto, variaveis);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.WARNING, "Modelo '" + chave + "' inválido; o padrão será usado.", e);
+            return alternativo;
+        }
+    }
+
+    private static Properties lerArquivo(Path arquivo) {
+        Properties propriedades = new Properties();
+        if (!Files.isRegularFile(arquivo)) {
+            return propriedades;
+        }
+        try (Reader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            propriedades.load(leitor);
+            logger.info("Modelos de mensagem personalizados lidos de " + arquivo.toAbsolutePath() + ".");
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Não foi possível ler os modelos de " + arquivo.toAbsolutePath() + "; os padrões serão usados.", e);
+        }
+        return propriedades;
+    }
+}
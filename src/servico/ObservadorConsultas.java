@@ -0,0 +1,37 @@
+package servico;
+
+import java.time.LocalDateTime;
+
+/**
+ * Recebe do {@link ConsultaServico} as mudanças na agenda de consultas, logo depois de
+ * gravadas no banco.
+ * <p>
+ * Os métodos são chamados na thread que fez a alteração, e devem ser rápidos; uma exceção
+ * lançada por um observador é registrada no log e não desfaz a alteração.
+ * </p>
+ */
+public interface ObservadorConsultas {
+
+    /**
+     * Uma consulta foi cadastrada.
+     *
+     * @param idConsulta O ID da consulta.
+     * @param dataHora   A data e hora da consulta.
+     */
+    void consultaAgendada(int idConsulta, LocalDateTime dataHora);
+
+    /**
+     * Uma consulta foi alterada (a data e hora podem ou não ter mudado).
+     *
+     * @param idConsulta O ID da consulta.
+     * @param dataHora   A data e hora atual da consulta.
+     */
+    void consultaAlterada(int idConsulta, LocalDateTime dataHora);
+
+    /**
+     * Uma consulta foi removida.
+     *
+     * @param idConsulta O ID da consulta.
+     */
+    void consultaRemovida(int idConsulta);
+}
@@ -3,12 +3,24 @@ package servico;
 import modelo.Contato;
 import modelo.Endereco;
 import modelo.Paciente;
+import modelo.PacienteResumo;
 import utilitario.JPAUtil;
+import utilitario.NormalizadorTexto;
+import utilitario.Pagina;
 import utilitario.TipoConvenio;
+import utilitario.ValidadorCpf;
 
 import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
 
 /**
  * Serviço responsável por gerenciar as operações relacionadas a Pacientes.
@@ -17,26 +29,143 @@ import java.util.List;
  */
 public class PacienteServico {
 
+    private static final Logger logger = Logger.getLogger(PacienteServico.class.getName());
+
+    /**
+     * Quantidade de pacientes enviados ao banco a cada flush no cadastro em lote.
+     * Deve acompanhar a propriedade hibernate.jdbc.batch_size do persistence.xml.
+     */
+    private static final int TAMANHO_LOTE = 50;
+
+    /**
+     * Índice em memória usado pela busca por prefixo, mantido pelos métodos de escrita.
+     */
+    private final IndicePacientes indice = new IndicePacientes(this);
+
     /**
      * Cadastra um novo paciente no sistema.
+     * O CPF é gravado apenas com dígitos e não pode pertencer a outro paciente.
      *
      * @param nome           O nome completo do paciente.
-     * @param cpf            O CPF do paciente.
+     * @param cpf            O CPF do paciente (com ou sem pontuação).
      * @param dataNascimento A data de nascimento do paciente.
      * @param endereco       O endereço do paciente.
      * @param contato        As informações de contato do paciente.
      * @param tipoConvenio   O tipo de convênio (plano de saúde ou particular).
      * @return O objeto Paciente recém-cadastrado e persistido.
+     * @throws IllegalArgumentException Se o CPF não for informado ou já estiver cadastrado.
      */
     public Paciente cadastrarPaciente(String nome, String cpf, LocalDate dataNascimento, Endereco endereco, Contato contato, TipoConvenio tipoConvenio) {
-        Paciente novoPaciente = new Paciente(0, nome, cpf, dataNascimento, endereco, contato, tipoConvenio);
+        String digitosCpf = ValidadorCpf.somenteDigitos(cpf);
+        if (digitosCpf.isEmpty()) {
+            throw new IllegalArgumentException("CPF não informado.");
+        }
+        Paciente novoPaciente = new Paciente(0, nome, digitosCpf, dataNascimento, endereco, contato, tipoConvenio);
         
         EntityManager em = JPAUtil.getEntityManager();
         try {
+            // Consulta pelo índice único do CPF: não depende da quantidade de pacientes
+            if (buscarPacientePorCpf(em, digitosCpf) != null) {
+                throw new IllegalArgumentException("Já existe um paciente cadastrado com o CPF " + digitosCpf + ".");
+            }
             em.getTransaction().begin();
             em.persist(novoPaciente);
             em.getTransaction().commit();
+            indice.adicionar(novoPaciente);
             return novoPaciente;
+        } catch (PersistenceException e) {
+            // Outro cadastro com o mesmo CPF pode ter sido gravado entre a verificação e o commit
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            if (buscarPacientePorCpf(digitosCpf) != null) {
+                throw new IllegalArgumentException("Já existe um paciente cadastrado com o CPF " + digitosCpf + ".", e);
+            }
+            throw e;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Cadastra vários pacientes de uma só vez, em uma única transação.
+     * Os INSERTs são enviados em lotes de JDBC e o contexto de persistência é
+     * esvaziado a cada lote, para que a memória não cresça com o tamanho da lista.
+     * <p>
+     * Pacientes cujo CPF já está cadastrado (ou repetido na própria lista) são ignorados
+     * e permanecem com ID 0. Os CPFs existentes são verificados com uma única consulta
+     * pelo índice único.
+     * </p>
+     *
+     * @param pacientes Os pacientes a serem cadastrados (com ID 0 e CPF apenas com dígitos).
+     * @return A quantidade de pacientes cadastrados.
+     */
+    public int cadastrarPacientes(List<Paciente> pacientes) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            Set<String> cpfsUsados = buscarCpfsCadastrados(em, pacientes);
+            List<Paciente> novos = new ArrayList<>(pacientes.size());
+            for (Paciente paciente : pacientes) {
+                if (cpfsUsados.add(paciente.getCpf())) {
+                    novos.add(paciente);
+                }
+            }
+
+            em.getTransaction().begin();
+            int cadastrados = 0;
+            for (Paciente paciente : novos) {
+                em.persist(paciente);
+                cadastrados++;
+                if (cadastrados % TAMANHO_LOTE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.getTransaction().commit();
+            for (Paciente paciente : novos) {
+                indice.adicionar(paciente);
+            }
+            return cadastrados;
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Retorna, entre os CPFs dos pacientes informados, os que já estão cadastrados.
+     */
+    private Set<String> buscarCpfsCadastrados(EntityManager em, List<Paciente> pacientes) {
+        Set<String> cpfs = new HashSet<>();
+        for (Paciente paciente : pacientes) {
+            cpfs.add(paciente.getCpf());
+        }
+        if (cpfs.isEmpty()) {
+            return cpfs;
+        }
+        return new HashSet<>(em.createQuery("SELECT p.cpf FROM Paciente p WHERE p.cpf IN :cpfs", String.class)
+                .setParameter("cpfs", cpfs)
+                .getResultList());
+    }
+
+    /**
+     * Busca um paciente pelo CPF, com uma única consulta pelo índice único do CPF.
+     *
+     * @param cpf O CPF do paciente (com ou sem pontuação).
+     * @return O objeto Paciente correspondente, ou {@code null} se não for encontrado.
+     */
+    public Paciente buscarPacientePorCpf(String cpf) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            return buscarPacientePorCpf(em, ValidadorCpf.somenteDigitos(cpf));
         } finally {
             if (em.isOpen()) {
                 em.close();
@@ -44,27 +173,44 @@ public class PacienteServico {
         }
     }
 
+    private Paciente buscarPacientePorCpf(EntityManager em, String digitosCpf) {
+        List<Paciente> encontrados = em.createQuery("SELECT p FROM Paciente p WHERE p.cpf = :cpf", Paciente.class)
+                .setParameter("cpf", digitosCpf)
+                .setMaxResults(1)
+                .getResultList();
+        return encontrados.isEmpty() ? null : encontrados.get(0);
+    }
+
     /**
      * Atualiza os dados cadastrais de um paciente existente.
+     * A atualização só é gravada se o paciente ainda estiver na versão lida pela tela;
+     * caso contrário, outro usuário o alterou nesse meio-tempo e as alterações dele não
+     * são sobrescritas.
      *
      * @param id           O ID do paciente a ser atualizado.
+     * @param versao       A versão do paciente quando ele foi lido para edição ({@link Paciente#getVersao()}).
      * @param nome         O novo nome.
      * @param endereco     O novo endereço.
      * @param contato      As novas informações de contato.
      * @param tipoConvenio O novo tipo de convênio.
      * @return {@code true} se o paciente foi encontrado e atualizado, {@code false} caso contrário.
+     * @throws OptimisticLockException Se o paciente foi alterado por outro usuário depois de lido.
      */
-    public boolean atualizarPaciente(int id, String nome, Endereco endereco, Contato contato, TipoConvenio tipoConvenio) {
+    public boolean atualizarPaciente(int id, int versao, String nome, Endereco endereco, Contato contato, TipoConvenio tipoConvenio) {
         EntityManager em = JPAUtil.getEntityManager();
         try {
             Paciente paciente = em.find(Paciente.class, id);
             if (paciente != null) {
+                if (paciente.getVersao() != versao) {
+                    throw new OptimisticLockException("O paciente foi alterado por outro usuário depois de aberto. Abra-o novamente antes de salvar.");
+                }
                 em.getTransaction().begin();
                 paciente.setNome(nome);
                 paciente.setEndereco(endereco);
                 paciente.setContato(contato);
                 paciente.setTipoConvenio(tipoConvenio);
                 em.getTransaction().commit();
+                indice.adicionar(paciente);
                 return true;
             }
             return false;
@@ -106,6 +252,7 @@ public class PacienteServico {
                 em.getTransaction().begin();
                 em.remove(paciente);
                 em.getTransaction().commit();
+                indice.remover(id);
                 return true;
             }
             return false;
@@ -137,4 +284,288 @@ public class PacienteServico {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Retorna uma página de pacientes, em ordem de ID, começando logo após o último
+     * paciente da página anterior. Como a busca usa a chave e não um deslocamento,
+     * o custo de cada página é o mesmo independentemente de quantas já foram lidas.
+     *
+     * @param ultimoId      O ID do último paciente da página anterior, ou {@code null} para a primeira página.
+     * @param tamanhoPagina A quantidade máxima de pacientes na página.
+     * @return A página de pacientes.
+     */
+    public Pagina<Paciente> listarPacientesPaginado(Integer ultimoId, int tamanhoPagina) {
+        String jpql = "SELECT p FROM Paciente p" +
+                (ultimoId != null ? " WHERE p.id > :ultimoId" : "") +
+                " ORDER BY p.id";
+
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            TypedQuery<Paciente> query = em.createQuery(jpql, Paciente.class);
+            if (ultimoId != null) {
+                query.setParameter("ultimoId", ultimoId);
+            }
+            query.setMaxResults(tamanhoPagina + 1);
+            return Pagina.de(query.getResultList(), tamanhoPagina);
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Retorna a quantidade total de pacientes cadastrados.
+     *
+     * @return O número de pacientes.
+     */
+    public int contarPacientes() {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            return em.createQuery("SELECT COUNT(p) FROM Paciente p", Long.class).getSingleResult().intValue();
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Retorna uma faixa do resumo de pacientes (ID, nome, CPF e telefone), em ordem de ID.
+     * Usado pelas tabelas que carregam apenas as linhas visíveis, quando saltam para uma
+     * posição distante; o banco percorre as linhas anteriores à faixa, de modo que as
+     * páginas vizinhas devem ser lidas por {@link #listarResumoPacientesPaginado(Integer, int)}
+     * e {@link #listarResumoPacientesAntes(int, int)}.
+     *
+     * @param inicio     A posição do primeiro paciente (começando em 0).
+     * @param quantidade A quantidade máxima de pacientes.
+     * @return Os resumos dos pacientes da faixa.
+     */
+    public List<PacienteResumo> listarResumoPacientes(int inicio, int quantidade) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            return em.createQuery(
+                    "SELECT NEW modelo.PacienteResumo(p.id, p.nome, p.cpf, p.contato.telefone) " +
+                    "FROM Paciente p ORDER BY p.id", PacienteResumo.class)
+                    .setFirstResult(inicio)
+                    .setMaxResults(quantidade)
+                    .getResultList();
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Retorna uma página do resumo de pacientes (ID, nome, CPF e telefone), em ordem de ID,
+     * começando logo após o último paciente da página anterior (paginação por chave).
+     *
+     * @param ultimoId      O ID do último paciente da página anterior, ou {@code null} para a primeira página.
+     * @param tamanhoPagina A quantidade máxima de pacientes na página.
+     * @return A página de resumos de pacientes.
+     */
+    public Pagina<PacienteResumo> listarResumoPacientesPaginado(Integer ultimoId, int tamanhoPagina) {
+        String jpql = "SELECT NEW modelo.PacienteResumo(p.id, p.nome, p.cpf, p.contato.telefone) FROM Paciente p" +
+                (ultimoId != null ? " WHERE p.id > :ultimoId" : "") +
+                " ORDER BY p.id";
+
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            TypedQuery<PacienteResumo> query = em.createQuery(jpql, PacienteResumo.class);
+            if (ultimoId != null) {
+                query.setParameter("ultimoId", ultimoId);
+            }
+            query.setMaxResults(tamanhoPagina + 1);
+            return Pagina.de(query.getResultList(), tamanhoPagina);
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Retorna o resumo dos pacientes imediatamente anteriores a um ID, em ordem de ID
+     * (paginação por chave no sentido inverso). Usado pelas tabelas ao rolar para cima.
+     *
+     * @param primeiroId O ID do primeiro paciente da página seguinte.
+     * @param quantidade A quantidade máxima de pacientes.
+     * @return Os resumos dos pacientes, em ordem crescente de ID.
+     */
+    public List<PacienteResumo> listarResumoPacientesAntes(int primeiroId, int quantidade) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            List<PacienteResumo> resumos = new ArrayList<>(em.createQuery(
+                    "SELECT NEW modelo.PacienteResumo(p.id, p.nome, p.cpf, p.contato.telefone) " +
+                    "FROM Paciente p WHERE p.id < :primeiroId ORDER BY p.id DESC", PacienteResumo.class)
+                    .setParameter("primeiroId", primeiroId)
+                    .setMaxResults(quantidade)
+                    .getResultList());
+            Collections.reverse(resumos);
+            return resumos;
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Busca os pacientes cujo CPF ou alguma parte do nome começa com o termo informado.
+     * <p>
+     * A busca é respondida por um índice em memória (árvore de prefixos), montado na
+     * primeira chamada e mantido atualizado pelos cadastros, atualizações e remoções
+     * feitos por este serviço. Se o termo tiver apenas dígitos (e a pontuação do CPF),
+     * a busca é feita pelo CPF; caso contrário, pelo nome, sem acentos e sem diferenciar
+     * maiúsculas.
+     * </p>
+     *
+     * @param termo  O início do nome (ou de uma de suas palavras) ou do CPF. Vazio retorna os primeiros pacientes em ordem alfabética.
+     * @param limite A quantidade máxima de pacientes retornados.
+     * @return Os resumos dos pacientes encontrados, em ordem alfabética.
+     */
+    public List<PacienteResumo> buscarPacientesPorPrefixo(String termo, int limite) {
+        return indice.buscar(termo, limite);
+    }
+
+    /**
+     * Descarta o índice de busca em memória, que será montado novamente na próxima busca.
+     * Útil quando outra instância da aplicação alterou os pacientes no banco.
+     */
+    public void recarregarIndiceBusca() {
+        indice.invalidar();
+    }
+
+    /**
+     * Busca os pacientes cujo nome ou CPF começa com o termo informado, diretamente no banco.
+     * <p>
+     * Se o termo tiver apenas dígitos (e a pontuação do CPF), a busca é feita pelo CPF;
+     * caso contrário, pelo nome normalizado (sem acentos e sem diferenciar maiúsculas).
+     * Como ambas as colunas são indexadas e a busca é por prefixo, apenas os primeiros
+     * registros do índice são lidos, independentemente do tamanho da tabela.
+     * </p>
+     *
+     * @param termo  O início do nome ou do CPF. Vazio retorna os primeiros pacientes em ordem alfabética.
+     * @param limite A quantidade máxima de pacientes retornados.
+     * @return Os resumos dos pacientes encontrados, em ordem alfabética.
+     */
+    public List<PacienteResumo> buscarPacientesPorPrefixoNoBanco(String termo, int limite) {
+        String texto = termo == null ? "" : termo.trim();
+        String digitos = ValidadorCpf.somenteDigitos(texto);
+        boolean buscaPorCpf = !digitos.isEmpty() && texto.matches("[0-9.\\-]+");
+
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            TypedQuery<PacienteResumo> query;
+            if (buscaPorCpf) {
+                // O CPF pode estar gravado só com dígitos ou com a máscara digitada na tela
+                query = em.createQuery(
+                        "SELECT NEW modelo.PacienteResumo(p.id, p.nome, p.cpf, p.contato.telefone) FROM Paciente p " +
+                        "WHERE p.cpf LIKE :digitos OR p.cpf LIKE :texto ORDER BY p.cpf", PacienteResumo.class)
+                        .setParameter("digitos", digitos + "%")
+                        .setParameter("texto", texto + "%");
+            } else {
+                query = em.createQuery(
+                        "SELECT NEW modelo.PacienteResumo(p.id, p.nome, p.cpf, p.contato.telefone) FROM Paciente p " +
+                        "WHERE p.nomeBusca LIKE :prefixo ORDER BY p.nomeBusca, p.id", PacienteResumo.class)
+                        .setParameter("prefixo", NormalizadorTexto.normalizar(texto) + "%");
+            }
+            return query.setMaxResults(limite).getResultList();
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Preenche o nome normalizado dos pacientes cadastrados antes da existência dessa coluna.
+     * Processa os pacientes em lotes, cada um em sua transação; quando não há pendências,
+     * custa apenas uma consulta.
+     *
+     * @return A quantidade de pacientes atualizados.
+     */
+    public int preencherNomesBusca() {
+        int atualizados = 0;
+        while (true) {
+            EntityManager em = JPAUtil.getEntityManager();
+            try {
+                em.getTransaction().begin();
+                List<Paciente> pendentes = em.createQuery(
+                        "SELECT p FROM Paciente p WHERE p.nomeBusca IS NULL", Paciente.class)
+                        .setMaxResults(TAMANHO_LOTE)
+                        .getResultList();
+                for (Paciente paciente : pendentes) {
+                    paciente.atualizarNomeBusca();
+                }
+                em.getTransaction().commit();
+                atualizados += pendentes.size();
+                if (pendentes.size() < TAMANHO_LOTE) {
+                    return atualizados;
+                }
+            } catch (RuntimeException e) {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                throw e;
+            } finally {
+                if (em.isOpen()) {
+                    em.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Grava apenas com dígitos os CPFs de pacientes cadastrados antes da normalização
+     * (por exemplo, "123.456.789-00"). Se o CPF normalizado já pertencer a outro paciente,
+     * o registro é mantido como está e o conflito é registrado no log.
+     *
+     * @return A quantidade de pacientes atualizados.
+     */
+    public int normalizarCpfs() {
+        int atualizados = 0;
+        int ultimoId = 0;
+        while (true) {
+            EntityManager em = JPAUtil.getEntityManager();
+            try {
+                em.getTransaction().begin();
+                List<Paciente> pendentes = em.createQuery(
+                        "SELECT p FROM Paciente p WHERE p.id > :ultimoId " +
+                        "AND (p.cpf LIKE '%.%' OR p.cpf LIKE '%-%' OR p.cpf LIKE '% %') ORDER BY p.id", Paciente.class)
+                        .setParameter("ultimoId", ultimoId)
+                        .setMaxResults(TAMANHO_LOTE)
+                        .getResultList();
+                for (Paciente paciente : pendentes) {
+                    ultimoId = paciente.getId();
+                    String digitos = ValidadorCpf.somenteDigitos(paciente.getCpf());
+                    if (buscarPacientePorCpf(em, digitos) != null) {
+                        logger.warning("CPF " + digitos + " repetido; o paciente " + paciente.getId() + " foi mantido com o CPF original.");
+                        continue;
+                    }
+                    paciente.setCpf(digitos);
+                    // Grava já, para que a próxima verificação enxergue este CPF
+                    em.flush();
+                    atualizados++;
+                }
+                em.getTransaction().commit();
+                if (pendentes.size() < TAMANHO_LOTE) {
+                    if (atualizados > 0) {
+                        indice.invalidar();
+                    }
+                    return atualizados;
+                }
+            } catch (RuntimeException e) {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                throw e;
+            } finally {
+                if (em.isOpen()) {
+                    em.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package servico;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Acompanha o andamento e o resultado do envio de um conjunto de mensagens.
+ * É atualizado pelas threads da {@link FilaEnvioMensagens} à medida que os lotes são
+ * entregues e pode ser consultado durante o envio para exibir o progresso.
+ */
+public class ResultadoEnvio {
+    private final long inicioNanos = System.nanoTime();
+    private long fimNanos;
+    private final int total;
+    private int enviadas;
+    private int falhas;
+    private final List<Mensagem> mensagensComFalha = new ArrayList<>();
+
+    ResultadoEnvio(int total) {
+        this.total = total;
+    }
+
+    synchronized void registrarEnviada() {
+        enviadas++;
+    }
+
+    synchronized void registrarFalha(Mensagem mensagem) {
+        falhas++;
+        mensagensComFalha.add(mensagem);
+    }
+
+    synchronized void concluir() {
+        this.fimNanos = System.nanoTime();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public synchronized int getEnviadas() {
+        return enviadas;
+    }
+
+    public synchronized int getFalhas() {
+        return falhas;
+    }
+
+    /**
+     * Retorna as mensagens que não puderam ser entregues. São as mesmas instâncias
+     * passadas ao envio, o que permite identificar quais falharam.
+     *
+     * @return Uma cópia da lista de mensagens com falha.
+     */
+    public synchronized List<Mensagem> getMensagensComFalha() {
+        return Collections.unmodifiableList(new ArrayList<>(mensagensComFalha));
+    }
+
+    /**
+     * Retorna o tempo decorrido desde o início do envio (ou até o seu fim, se já concluído).
+     *
+     * @return O tempo em milissegundos.
+     */
+    public synchronized long getTempoDecorridoMs() {
+        long fim = fimNanos != 0 ? fimNanos : System.nanoTime();
+        return (fim - inicioNanos) / 1_000_000;
+    }
+
+    /**
+     * Monta um resumo legível do envio.
+     *
+     * @return Uma String com mensagens enviadas, falhas e tempo.
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("Mensagens: %d | Enviadas: %d | Falhas: %d | Tempo: %.1f s",
+                total, enviadas, falhas, getTempoDecorridoMs() / 1000.0);
+    }
+}
@@ -0,0 +1,63 @@
+package servico;
+
+import java.nio.file.Path;
+
+/**
+ * O resultado da exportação de um relatório para arquivo, com a quantidade de linhas
+ * e a vazão. É preenchido pelo {@link ExportacaoRelatorioServico}.
+ */
+public class ResultadoExportacao {
+
+    private final Path arquivo;
+    private final long inicioNanos = System.nanoTime();
+    private long fimNanos;
+    private long linhas;
+
+    ResultadoExportacao(Path arquivo) {
+        this.arquivo = arquivo;
+    }
+
+    void concluir(long linhas) {
+        this.linhas = linhas;
+        this.fimNanos = System.nanoTime();
+    }
+
+    public Path getArquivo() {
+        return arquivo;
+    }
+
+    public long getLinhas() {
+        return linhas;
+    }
+
+    /**
+     * Retorna o tempo decorrido desde o início da exportação (ou até o seu fim, se já concluída).
+     *
+     * @return O tempo em milissegundos.
+     */
+    public long getTempoDecorridoMs() {
+        long fim = fimNanos != 0 ? fimNanos : System.nanoTime();
+        return (fim - inicioNanos) / 1_000_000;
+    }
+
+    /**
+     * Calcula a vazão da exportação.
+     *
+     * @return A quantidade de linhas escritas por segundo.
+     */
+    public double getLinhasPorSegundo() {
+        long tempoMs = Math.max(1, getTempoDecorridoMs());
+        return linhas * 1000.0 / tempoMs;
+    }
+
+    /**
+     * Monta um resumo legível da exportação.
+     *
+     * @return Uma String com o arquivo, as linhas, o tempo e a vazão.
+     */
+    @Override
+    public String toString() {
+        return String.format("Arquivo: %s | Linhas: %d | Tempo: %.1f s | %.0f linhas/s",
+                arquivo.toAbsolutePath(), linhas, getTempoDecorridoMs() / 1000.0, getLinhasPorSegundo());
+    }
+}
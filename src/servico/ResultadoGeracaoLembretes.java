@@ -0,0 +1,91 @@
+package servico;
+
+import modelo.Consulta;
+import utilitario.CanalMensagem;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado da geração dos lembretes do dia seguinte em todos os canais
+ * ({@link LembreteServico#registrarLembretesTodosCanais(java.time.LocalDateTime, java.time.LocalDateTime)}).
+ * As quantidades são por paciente, já que cada paciente recebe no máximo um lembrete.
+ */
+public class ResultadoGeracaoLembretes {
+
+    private final List<Consulta> consultas;
+    private final Map<Integer, CanalMensagem> canalPorConsulta = new HashMap<>();
+    private final Map<CanalMensagem, Integer> registradosPorCanal = new EnumMap<>(CanalMensagem.class);
+    private int semContato;
+    private int jaRegistrados;
+
+    ResultadoGeracaoLembretes(List<Consulta> consultas) {
+        this.consultas = consultas;
+        for (CanalMensagem canal : CanalMensagem.values()) {
+            registradosPorCanal.put(canal, 0);
+        }
+    }
+
+    void registrar(List<Consulta> consultasDoPaciente, CanalMensagem canal) {
+        for (Consulta consulta : consultasDoPaciente) {
+            canalPorConsulta.put(consulta.getId(), canal);
+        }
+        registradosPorCanal.merge(canal, 1, Integer::sum);
+    }
+
+    void registrarSemContato() {
+        semContato++;
+    }
+
+    void registrarJaExistente() {
+        jaRegistrados++;
+    }
+
+    /**
+     * @return As consultas do dia, ordenadas por data e hora.
+     */
+    public List<Consulta> getConsultas() {
+        return Collections.unmodifiableList(consultas);
+    }
+
+    /**
+     * Retorna o canal pelo qual o paciente da consulta será lembrado nesta geração.
+     *
+     * @param consulta Uma das consultas do resultado.
+     * @return O canal, ou {@code null} se o paciente não tem contato ou já tinha lembrete.
+     */
+    public CanalMensagem getCanal(Consulta consulta) {
+        return canalPorConsulta.get(consulta.getId());
+    }
+
+    /**
+     * @param canal O canal.
+     * @return Quantos pacientes receberam lembrete neste canal.
+     */
+    public int getRegistrados(CanalMensagem canal) {
+        return registradosPorCanal.get(canal);
+    }
+
+    public int getSemContato() {
+        return semContato;
+    }
+
+    public int getJaRegistrados() {
+        return jaRegistrados;
+    }
+
+    /**
+     * Monta um resumo legível da geração.
+     *
+     * @return Uma String com as quantidades por canal.
+     */
+    @Override
+    public String toString() {
+        return String.format("Consultas: %d | Lembretes por e-mail: %d | Lembretes por SMS: %d | Sem contato: %d | Já lembrados: %d",
+                consultas.size(), registradosPorCanal.get(CanalMensagem.EMAIL), registradosPorCanal.get(CanalMensagem.SMS),
+                semContato, jaRegistrados);
+    }
+}
@@ -0,0 +1,91 @@
+package servico;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Acompanha o andamento e o resultado de uma importação de pacientes.
+ * É atualizado pelo {@link ImportacaoPacientesServico} a cada lote gravado e pode
+ * ser consultado durante a importação para exibir o progresso.
+ */
+public class ResultadoImportacao {
+    /**
+     * Quantidade máxima de mensagens de erro guardadas, para não crescer sem limite.
+     */
+    private static final int MAXIMO_ERROS_GUARDADOS = 100;
+
+    private final long inicioNanos = System.nanoTime();
+    private long fimNanos;
+    private int linhasLidas;
+    private int importados;
+    private int rejeitados;
+    private final List<String> erros = new ArrayList<>();
+
+    void registrarLote(int lidas, int gravados, List<String> errosDoLote) {
+        this.linhasLidas += lidas;
+        this.importados += gravados;
+        this.rejeitados += errosDoLote.size();
+        for (String erro : errosDoLote) {
+            if (erros.size() < MAXIMO_ERROS_GUARDADOS) {
+                erros.add(erro);
+            }
+        }
+    }
+
+    void concluir() {
+        this.fimNanos = System.nanoTime();
+    }
+
+    public int getLinhasLidas() {
+        return linhasLidas;
+    }
+
+    public int getImportados() {
+        return importados;
+    }
+
+    public int getRejeitados() {
+        return rejeitados;
+    }
+
+    /**
+     * Retorna as primeiras mensagens de erro (linha e motivo da rejeição).
+     *
+     * @return Uma lista somente leitura com até 100 mensagens.
+     */
+    public List<String> getErros() {
+        return Collections.unmodifiableList(erros);
+    }
+
+    /**
+     * Retorna o tempo decorrido desde o início da importação (ou até o seu fim, se já concluída).
+     *
+     * @return O tempo em milissegundos.
+     */
+    public long getTempoDecorridoMs() {
+        long fim = fimNanos != 0 ? fimNanos : System.nanoTime();
+        return (fim - inicioNanos) / 1_000_000;
+    }
+
+    /**
+     * Calcula a vazão da importação.
+     *
+     * @return A quantidade de linhas processadas por segundo.
+     */
+    public double getLinhasPorSegundo() {
+        long tempoMs = Math.max(1, getTempoDecorridoMs());
+        return linhasLidas * 1000.0 / tempoMs;
+    }
+
+    /**
+     * Monta um resumo legível da importação.
+     *
+     * @return Uma String com linhas lidas, importadas, rejeitadas, tempo e vazão.
+     */
+    @Override
+    public String toString() {
+        return String.format("Linhas lidas: %d | Importados: %d | Rejeitados: %d | Tempo: %.1f s | %.0f linhas/s",
+                linhasLidas, importados, rejeitados, getTempoDecorridoMs() / 1000.0, getLinhasPorSegundo());
+    }
+}
@@ -0,0 +1,79 @@
+package servico;
+
+/**
+ * Resultado de um processamento da fila de lembretes ({@link LembreteServico#processarPendentes()}).
+ * Além das quantidades, informa a vazão, em lembretes entregues por segundo.
+ */
+public class ResultadoRelayLembretes {
+
+    private final long inicioNanos = System.nanoTime();
+    private long fimNanos;
+    private int lotes;
+    private int processados;
+    private int enviados;
+    private int reagendados;
+    private int falhasDefinitivas;
+
+    void registrarLote(int enviadosNoLote, int reagendadosNoLote, int falhasDefinitivasNoLote) {
+        this.lotes++;
+        this.processados += enviadosNoLote + reagendadosNoLote + falhasDefinitivasNoLote;
+        this.enviados += enviadosNoLote;
+        this.reagendados += reagendadosNoLote;
+        this.falhasDefinitivas += falhasDefinitivasNoLote;
+    }
+
+    void concluir() {
+        this.fimNanos = System.nanoTime();
+    }
+
+    public int getLotes() {
+        return lotes;
+    }
+
+    public int getProcessados() {
+        return processados;
+    }
+
+    public int getEnviados() {
+        return enviados;
+    }
+
+    public int getReagendados() {
+        return reagendados;
+    }
+
+    public int getFalhasDefinitivas() {
+        return falhasDefinitivas;
+    }
+
+    /**
+     * Retorna o tempo decorrido desde o início do processamento (ou até o seu fim, se já concluído).
+     *
+     * @return O tempo em milissegundos.
+     */
+    public long getTempoDecorridoMs() {
+        long fim = fimNanos != 0 ? fimNanos : System.nanoTime();
+        return (fim - inicioNanos) / 1_000_000;
+    }
+
+    /**
+     * Calcula a vazão do processamento.
+     *
+     * @return A quantidade de lembretes entregues por segundo.
+     */
+    public double getEnviadosPorSegundo() {
+        long tempoMs = Math.max(1, getTempoDecorridoMs());
+        return enviados * 1000.0 / tempoMs;
+    }
+
+    /**
+     * Monta um resumo legível do processamento.
+     *
+     * @return Uma String com as quantidades, o tempo e a vazão.
+     */
+    @Override
+    public String toString() {
+        return String.format("Lembretes processados: %d | Enviados: %d | Reagendados: %d | Falhas definitivas: %d | Tempo: %.1f s | %.0f lembretes/s",
+                processados, enviados, reagendados, falhasDefinitivas, getTempoDecorridoMs() / 1000.0, getEnviadosPorSegundo());
+    }
+}
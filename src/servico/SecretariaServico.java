@@ -7,8 +7,8 @@ import utilitario.TipoConvenio;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.ListIterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Serviço responsável por gerenciar as operações de uma Secretária no sistema, agindo como uma fachada
@@ -17,16 +17,19 @@ import java.util.List;
 public class SecretariaServico {
     private PacienteServico pacienteServico;
     private ConsultaServico consultaServico;
+    private LembreteServico lembreteServico;
 
     /**
      * Construtor para o SecretariaServico que recebe as dependências.
      *
      * @param pacienteServico O serviço de pacientes.
      * @param consultaServico O serviço de consultas.
+     * @param lembreteServico O serviço da fila de lembretes.
      */
-    public SecretariaServico(PacienteServico pacienteServico, ConsultaServico consultaServico) {
+    public SecretariaServico(PacienteServico pacienteServico, ConsultaServico consultaServico, LembreteServico lembreteServico) {
         this.pacienteServico = pacienteServico;
         this.consultaServico = consultaServico;
+        this.lembreteServico = lembreteServico;
     }
 
     /**
@@ -48,14 +51,16 @@ public class SecretariaServico {
      * Delega a atualização de um paciente para o PacienteServico.
      *
      * @param idPaciente   O ID do paciente a ser atualizado.
+     * @param versao       A versão do paciente quando ele foi lido para edição.
      * @param nome         O novo nome.
      * @param endereco     O novo endereço.
      * @param contato      As novas informações de contato.
      * @param tipoConvenio O novo tipo de convênio.
      * @return {@code true} se o paciente foi encontrado e atualizado, {@code false} caso contrário.
+     * @throws javax.persistence.OptimisticLockException Se o paciente foi alterado por outro usuário depois de lido.
      */
-    public Boolean atualizarPaciente(int idPaciente, String nome, Endereco endereco, Contato contato, TipoConvenio tipoConvenio) {
-        return this.pacienteServico.atualizarPaciente(idPaciente, nome, endereco, contato, tipoConvenio);
+    public Boolean atualizarPaciente(int idPaciente, int versao, String nome, Endereco endereco, Contato contato, TipoConvenio tipoConvenio) {
+        return this.pacienteServico.atualizarPaciente(idPaciente, versao, nome, endereco, contato, tipoConvenio);
     }
 
     /**
@@ -76,6 +81,7 @@ public class SecretariaServico {
      * @param paciente O paciente.
      * @param tipo     O tipo de consulta.
      * @return O objeto Consulta recém-cadastrado.
+     * @throws ConflitoAgendamentoException Se o médico já tiver uma consulta no horário.
      */
     public Consulta cadastrarConsulta(LocalDateTime dataHora, Medico medico, Paciente paciente, TipoConsulta tipo) {
         return this.consultaServico.cadastrarConsulta(dataHora, medico, paciente, tipo);
@@ -85,14 +91,30 @@ public class SecretariaServico {
      * Delega a atualização de uma consulta para o ConsultaServico.
      *
      * @param idConsulta O ID da consulta a ser atualizada.
+     * @param versao     A versão da consulta quando ela foi lida para edição.
      * @param dataHora   A nova data e hora.
      * @param medico     O novo médico.
      * @param paciente   O novo paciente.
      * @param tipo       O novo tipo de consulta.
      * @return {@code true} se a consulta foi encontrada e atualizada, {@code false} caso contrário.
+     * @throws ConflitoAgendamentoException Se o novo horário se sobrepuser a outra consulta do médico.
+     * @throws javax.persistence.OptimisticLockException Se a consulta foi alterada por outro usuário depois de lida.
      */
-    public Boolean atualizarConsulta(int idConsulta, LocalDateTime dataHora, Medico medico, Paciente paciente, TipoConsulta tipo) {
-        return this.consultaServico.atualizarConsulta(idConsulta, dataHora, medico, paciente, tipo);
+    public Boolean atualizarConsulta(int idConsulta, int versao, LocalDateTime dataHora, Medico medico, Paciente paciente, TipoConsulta tipo) {
+        return this.consultaServico.atualizarConsulta(idConsulta, versao, dataHora, medico, paciente, tipo);
+    }
+
+    /**
+     * Delega ao ConsultaServico uma alteração de consulta que é reaplicada sobre a versão
+     * mais recente se outro usuário gravar a consulta ao mesmo tempo.
+     *
+     * @param idConsulta O ID da consulta a ser alterada.
+     * @param alteracao  A alteração a aplicar (pode ser executada mais de uma vez).
+     * @return {@code true} se a consulta foi encontrada e atualizada, {@code false} caso contrário.
+     * @throws ConflitoAgendamentoException Se o novo horário se sobrepuser a outra consulta do médico.
+     */
+    public boolean atualizarConsultaComRetentativa(int idConsulta, Consumer<Consulta> alteracao) {
+        return this.consultaServico.atualizarConsultaComRetentativa(idConsulta, alteracao);
     }
 
     /**
@@ -114,33 +136,44 @@ public class SecretariaServico {
      * @return Uma lista de objetos Consulta que atendem ao critério de data e filtro de contato.
      */
     public List<Consulta> gerarRelatorioConsultas(LocalDateTime diaDeHoje, String filtroContato) {
-        LocalDate dataDiaSeguinte = diaDeHoje.toLocalDate().plusDays(1);
-
-        List<Consulta> listaConsultas = this.consultaServico.getListaConsultas();
-        ListIterator<Consulta> it = listaConsultas.listIterator();
-
-        List<Consulta> relatorio = new ArrayList<>();
-        while (it.hasNext()) {
-            Consulta consulta = it.next();
-
-            LocalDate dataDaConsulta = consulta.getDataHora().toLocalDate();
-
-            if (dataDaConsulta.isEqual(dataDiaSeguinte)) {
-                Paciente paciente = consulta.getPaciente();
-                Contato contato = paciente.getContato();
-
-                Boolean temEmail = contato.getEmail() != null && !contato.getEmail().isEmpty();
-                Boolean temTelefone = contato.getTelefone() != null && !contato.getTelefone().isEmpty();
-                switch (filtroContato) {
-                    case "EMAIL":
-                        if (temEmail) relatorio.add(consulta);
-                        break;
-                    case "TELEFONE":
-                        if (temTelefone) relatorio.add(consulta);
-                        break;
-                }
-            }
+        LocalDateTime inicioDiaSeguinte = diaDeHoje.toLocalDate().plusDays(1).atStartOfDay();
+        LocalDateTime fimDiaSeguinte = inicioDiaSeguinte.plusDays(1);
+
+        if (!"EMAIL".equals(filtroContato) && !"TELEFONE".equals(filtroContato)) {
+            return new ArrayList<>();
+        }
+        return this.consultaServico.buscarConsultasPorPeriodo(inicioDiaSeguinte, fimDiaSeguinte, filtroContato);
+    }
+
+    /**
+     * Gera o mesmo relatório de {@link #gerarRelatorioConsultas(LocalDateTime, String)} e, na
+     * mesma transação, registra na fila de lembretes as consultas que ainda não têm lembrete
+     * no canal correspondente (E-mail para "EMAIL", SMS para "TELEFONE"). Gerar o relatório
+     * de novo não duplica os lembretes.
+     *
+     * @param diaDeHoje     A data e hora de referência para calcular o dia seguinte.
+     * @param filtroContato O tipo de contato a ser filtrado ("EMAIL" ou "TELEFONE").
+     * @return Uma lista de objetos Consulta que atendem ao critério de data e filtro de contato.
+     */
+    public List<Consulta> gerarRelatorioERegistrarLembretes(LocalDateTime diaDeHoje, String filtroContato) {
+        LocalDateTime inicioDiaSeguinte = diaDeHoje.toLocalDate().plusDays(1).atStartOfDay();
+        LocalDateTime fimDiaSeguinte = inicioDiaSeguinte.plusDays(1);
+
+        if (!"EMAIL".equals(filtroContato) && !"TELEFONE".equals(filtroContato)) {
+            return new ArrayList<>();
         }
-        return relatorio;
+        return this.lembreteServico.registrarLembretes(inicioDiaSeguinte, fimDiaSeguinte, filtroContato);
+    }
+
+    /**
+     * Gera, lendo as consultas do dia seguinte uma única vez, os lembretes de todos os
+     * pacientes: por e-mail para quem tem e-mail, por SMS para quem tem apenas telefone.
+     *
+     * @param diaDeHoje A data e hora de referência para calcular o dia seguinte.
+     * @return As consultas do dia seguinte e as quantidades de lembretes por canal.
+     */
+    public ResultadoGeracaoLembretes gerarLembretesDiaSeguinte(LocalDateTime diaDeHoje) {
+        LocalDateTime inicioDiaSeguinte = diaDeHoje.toLocalDate().plusDays(1).atStartOfDay();
+        return this.lembreteServico.registrarLembretesTodosCanais(inicioDiaSeguinte, inicioDiaSeguinte.plusDays(1));
     }
 }
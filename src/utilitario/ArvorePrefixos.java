@@ -0,0 +1,192 @@
+package utilitario;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Árvore de prefixos (trie) que associa chaves de texto a valores.
+ * <p>
+ * Cada caractere da chave é um nível da árvore, de modo que encontrar todas as chaves
+ * que começam com um prefixo custa apenas o tamanho do prefixo mais a quantidade de
+ * resultados percorridos, independentemente de quantas chaves existem. Os filhos de
+ * cada nó ficam em vetores ordenados, o que mantém os resultados em ordem alfabética
+ * e ocupa bem menos memória que um mapa por nó.
+ * </p>
+ * <p>
+ * Esta classe não é sincronizada; quem a compartilha entre threads deve controlar o acesso.
+ * </p>
+ *
+ * @param <T> O tipo dos valores associados às chaves.
+ */
+public class ArvorePrefixos<T> {
+
+    private static final char[] SEM_CHAVES = new char[0];
+
+    /**
+     * Um nó da árvore: os caracteres seguintes (ordenados) e os valores cuja chave termina aqui.
+     */
+    private static class No<T> {
+        private char[] caracteres = SEM_CHAVES;
+        private No<T>[] filhos;
+        private List<T> valores;
+
+        No<T> filho(char c) {
+            int posicao = Arrays.binarySearch(caracteres, c);
+            return posicao >= 0 ? filhos[posicao] : null;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        No<T> filhoOuNovo(char c) {
+            int posicao = Arrays.binarySearch(caracteres, c);
+            if (posicao >= 0) {
+                return filhos[posicao];
+            }
+            int insercao = -posicao - 1;
+            int tamanho = caracteres.length;
+
+            char[] novosCaracteres = new char[tamanho + 1];
+            No<T>[] novosFilhos = new No[tamanho + 1];
+            System.arraycopy(caracteres, 0, novosCaracteres, 0, insercao);
+            System.arraycopy(caracteres, insercao, novosCaracteres, insercao + 1, tamanho - insercao);
+            if (filhos != null) {
+                System.arraycopy(filhos, 0, novosFilhos, 0, insercao);
+                System.arraycopy(filhos, insercao, novosFilhos, insercao + 1, tamanho - insercao);
+            }
+            No<T> novo = new No<>();
+            novosCaracteres[insercao] = c;
+            novosFilhos[insercao] = novo;
+            caracteres = novosCaracteres;
+            filhos = novosFilhos;
+            return novo;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void removerFilho(char c) {
+            int posicao = Arrays.binarySearch(caracteres, c);
+            if (posicao < 0) {
+                return;
+            }
+            int tamanho = caracteres.length;
+            if (tamanho == 1) {
+                caracteres = SEM_CHAVES;
+                filhos = null;
+                return;
+            }
+            char[] novosCaracteres = new char[tamanho - 1];
+            No<T>[] novosFilhos = new No[tamanho - 1];
+            System.arraycopy(caracteres, 0, novosCaracteres, 0, posicao);
+            System.arraycopy(caracteres, posicao + 1, novosCaracteres, posicao, tamanho - posicao - 1);
+            System.arraycopy(filhos, 0, novosFilhos, 0, posicao);
+            System.arraycopy(filhos, posicao + 1, novosFilhos, posicao, tamanho - posicao - 1);
+            caracteres = novosCaracteres;
+            filhos = novosFilhos;
+        }
+
+        boolean isVazio() {
+            return caracteres.length == 0 && (valores == null || valores.isEmpty());
+        }
+    }
+
+    private final No<T> raiz = new No<>();
+
+    /**
+     * Associa um valor a uma chave. Uma chave pode ter vários valores.
+     *
+     * @param chave A chave (normalmente já normalizada).
+     * @param valor O valor a associar.
+     */
+    public void adicionar(String chave, T valor) {
+        No<T> no = raiz;
+        for (int i = 0; i < chave.length(); i++) {
+            no = no.filhoOuNovo(chave.charAt(i));
+        }
+        if (no.valores == null) {
+            no.valores = new ArrayList<>(1);
+        }
+        if (!no.valores.contains(valor)) {
+            no.valores.add(valor);
+        }
+    }
+
+    /**
+     * Remove a associação entre uma chave e um valor, descartando os nós que ficarem vazios.
+     *
+     * @param chave A chave usada em {@link #adicionar(String, Object)}.
+     * @param valor O valor a remover.
+     */
+    public void remover(String chave, T valor) {
+        remover(raiz, chave, 0, valor);
+    }
+
+    /**
+     * Remove o valor descendo recursivamente pela chave.
+     *
+     * @return {@code true} se o nó ficou vazio e pode ser retirado do pai.
+     */
+    private boolean remover(No<T> no, String chave, int posicao, T valor) {
+        if (posicao == chave.length()) {
+            if (no.valores != null) {
+                no.valores.remove(valor);
+            }
+            return no.isVazio();
+        }
+        char c = chave.charAt(posicao);
+        No<T> filho = no.filho(c);
+        if (filho != null && remover(filho, chave, posicao + 1, valor)) {
+            no.removerFilho(c);
+        }
+        return no.isVazio();
+    }
+
+    /**
+     * Coleta os valores cujas chaves começam com o prefixo, em ordem alfabética das chaves.
+     * A busca para assim que o destino atingir o limite; valores repetidos são ignorados
+     * se o destino for um {@link java.util.Set}.
+     *
+     * @param prefixo O início das chaves procuradas. Vazio percorre a árvore desde o início.
+     * @param limite  A quantidade máxima de valores no destino.
+     * @param destino A coleção que recebe os valores encontrados.
+     */
+    public void buscar(String prefixo, int limite, Collection<T> destino) {
+        No<T> no = raiz;
+        for (int i = 0; i < prefixo.length() && no != null; i++) {
+            no = no.filho(prefixo.charAt(i));
+        }
+        if (no != null) {
+            coletar(no, limite, destino);
+        }
+    }
+
+    /**
+     * Percorre a subárvore em profundidade, dos caracteres menores para os maiores.
+     *
+     * @return {@code true} se o limite foi atingido.
+     */
+    private boolean coletar(No<T> no, int limite, Collection<T> destino) {
+        if (no.valores != null) {
+            for (T valor : no.valores) {
+                destino.add(valor);
+                if (destino.size() >= limite) {
+                    return true;
+                }
+            }
+        }
+        for (int i = 0; i < no.caracteres.length; i++) {
+            if (coletar(no.filhos[i], limite, destino)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove todas as chaves.
+     */
+    public void limpar() {
+        raiz.caracteres = SEM_CHAVES;
+        raiz.filhos = null;
+        raiz.valores = null;
+    }
+}
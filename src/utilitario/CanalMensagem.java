@@ -0,0 +1,15 @@
+package utilitario;
+
+/**
+ * Define os canais pelos quais as mensagens aos pacientes podem ser enviadas.
+ */
+public enum CanalMensagem {
+    /**
+     * Mensagem enviada para o e-mail do paciente.
+     */
+    EMAIL,
+    /**
+     * Mensagem de texto enviada para o telefone do paciente.
+     */
+    SMS
+}
@@ -0,0 +1,48 @@
+package utilitario;
+
+import java.nio.file.Path;
+
+/**
+ * Define os formatos de arquivo em que os relatórios podem ser exportados.
+ */
+public enum FormatoExportacao {
+    /**
+     * Valores separados por ";", com cabeçalho, no mesmo padrão da importação de pacientes.
+     */
+    CSV("csv"),
+    /**
+     * Um vetor JSON com um objeto por linha do relatório.
+     */
+    JSON("json");
+
+    private final String extensao;
+
+    FormatoExportacao(String extensao) {
+        this.extensao = extensao;
+    }
+
+    /**
+     * @return A extensão dos arquivos do formato, sem o ponto.
+     */
+    public String getExtensao() {
+        return extensao;
+    }
+
+    /**
+     * Identifica o formato pela extensão do arquivo.
+     *
+     * @param arquivo O caminho do arquivo.
+     * @return O formato correspondente.
+     * @throws IllegalArgumentException Se a extensão não for de nenhum formato conhecido.
+     */
+    public static FormatoExportacao deArquivo(Path arquivo) {
+        String nome = arquivo.getFileName().toString().toLowerCase();
+        for (FormatoExportacao formato : values()) {
+            if (nome.endsWith("." + formato.extensao)) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Formato de exportação não reconhecido: " + arquivo.getFileName()
+                + ". Use a extensão .csv ou .json.");
+    }
+}
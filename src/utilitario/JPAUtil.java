@@ -3,17 +3,52 @@ package utilitario;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Classe utilitária para gerenciar a EntityManagerFactory e fornecer acesso
  * ao EntityManager.
  * Utiliza o padrão Singleton para garantir que a EntityManagerFactory seja
- * criada apenas uma vez.
+ * criada apenas uma vez, mesmo quando várias threads a solicitam ao mesmo tempo.
+ * A criação pode ser antecipada com {@link #iniciarAquecimento()}, para que o
+ * primeiro clique do usuário não pague o custo de inicialização do Hibernate.
+ * <p>
+ * O banco pode ser acessado de duas formas, escolhidas pela propriedade de sistema
+ * {@code clinica.derby.modo}: {@code rede} (padrão), que usa o servidor Derby em
+ * {@code localhost:1527}, ou {@code embarcado}, que executa o Derby dentro da própria
+ * aplicação (indicado para clínicas com uma única estação de trabalho).
+ * </p>
  */
 public class JPAUtil {
 
+    private static final Logger logger = Logger.getLogger(JPAUtil.class.getName());
     private static final String PERSISTENCE_UNIT_NAME = "Trabalho_POO_PU";
-    private static EntityManagerFactory factory;
+    private static final String NOME_MBEAN_POOL = "com.zaxxer.hikari:type=Pool (Trabalho_POO_Pool)";
+
+    /**
+     * Propriedade de sistema que define o modo do banco: "rede" ou "embarcado".
+     */
+    public static final String PROPRIEDADE_MODO = "clinica.derby.modo";
+    public static final String MODO_REDE = "rede";
+    public static final String MODO_EMBARCADO = "embarcado";
+
+    private static final String URL_EMBARCADO = "jdbc:derby:database;create=true";
+    private static final String DRIVER_EMBARCADO = "org.apache.derby.jdbc.EmbeddedDriver";
+
+    private static volatile EntityManagerFactory factory;
+    private static CompletableFuture<EntityManagerFactory> aquecimento;
+
+    private static volatile long tempoInicializacaoMs = -1;
+    private static volatile long tempoAquecimentoMs = -1;
 
     /**
      * Construtor privado para impedir a instanciação.
@@ -23,24 +58,204 @@ public class JPAUtil {
 
     /**
      * Retorna uma instância do EntityManager.
-     * A EntityManagerFactory é criada de forma lazy na primeira chamada.
+     * Se a EntityManagerFactory ainda não existir, ela é criada nesta chamada
+     * (ou aguarda o aquecimento em andamento terminar).
      *
      * @return uma instância de EntityManager.
      */
     public static EntityManager getEntityManager() {
-        if (factory == null) {
-            factory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME);
+        return getFactory().createEntityManager();
+    }
+
+    /**
+     * Retorna a EntityManagerFactory, criando-a na primeira chamada.
+     * Usa verificação dupla com variável volatile, de modo que chamadas
+     * simultâneas nunca criem duas fábricas.
+     *
+     * @return a EntityManagerFactory da aplicação.
+     */
+    private static EntityManagerFactory getFactory() {
+        EntityManagerFactory f = factory;
+        if (f == null) {
+            synchronized (JPAUtil.class) {
+                f = factory;
+                if (f == null) {
+                    long inicio = System.nanoTime();
+                    f = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME, getPropriedadesModo());
+                    tempoInicializacaoMs = (System.nanoTime() - inicio) / 1_000_000;
+                    logger.info("EntityManagerFactory criada em " + tempoInicializacaoMs + " ms.");
+                    factory = f;
+                }
+            }
+        }
+        return f;
+    }
+
+    /**
+     * Indica se a aplicação está configurada para usar o Derby embarcado.
+     *
+     * @return {@code true} se o modo selecionado for "embarcado".
+     */
+    public static boolean isModoEmbarcado() {
+        return MODO_EMBARCADO.equalsIgnoreCase(System.getProperty(PROPRIEDADE_MODO, MODO_REDE));
+    }
+
+    /**
+     * Monta as propriedades que sobrescrevem as do persistence.xml de acordo com o modo.
+     * No modo de rede nada é alterado. No modo embarcado o driver e a URL passam a ser
+     * os do Derby local e as configurações do motor são aplicadas antes de ele iniciar.
+     *
+     * @return o mapa de propriedades a ser passado para a criação da fábrica.
+     */
+    private static Map<String, Object> getPropriedadesModo() {
+        Map<String, Object> propriedades = new HashMap<>();
+        if (isModoEmbarcado()) {
+            configurarDerbyEmbarcado();
+            propriedades.put("javax.persistence.jdbc.driver", DRIVER_EMBARCADO);
+            propriedades.put("javax.persistence.jdbc.url", URL_EMBARCADO);
+            logger.info("Usando o Derby embarcado em " + System.getProperty("derby.system.home") + ".");
+        }
+        return propriedades;
+    }
+
+    /**
+     * Define as propriedades do motor Derby embarcado (diretório dos bancos, cache de
+     * páginas e log). Cada uma pode ser informada com -D na linha de comando; os
+     * valores abaixo só são usados quando a propriedade não foi definida.
+     */
+    private static void configurarDerbyEmbarcado() {
+        definirSeAusente("derby.system.home", "dados");
+        // Quantidade de páginas mantidas em memória (padrão do Derby: 1000)
+        definirSeAusente("derby.storage.pageCacheSize", "4000");
+        definirSeAusente("derby.stream.error.file", "derby.log");
+        definirSeAusente("derby.infolog.append", "true");
+        definirSeAusente("derby.language.logStatementText", "false");
+    }
+
+    private static void definirSeAusente(String propriedade, String valorPadrao) {
+        if (System.getProperty(propriedade) == null) {
+            System.setProperty(propriedade, valorPadrao);
+        }
+    }
+
+    /**
+     * Inicia, em segundo plano, a criação da EntityManagerFactory e uma primeira
+     * consulta simples para abrir a conexão e preparar o metamodelo.
+     * Deve ser chamado logo no início da aplicação. Chamadas repetidas retornam
+     * o mesmo aquecimento.
+     *
+     * @return um CompletableFuture concluído quando a fábrica estiver pronta.
+     */
+    public static synchronized CompletableFuture<EntityManagerFactory> iniciarAquecimento() {
+        if (aquecimento == null) {
+            aquecimento = CompletableFuture.supplyAsync(JPAUtil::aquecer, tarefa -> {
+                Thread thread = new Thread(tarefa, "jpa-aquecimento");
+                thread.setDaemon(true);
+                thread.start();
+            });
+        }
+        return aquecimento;
+    }
+
+    /**
+     * Cria a fábrica e executa uma consulta trivial, registrando o tempo total gasto.
+     *
+     * @return a EntityManagerFactory já inicializada.
+     */
+    private static EntityManagerFactory aquecer() {
+        long inicio = System.nanoTime();
+        EntityManagerFactory f = getFactory();
+        EntityManager em = f.createEntityManager();
+        try {
+            em.createQuery("SELECT COUNT(m) FROM Medico m", Long.class).getSingleResult();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Falha na consulta de aquecimento do banco.", e);
+        } finally {
+            if (em.isOpen()) {
+                em.close();
+            }
+        }
+        tempoAquecimentoMs = (System.nanoTime() - inicio) / 1_000_000;
+        logger.info("Aquecimento do JPA concluído em " + tempoAquecimentoMs + " ms. " + getMetricasPool());
+        return f;
+    }
+
+    /**
+     * Indica se a EntityManagerFactory já foi criada.
+     *
+     * @return {@code true} se a fábrica já está disponível.
+     */
+    public static boolean isInicializado() {
+        return factory != null;
+    }
+
+    /**
+     * Retorna o tempo gasto para criar a EntityManagerFactory.
+     *
+     * @return o tempo em milissegundos, ou -1 se ainda não foi criada.
+     */
+    public static long getTempoInicializacaoMs() {
+        return tempoInicializacaoMs;
+    }
+
+    /**
+     * Retorna o tempo total do aquecimento (criação da fábrica e primeira consulta).
+     *
+     * @return o tempo em milissegundos, ou -1 se o aquecimento não terminou.
+     */
+    public static long getTempoAquecimentoMs() {
+        return tempoAquecimentoMs;
+    }
+
+    /**
+     * Retorna um resumo do estado atual do pool de conexões, lido do MBean
+     * publicado pelo HikariCP (propriedade {@code hibernate.hikari.registerMbeans}).
+     *
+     * @return uma String com as conexões ativas, ociosas, totais e as threads aguardando.
+     */
+    public static String getMetricasPool() {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName pool = new ObjectName(NOME_MBEAN_POOL);
+            if (!servidor.isRegistered(pool)) {
+                return "Pool de conexões não disponível.";
+            }
+            return "Pool de conexões: ativas=" + servidor.getAttribute(pool, "ActiveConnections")
+                    + ", ociosas=" + servidor.getAttribute(pool, "IdleConnections")
+                    + ", total=" + servidor.getAttribute(pool, "TotalConnections")
+                    + ", aguardando=" + servidor.getAttribute(pool, "ThreadsAwaitingConnection");
+        } catch (Exception e) {
+            return "Não foi possível ler as métricas do pool: " + e.getMessage();
         }
-        return factory.createEntityManager();
     }
 
     /**
      * Fecha a EntityManagerFactory para liberar os recursos.
      * Deve ser chamado ao final da aplicação.
      */
-    public static void close() {
+    public static synchronized void close() {
         if (factory != null && factory.isOpen()) {
             factory.close();
         }
+        factory = null;
+        aquecimento = null;
+
+        if (isModoEmbarcado()) {
+            desligarDerbyEmbarcado();
+        }
+    }
+
+    /**
+     * Desliga o motor Derby embarcado, gravando o cache de páginas em disco.
+     * O Derby sinaliza o desligamento bem-sucedido com a SQLException de estado XJ015.
+     */
+    private static void desligarDerbyEmbarcado() {
+        try {
+            DriverManager.getConnection("jdbc:derby:;shutdown=true");
+        } catch (SQLException e) {
+            if (!"XJ015".equals(e.getSQLState())) {
+                logger.log(Level.WARNING, "Falha ao desligar o Derby embarcado.", e);
+            }
+        }
     }
 }
@@ -0,0 +1,66 @@
+package utilitario;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita a quantidade de operações por segundo usando um balde de fichas (token bucket).
+ * <p>
+ * O balde é reabastecido continuamente na taxa configurada, até a sua capacidade; cada
+ * operação retira fichas e, se não houver fichas suficientes, espera o tempo necessário
+ * para que elas sejam repostas. A capacidade define a rajada máxima permitida depois de
+ * um período ocioso. A classe é segura para uso por várias threads.
+ * </p>
+ */
+public class LimitadorTaxa {
+
+    private final double fichasPorNano;
+    private final double capacidade;
+    private double disponiveis;
+    private long ultimaReposicao;
+
+    /**
+     * Cria um limitador com o balde cheio.
+     *
+     * @param fichasPorSegundo A taxa de reposição (operações por segundo).
+     * @param capacidade       A quantidade máxima de fichas acumuladas.
+     * @throws IllegalArgumentException Se a taxa ou a capacidade não forem positivas.
+     */
+    public LimitadorTaxa(int fichasPorSegundo, int capacidade) {
+        if (fichasPorSegundo <= 0 || capacidade <= 0) {
+            throw new IllegalArgumentException("A taxa e a capacidade devem ser positivas.");
+        }
+        this.fichasPorNano = fichasPorSegundo / 1_000_000_000.0;
+        this.capacidade = capacidade;
+        this.disponiveis = capacidade;
+        this.ultimaReposicao = System.nanoTime();
+    }
+
+    /**
+     * Retira fichas do balde, esperando o tempo necessário se não houver fichas suficientes.
+     * Pedidos maiores que a capacidade esperam apenas pela capacidade do balde.
+     *
+     * @param fichas A quantidade de fichas (operações) desejada.
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public void adquirir(int fichas) throws InterruptedException {
+        while (true) {
+            long esperaNanos;
+            synchronized (this) {
+                repor();
+                double pedido = Math.min(fichas, capacidade);
+                if (disponiveis >= pedido) {
+                    disponiveis -= pedido;
+                    return;
+                }
+                esperaNanos = (long) Math.ceil((pedido - disponiveis) / fichasPorNano);
+            }
+            TimeUnit.NANOSECONDS.sleep(esperaNanos);
+        }
+    }
+
+    private void repor() {
+        long agora = System.nanoTime();
+        disponiveis = Math.min(capacidade, disponiveis + (agora - ultimaReposicao) * fichasPorNano);
+        ultimaReposicao = agora;
+    }
+}
@@ -0,0 +1,124 @@
+package utilitario;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Modelo de texto com variáveis no formato {@code ${nome}}, compilado uma única vez.
+ * <p>
+ * A compilação separa o texto em trechos fixos e posições de variáveis; renderizar é então
+ * apenas acrescentar, em ordem, os trechos e os valores a um buffer, sem nova análise do
+ * texto nem expressões de formatação. Os valores são passados na ordem das variáveis
+ * declaradas em {@link #compilar(String, String...)}; o modelo pode usá-las em qualquer
+ * ordem, repetidas ou não. {@code $$} produz um {@code $} literal.
+ * </p>
+ * <p>
+ * Instâncias são imutáveis e podem ser usadas por várias threads; cada thread renderiza
+ * em um buffer próprio, reaproveitado entre as chamadas.
+ * </p>
+ */
+public final class ModeloTexto {
+
+    /**
+     * Capacidade acima da qual o buffer de uma thread é descartado depois do uso, para que
+     * um texto excepcionalmente grande não fique retido na memória.
+     */
+    private static final int CAPACIDADE_MAXIMA_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String[] trechos;
+    private final int[] variaveis;
+    private final int quantidadeVariaveis;
+
+    private ModeloTexto(String[] trechos, int[] variaveis, int quantidadeVariaveis) {
+        this.trechos = trechos;
+        this.variaveis = variaveis;
+        this.quantidadeVariaveis = quantidadeVariaveis;
+    }
+
+    /**
+     * Compila um modelo.
+     *
+     * @param texto     O texto do modelo.
+     * @param variaveis Os nomes das variáveis aceitas, na ordem em que os valores serão passados.
+     * @return O modelo compilado.
+     * @throws IllegalArgumentException Se o texto usar uma variável não declarada ou não fechar uma variável.
+     */
+    public static ModeloTexto compilar(String texto, String... variaveis) {
+        List<String> nomes = Arrays.asList(variaveis);
+        List<String> trechos = new ArrayList<>();
+        List<Integer> posicoes = new ArrayList<>();
+        StringBuilder trecho = new StringBuilder();
+        int i = 0;
+        while (i < texto.length()) {
+            char c = texto.charAt(i);
+            if (c == '$' && i + 1 < texto.length() && texto.charAt(i + 1) == '$') {
+                trecho.append('$');
+                i += 2;
+            } else if (c == '$' && i + 1 < texto.length() && texto.charAt(i + 1) == '{') {
+                int fim = texto.indexOf('}', i + 2);
+                if (fim < 0) {
+                    throw new IllegalArgumentException("Variável sem '}' na posição " + i + " do modelo.");
+                }
+                String nome = texto.substring(i + 2, fim).trim();
+                int posicao = nomes.indexOf(nome);
+                if (posicao < 0) {
+                    throw new IllegalArgumentException("Variável desconhecida no modelo: " + nome + ". Aceitas: " + nomes);
+                }
+                trechos.add(trecho.toString());
+                trecho.setLength(0);
+                posicoes.add(posicao);
+                i = fim + 1;
+            } else {
+                trecho.append(c);
+                i++;
+            }
+        }
+        trechos.add(trecho.toString());
+        return new ModeloTexto(trechos.toArray(new String[0]),
+                posicoes.stream().mapToInt(Integer::intValue).toArray(), variaveis.length);
+    }
+
+    /**
+     * Renderiza o modelo em um buffer reaproveitado da thread atual.
+     *
+     * @param valores Os valores das variáveis, na ordem declarada na compilação.
+     * @return O texto renderizado.
+     * @throws IllegalArgumentException Se a quantidade de valores não for a de variáveis declaradas.
+     */
+    public String renderizar(Object... valores) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        acrescentar(buffer, valores);
+        String texto = buffer.toString();
+        if (buffer.capacity() > CAPACIDADE_MAXIMA_BUFFER) {
+            BUFFER.remove();
+        }
+        return texto;
+    }
+
+    /**
+     * Acrescenta o modelo renderizado ao final de um buffer do chamador.
+     *
+     * @param destino O buffer.
+     * @param valores Os valores das variáveis, na ordem declarada na compilação.
+     * @throws IllegalArgumentException Se a quantidade de valores não for a de variáveis declaradas.
+     */
+    public void acrescentar(StringBuilder destino, Object... valores) {
+        if (valores.length != quantidadeVariaveis) {
+            throw new IllegalArgumentException("O modelo espera " + quantidadeVariaveis + " valores, mas recebeu " + valores.length + ".");
+        }
+        for (int i = 0; i < variaveis.length; i++) {
+            destino.append(trechos[i]);
+            Object valor = valores[variaveis[i]];
+            if (valor instanceof CharSequence) {
+                destino.append((CharSequence) valor);
+            } else {
+                destino.append(valor);
+            }
+        }
+        destino.append(trechos[variaveis.length]);
+    }
+}
@@ -0,0 +1,36 @@
+package utilitario;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Classe utilitária para normalizar textos usados em buscas.
+ * Remove acentos, converte para maiúsculas e reduz espaços repetidos, de modo
+ * que "joão  silva" e "JOAO SILVA" resultem no mesmo valor.
+ */
+public final class NormalizadorTexto {
+
+    private static final Pattern MARCAS_ACENTO = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    /**
+     * Construtor privado para impedir a instanciação.
+     */
+    private NormalizadorTexto() {
+    }
+
+    /**
+     * Normaliza um texto para comparação e busca.
+     *
+     * @param texto O texto original (pode ser {@code null}).
+     * @return O texto sem acentos, em maiúsculas e sem espaços extras, ou uma String vazia se for {@code null}.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = MARCAS_ACENTO.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.trim()).replaceAll(" ").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,64 @@
+package utilitario;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Representa uma página de resultados de uma listagem paginada por chave (keyset).
+ * Além dos itens, informa se existe uma próxima página; o último item da página
+ * serve de cursor para buscá-la.
+ *
+ * @param <T> O tipo dos itens da página.
+ */
+public class Pagina<T> {
+    private final List<T> itens;
+    private final boolean temProxima;
+
+    /**
+     * Cria uma nova página.
+     *
+     * @param itens      Os itens desta página.
+     * @param temProxima Se existem mais itens depois desta página.
+     */
+    public Pagina(List<T> itens, boolean temProxima) {
+        this.itens = itens;
+        this.temProxima = temProxima;
+    }
+
+    /**
+     * Monta uma página a partir de uma consulta que buscou um item a mais que o tamanho
+     * da página. Se o item extra veio, ele é descartado e a página indica que há próxima.
+     *
+     * @param itens         Os itens retornados pela consulta (até tamanhoPagina + 1).
+     * @param tamanhoPagina O tamanho da página solicitado.
+     * @param <T>           O tipo dos itens.
+     * @return A página montada.
+     */
+    public static <T> Pagina<T> de(List<T> itens, int tamanhoPagina) {
+        if (itens.size() > tamanhoPagina) {
+            return new Pagina<>(itens.subList(0, tamanhoPagina), true);
+        }
+        return new Pagina<>(itens, false);
+    }
+
+    public List<T> getItens() {
+        return Collections.unmodifiableList(itens);
+    }
+
+    public boolean isTemProxima() {
+        return temProxima;
+    }
+
+    public boolean isVazia() {
+        return itens.isEmpty();
+    }
+
+    /**
+     * Retorna o último item da página, que deve ser usado como cursor da próxima.
+     *
+     * @return O último item, ou {@code null} se a página estiver vazia.
+     */
+    public T getUltimo() {
+        return itens.isEmpty() ? null : itens.get(itens.size() - 1);
+    }
+}
@@ -0,0 +1,164 @@
+package utilitario;
+
+import java.util.List;
+
+/**
+ * Roda de temporização com hashing (hashed timing wheel), para agendar um grande número
+ * de eventos com custo constante.
+ * <p>
+ * O tempo é dividido em ticks de duração fixa, e a roda tem uma quantidade fixa de casas
+ * (uma potência de 2). Um evento que vence no tick {@code t} fica na casa {@code t mod casas},
+ * em uma lista duplamente ligada, com o número de voltas completas que ainda faltam.
+ * Agendar e cancelar são O(1), independentemente de quantos eventos estão na roda; avançar
+ * um tick percorre apenas a casa daquele tick.
+ * </p>
+ * <p>
+ * A roda não tem thread própria: quem a usa chama {@link #avancar(long, List)}
+ * periodicamente (por exemplo, a cada tick). Todos os métodos são sincronizados.
+ * </p>
+ *
+ * @param <T> O tipo do valor associado a cada evento.
+ */
+public class RodaTemporizacao<T> {
+
+    /**
+     * Um evento agendado na roda; serve também para cancelá-lo.
+     *
+     * @param <T> O tipo do valor do evento.
+     */
+    public static final class Agendamento<T> {
+        private final T valor;
+        private final long instanteMs;
+        private long voltas;
+        private int casa;
+        private Agendamento<T> anterior;
+        private Agendamento<T> proximo;
+        private boolean ativo;
+
+        private Agendamento(T valor, long instanteMs) {
+            this.valor = valor;
+            this.instanteMs = instanteMs;
+        }
+
+        public T getValor() {
+            return valor;
+        }
+
+        /**
+         * @return O instante, em milissegundos desde a época, em que o evento deve ocorrer.
+         */
+        public long getInstanteMs() {
+            return instanteMs;
+        }
+    }
+
+    private final long duracaoTickMs;
+    private final long inicioMs;
+    private final int mascara;
+    private final Agendamento<T>[] casas;
+    private long proximoTick;
+    private int quantidade;
+
+    /**
+     * Cria uma roda vazia.
+     *
+     * @param duracaoTickMs   A duração de cada tick, em milissegundos (a precisão da roda).
+     * @param quantidadeCasas A quantidade de casas; deve ser uma potência de 2.
+     * @param inicioMs        O instante, em milissegundos desde a época, do tick 0.
+     * @throws IllegalArgumentException Se a duração não for positiva ou a quantidade de casas não for potência de 2.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RodaTemporizacao(long duracaoTickMs, int quantidadeCasas, long inicioMs) {
+        if (duracaoTickMs <= 0) {
+            throw new IllegalArgumentException("A duração do tick deve ser positiva.");
+        }
+        if (quantidadeCasas <= 0 || Integer.bitCount(quantidadeCasas) != 1) {
+            throw new IllegalArgumentException("A quantidade de casas deve ser uma potência de 2.");
+        }
+        this.duracaoTickMs = duracaoTickMs;
+        this.inicioMs = inicioMs;
+        this.mascara = quantidadeCasas - 1;
+        this.casas = (Agendamento<T>[]) new Agendamento[quantidadeCasas];
+    }
+
+    /**
+     * Agenda um evento. Um instante que já passou vence no próximo avanço da roda.
+     *
+     * @param valor      O valor entregue quando o evento vencer.
+     * @param instanteMs O instante, em milissegundos desde a época, em que o evento deve ocorrer.
+     * @return O agendamento, usado para cancelá-lo.
+     */
+    public synchronized Agendamento<T> agendar(T valor, long instanteMs) {
+        long tickAlvo = Math.max(proximoTick, Math.floorDiv(instanteMs - inicioMs + duracaoTickMs - 1, duracaoTickMs));
+        Agendamento<T> agendamento = new Agendamento<>(valor, instanteMs);
+        agendamento.voltas = (tickAlvo - proximoTick) / casas.length;
+        agendamento.casa = (int) (tickAlvo & mascara);
+        agendamento.proximo = casas[agendamento.casa];
+        if (agendamento.proximo != null) {
+            agendamento.proximo.anterior = agendamento;
+        }
+        casas[agendamento.casa] = agendamento;
+        agendamento.ativo = true;
+        quantidade++;
+        return agendamento;
+    }
+
+    /**
+     * Cancela um evento que ainda não venceu.
+     *
+     * @param agendamento O agendamento retornado por {@link #agendar(Object, long)}.
+     * @return {@code true} se o evento foi retirado da roda, {@code false} se já tinha vencido ou sido cancelado.
+     */
+    public synchronized boolean cancelar(Agendamento<T> agendamento) {
+        if (agendamento == null || !agendamento.ativo) {
+            return false;
+        }
+        desligar(agendamento);
+        return true;
+    }
+
+    /**
+     * Processa todos os ticks até o instante informado, retirando da roda os eventos vencidos.
+     *
+     * @param agoraMs  O instante atual, em milissegundos desde a época.
+     * @param vencidos A lista onde os valores dos eventos vencidos são acrescentados, em ordem de tick.
+     */
+    public synchronized void avancar(long agoraMs, List<T> vencidos) {
+        long ultimoTick = Math.floorDiv(agoraMs - inicioMs, duracaoTickMs);
+        for (; proximoTick <= ultimoTick; proximoTick++) {
+            Agendamento<T> agendamento = casas[(int) (proximoTick & mascara)];
+            while (agendamento != null) {
+                Agendamento<T> seguinte = agendamento.proximo;
+                if (agendamento.voltas == 0) {
+                    desligar(agendamento);
+                    vencidos.add(agendamento.valor);
+                } else {
+                    agendamento.voltas--;
+                }
+                agendamento = seguinte;
+            }
+        }
+    }
+
+    /**
+     * @return A quantidade de eventos agendados que ainda não venceram.
+     */
+    public synchronized int getQuantidade() {
+        return quantidade;
+    }
+
+    private void desligar(Agendamento<T> agendamento) {
+        if (agendamento.anterior != null) {
+            agendamento.anterior.proximo = agendamento.proximo;
+        } else {
+            casas[agendamento.casa] = agendamento.proximo;
+        }
+        if (agendamento.proximo != null) {
+            agendamento.proximo.anterior = agendamento.anterior;
+        }
+        agendamento.anterior = null;
+        agendamento.proximo = null;
+        agendamento.ativo = false;
+        quantidade--;
+    }
+}
@@ -0,0 +1,23 @@
+package utilitario;
+
+/**
+ * Define as situações de um lembrete na fila de saída (outbox).
+ */
+public enum StatusLembrete {
+    /**
+     * Aguardando envio (ou uma nova tentativa, após uma falha).
+     */
+    PENDENTE,
+    /**
+     * Reservado por um processamento da fila, que está enviando o lembrete.
+     */
+    ENVIANDO,
+    /**
+     * Entregue ao canal; não será enviado novamente.
+     */
+    ENVIADO,
+    /**
+     * Falhou em todas as tentativas; não será enviado novamente.
+     */
+    FALHA_DEFINITIVA
+}
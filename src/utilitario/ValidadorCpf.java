@@ -0,0 +1,79 @@
+package utilitario;
+
+/**
+ * Classe utilitária para validação de CPF.
+ * Confere a quantidade de dígitos e os dois dígitos verificadores.
+ */
+public class ValidadorCpf {
+
+    /**
+     * Construtor privado para impedir a instanciação.
+     */
+    private ValidadorCpf() {
+    }
+
+    /**
+     * Remove do CPF tudo o que não for dígito (pontos, traço e espaços).
+     *
+     * @param cpf O CPF, com ou sem máscara.
+     * @return Apenas os dígitos do CPF, ou uma String vazia se for {@code null}.
+     */
+    public static String somenteDigitos(String cpf) {
+        if (cpf == null) {
+            return "";
+        }
+        StringBuilder digitos = new StringBuilder(11);
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos.append(c);
+            }
+        }
+        return digitos.toString();
+    }
+
+    /**
+     * Verifica se o CPF informado é válido.
+     * Aceita o CPF com ou sem máscara (ex: "123.456.789-09" ou "12345678909").
+     *
+     * @param cpf O CPF a ser validado.
+     * @return {@code true} se o CPF tiver 11 dígitos e os verificadores estiverem corretos.
+     */
+    public static boolean isValido(String cpf) {
+        String digitos = somenteDigitos(cpf);
+        if (digitos.length() != 11) {
+            return false;
+        }
+
+        // Sequências repetidas (ex: 11111111111) passam no cálculo, mas não são CPFs válidos
+        boolean todosIguais = true;
+        for (int i = 1; i < 11; i++) {
+            if (digitos.charAt(i) != digitos.charAt(0)) {
+                todosIguais = false;
+                break;
+            }
+        }
+        if (todosIguais) {
+            return false;
+        }
+
+        return calcularDigito(digitos, 9) == digitos.charAt(9) - '0'
+                && calcularDigito(digitos, 10) == digitos.charAt(10) - '0';
+    }
+
+    /**
+     * Calcula um dígito verificador a partir dos dígitos anteriores a ele.
+     *
+     * @param digitos    Os 11 dígitos do CPF.
+     * @param quantidade Quantos dígitos entram no cálculo (9 para o primeiro verificador, 10 para o segundo).
+     * @return O dígito verificador esperado.
+     */
+    private static int calcularDigito(String digitos, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += (digitos.charAt(i) - '0') * (quantidade + 1 - i);
+        }
+        int resto = (soma * 10) % 11;
+        return resto == 10 ? 0 : resto;
+    }
+}
@@ -0,0 +1,189 @@
+package visual;
+
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+import java.awt.Cursor;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executa as chamadas aos serviços fora da Event Dispatch Thread (EDT).
+ * <p>
+ * Cada tela possui o seu executor. A tarefa roda em segundo plano (via {@link SwingWorker})
+ * e o seu resultado é entregue de volta na EDT, onde os componentes podem ser alterados
+ * com segurança. Enquanto houver tarefas em andamento, a tela exibe o cursor de espera
+ * e o título indica que está carregando.
+ * </p>
+ * <p>
+ * Uma tarefa pode receber uma chave: iniciar outra tarefa com a mesma chave cancela a
+ * anterior, cujo resultado é descartado (útil quando o usuário troca de paciente antes
+ * de a busca terminar). Ao fechar a tela, {@link #cancelarTodas()} descarta todas as
+ * tarefas pendentes. As operações de banco já iniciadas não são interrompidas, apenas
+ * têm o resultado ignorado, para não deixar transações pela metade.
+ * </p>
+ * <p>
+ * Todos os métodos devem ser chamados a partir da EDT.
+ * </p>
+ */
+public class ExecutorTarefas {
+
+    private static final Logger logger = Logger.getLogger(ExecutorTarefas.class.getName());
+    private static final String SUFIXO_CARREGANDO = " (carregando...)";
+
+    private final JFrame tela;
+    private final Set<SwingWorker<?, ?>> ativas = new HashSet<>();
+    private final Map<String, SwingWorker<?, ?>> porChave = new HashMap<>();
+    private String tituloOriginal;
+    private boolean encerrado = false;
+
+    /**
+     * Cria um executor para a tela informada.
+     *
+     * @param tela A tela que exibirá o indicador de carregamento e as mensagens de erro.
+     */
+    public ExecutorTarefas(JFrame tela) {
+        this.tela = tela;
+    }
+
+    /**
+     * Executa uma tarefa em segundo plano, exibindo uma mensagem de erro caso ela falhe.
+     *
+     * @param chave      Identifica a operação; uma tarefa anterior com a mesma chave é cancelada. Pode ser {@code null}.
+     * @param tarefa     O trabalho a ser feito fora da EDT (normalmente uma chamada a um serviço).
+     * @param aoConcluir Recebe o resultado na EDT.
+     * @param <T>        O tipo do resultado.
+     */
+    public <T> void executar(String chave, Callable<T> tarefa, Consumer<T> aoConcluir) {
+        executar(chave, tarefa, aoConcluir, this::mostrarErro);
+    }
+
+    /**
+     * Executa uma tarefa em segundo plano.
+     *
+     * @param chave      Identifica a operação; uma tarefa anterior com a mesma chave é cancelada. Pode ser {@code null}.
+     * @param tarefa     O trabalho a ser feito fora da EDT (normalmente uma chamada a um serviço).
+     * @param aoConcluir Recebe o resultado na EDT.
+     * @param aoFalhar   Recebe, na EDT, a exceção lançada pela tarefa.
+     * @param <T>        O tipo do resultado.
+     */
+    public <T> void executar(String chave, Callable<T> tarefa, Consumer<T> aoConcluir, Consumer<Throwable> aoFalhar) {
+        if (encerrado) {
+            return;
+        }
+        if (chave != null) {
+            cancelar(chave);
+        }
+
+        SwingWorker<T, Void> worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return tarefa.call();
+            }
+
+            @Override
+            protected void done() {
+                finalizar(this, chave);
+                if (isCancelled() || encerrado) {
+                    return;
+                }
+                try {
+                    aoConcluir.accept(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    logger.log(Level.WARNING, "Falha em tarefa de segundo plano.", e.getCause());
+                    aoFalhar.accept(e.getCause());
+                }
+            }
+        };
+
+        ativas.add(worker);
+        if (chave != null) {
+            porChave.put(chave, worker);
+        }
+        atualizarIndicador();
+        worker.execute();
+    }
+
+    /**
+     * Indica se há uma tarefa em andamento com a chave informada.
+     * Usado para ignorar cliques repetidos enquanto uma gravação não termina.
+     *
+     * @param chave A chave da operação.
+     * @return {@code true} se a tarefa ainda está executando.
+     */
+    public boolean isExecutando(String chave) {
+        return porChave.containsKey(chave);
+    }
+
+    /**
+     * Cancela a tarefa com a chave informada, se houver. O seu resultado será descartado.
+     *
+     * @param chave A chave da operação.
+     */
+    public void cancelar(String chave) {
+        SwingWorker<?, ?> anterior = porChave.remove(chave);
+        if (anterior != null) {
+            anterior.cancel(false);
+            ativas.remove(anterior);
+            atualizarIndicador();
+        }
+    }
+
+    /**
+     * Cancela todas as tarefas pendentes e impede que novas sejam iniciadas.
+     * Deve ser chamado quando a tela é fechada.
+     */
+    public void cancelarTodas() {
+        encerrado = true;
+        for (SwingWorker<?, ?> worker : ativas) {
+            worker.cancel(false);
+        }
+        ativas.clear();
+        porChave.clear();
+        atualizarIndicador();
+    }
+
+    /**
+     * Remove a tarefa concluída dos controles e atualiza o indicador.
+     */
+    private void finalizar(SwingWorker<?, ?> worker, String chave) {
+        ativas.remove(worker);
+        if (chave != null && porChave.get(chave) == worker) {
+            porChave.remove(chave);
+        }
+        atualizarIndicador();
+    }
+
+    /**
+     * Exibe o cursor de espera e a indicação no título enquanto houver tarefas em andamento.
+     */
+    private void atualizarIndicador() {
+        if (!ativas.isEmpty()) {
+            if (tituloOriginal == null) {
+                tituloOriginal = tela.getTitle();
+                tela.setTitle(tituloOriginal + SUFIXO_CARREGANDO);
+                tela.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            }
+        } else if (tituloOriginal != null) {
+            tela.setTitle(tituloOriginal);
+            tela.setCursor(Cursor.getDefaultCursor());
+            tituloOriginal = null;
+        }
+    }
+
+    /**
+     * Tratamento padrão de falhas: exibe a mensagem da exceção ao usuário.
+     */
+    private void mostrarErro(Throwable erro) {
+        JOptionPane.showMessageDialog(tela, "Erro: " + erro.getMessage());
+    }
+}
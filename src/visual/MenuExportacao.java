@@ -0,0 +1,66 @@
+package visual;
+
+import utilitario.FormatoExportacao;
+
+import javax.swing.JComponent;
+import javax.swing.JFileChooser;
+import javax.swing.JMenuItem;
+import javax.swing.JPopupMenu;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+/**
+ * Menu de contexto (botão direito) que exporta o relatório de uma área de texto para um
+ * arquivo CSV ou JSON.
+ * <p>
+ * O menu apenas pergunta onde salvar e repassa o arquivo e o formato à tela, que faz a
+ * exportação em segundo plano a partir do banco: o arquivo não depende do texto exibido,
+ * que pode estar resumido.
+ * </p>
+ */
+public class MenuExportacao {
+
+    private final JComponent componente;
+    private final String nomeSugerido;
+    private final BiConsumer<Path, FormatoExportacao> exportar;
+
+    /**
+     * Instala o menu no componente.
+     *
+     * @param componente   O componente que recebe o menu (normalmente a área de texto do relatório).
+     * @param nomeSugerido O nome do arquivo sugerido, sem extensão.
+     * @param exportar     Chamado na EDT com o arquivo escolhido e o formato.
+     */
+    public MenuExportacao(JComponent componente, String nomeSugerido, BiConsumer<Path, FormatoExportacao> exportar) {
+        this.componente = componente;
+        this.nomeSugerido = nomeSugerido;
+        this.exportar = exportar;
+
+        JPopupMenu menu = new JPopupMenu();
+        for (FormatoExportacao formato : FormatoExportacao.values()) {
+            JMenuItem item = new JMenuItem("Exportar relatório (" + formato + ")...");
+            item.addActionListener(e -> escolherArquivo(formato));
+            menu.add(item);
+        }
+        componente.setComponentPopupMenu(menu);
+    }
+
+    /**
+     * Pergunta onde salvar o arquivo, acrescentando a extensão do formato se o usuário não a digitar.
+     */
+    private void escolherArquivo(FormatoExportacao formato) {
+        JFileChooser seletor = new JFileChooser();
+        seletor.setFileFilter(new FileNameExtensionFilter(formato + " (*." + formato.getExtensao() + ")", formato.getExtensao()));
+        seletor.setSelectedFile(new File(nomeSugerido + "." + formato.getExtensao()));
+        if (seletor.showSaveDialog(componente) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File arquivo = seletor.getSelectedFile();
+        if (!arquivo.getName().toLowerCase().endsWith("." + formato.getExtensao())) {
+            arquivo = new File(arquivo.getParentFile(), arquivo.getName() + "." + formato.getExtensao());
+        }
+        exportar.accept(arquivo.toPath(), formato);
+    }
+}
@@ -0,0 +1,242 @@
+package visual;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Modelo de tabela que carrega as linhas sob demanda, em páginas.
+ * <p>
+ * Em vez de copiar todos os registros para a tabela, o modelo conhece apenas o total
+ * de linhas e busca no banco somente as páginas que a JTable precisa desenhar
+ * (as linhas visíveis). As páginas já carregadas ficam em um cache de tamanho fixo,
+ * que descarta as menos usadas, de modo que rolar ou atualizar a tabela custa o mesmo
+ * com 100 ou com 100 mil registros.
+ * </p>
+ * <p>
+ * Cada página em memória guarda o seu primeiro e o seu último item. Uma página vizinha
+ * de outra já carregada (o caso de quem rola a tabela) é buscada pela chave, a partir
+ * desses itens, e custa o mesmo em qualquer posição da tabela. Só um salto para uma
+ * região sem páginas em memória (arrastar a barra de rolagem, por exemplo) busca a
+ * página pela posição, cujo custo cresce com a quantidade de linhas anteriores.
+ * </p>
+ * <p>
+ * A contagem e as páginas são buscadas em segundo plano pelo {@link ExecutorTarefas}
+ * da tela. Enquanto uma página não chega, as suas células ficam vazias e são
+ * redesenhadas assim que os dados ficam disponíveis.
+ * </p>
+ *
+ * @param <T> O tipo dos itens exibidos em cada linha.
+ */
+public class ModeloTabelaPaginada<T> extends AbstractTableModel {
+
+    /**
+     * Fonte de dados paginada usada pelo modelo.
+     *
+     * @param <T> O tipo dos itens.
+     */
+    public interface ProvedorDados<T> {
+        /**
+         * @return A quantidade total de itens.
+         */
+        int contar();
+
+        /**
+         * Carrega uma faixa de itens, na mesma ordem usada pela tabela.
+         *
+         * @param inicio     A posição do primeiro item (começando em 0).
+         * @param quantidade A quantidade máxima de itens.
+         * @return Os itens da faixa.
+         */
+        List<T> carregar(int inicio, int quantidade);
+
+        /**
+         * Carrega os itens que vêm logo depois de um item, na ordem da tabela.
+         *
+         * @param ultimo     O último item da página anterior.
+         * @param quantidade A quantidade máxima de itens.
+         * @return Os itens seguintes.
+         */
+        List<T> carregarDepois(T ultimo, int quantidade);
+
+        /**
+         * Carrega os itens que vêm logo antes de um item, na ordem da tabela.
+         *
+         * @param primeiro   O primeiro item da página seguinte.
+         * @param quantidade A quantidade máxima de itens.
+         * @return Os itens anteriores, na ordem da tabela.
+         */
+        List<T> carregarAntes(T primeiro, int quantidade);
+    }
+
+    /**
+     * Uma página em memória: os valores das colunas e os itens das pontas, usados como
+     * chave para buscar as páginas vizinhas.
+     */
+    private static final class PaginaCarregada<T> {
+        private final Object[][] linhas;
+        private final T primeiro;
+        private final T ultimo;
+
+        PaginaCarregada(Object[][] linhas, T primeiro, T ultimo) {
+            this.linhas = linhas;
+            this.primeiro = primeiro;
+            this.ultimo = ultimo;
+        }
+    }
+
+    private final String[] colunas;
+    private final Class<?>[] tiposColunas;
+    private final ProvedorDados<T> provedor;
+    private final Function<T, Object[]> conversor;
+    private final int tamanhoPagina;
+    private final ExecutorTarefas tarefas;
+    private final Map<Integer, PaginaCarregada<T>> paginas;
+    private final Set<Integer> paginasCarregando = new HashSet<>();
+    private int totalLinhas;
+    /**
+     * Incrementada a cada recarga, para descartar páginas pedidas antes dela.
+     */
+    private int geracao;
+
+    /**
+     * Cria um novo modelo paginado.
+     *
+     * @param colunas        Os nomes das colunas.
+     * @param tiposColunas   As classes dos valores de cada coluna.
+     * @param provedor       A fonte dos dados.
+     * @param conversor      Converte um item nos valores das colunas da sua linha.
+     * @param tamanhoPagina  Quantidade de linhas buscadas por vez.
+     * @param maximoPaginas  Quantidade máxima de páginas mantidas em memória.
+     * @param tarefas        O executor da tela, usado para buscar os dados fora da EDT.
+     */
+    public ModeloTabelaPaginada(String[] colunas, Class<?>[] tiposColunas, ProvedorDados<T> provedor,
+                                Function<T, Object[]> conversor, int tamanhoPagina, int maximoPaginas,
+                                ExecutorTarefas tarefas) {
+        this.colunas = colunas;
+        this.tiposColunas = tiposColunas;
+        this.provedor = provedor;
+        this.conversor = conversor;
+        this.tamanhoPagina = tamanhoPagina;
+        this.tarefas = tarefas;
+        this.paginas = new LinkedHashMap<Integer, PaginaCarregada<T>>(maximoPaginas, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, PaginaCarregada<T>> maisAntiga) {
+                return size() > maximoPaginas;
+            }
+        };
+    }
+
+    /**
+     * Relê o total de linhas em segundo plano e, quando ele chega, descarta as páginas
+     * em memória. As linhas visíveis são buscadas novamente quando a tabela for redesenhada.
+     */
+    public void recarregar() {
+        int geracaoPedido = ++geracao;
+        tarefas.executar(null, provedor::contar, total -> {
+            if (geracaoPedido != geracao) {
+                return;
+            }
+            paginas.clear();
+            paginasCarregando.clear();
+            totalLinhas = total;
+            fireTableDataChanged();
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return totalLinhas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return colunas.length;
+    }
+
+    @Override
+    public String getColumnName(int coluna) {
+        return colunas[coluna];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int coluna) {
+        return tiposColunas[coluna];
+    }
+
+    @Override
+    public Object getValueAt(int linha, int coluna) {
+        int numero = linha / tamanhoPagina;
+        PaginaCarregada<T> pagina = paginas.get(numero);
+        if (pagina == null) {
+            carregarPagina(numero);
+            return null;
+        }
+        int posicao = linha % tamanhoPagina;
+        // A página pode vir menor se registros foram removidos desde a última contagem
+        return posicao < pagina.linhas.length ? pagina.linhas[posicao][coluna] : null;
+    }
+
+    /**
+     * Pede ao provedor, em segundo plano, uma página que ainda não está em memória: pela
+     * chave, se a página anterior ou a seguinte estiver em memória, ou pela posição.
+     * Quando ela chega, as linhas correspondentes são redesenhadas.
+     * Uma página que falhou só é pedida novamente após {@link #recarregar()}.
+     *
+     * @param numero O número da página (começando em 0).
+     */
+    private void carregarPagina(int numero) {
+        if (!paginasCarregando.add(numero)) {
+            return;
+        }
+        int geracaoPedido = geracao;
+        Callable<List<T>> busca = escolherBusca(numero);
+        tarefas.executar(null, () -> converter(busca.call()), pagina -> {
+            if (geracaoPedido != geracao) {
+                return;
+            }
+            paginasCarregando.remove(numero);
+            paginas.put(numero, pagina);
+
+            int primeira = numero * tamanhoPagina;
+            int ultima = Math.min(primeira + pagina.linhas.length, totalLinhas) - 1;
+            if (ultima >= primeira) {
+                fireTableRowsUpdated(primeira, ultima);
+            }
+        });
+    }
+
+    /**
+     * Monta a busca de uma página. Executado na EDT, que é a única a acessar o cache.
+     */
+    private Callable<List<T>> escolherBusca(int numero) {
+        PaginaCarregada<T> anterior = numero > 0 ? paginas.get(numero - 1) : null;
+        if (anterior != null && anterior.ultimo != null && anterior.linhas.length == tamanhoPagina) {
+            return () -> provedor.carregarDepois(anterior.ultimo, tamanhoPagina);
+        }
+        PaginaCarregada<T> seguinte = paginas.get(numero + 1);
+        if (seguinte != null && seguinte.primeiro != null) {
+            return () -> provedor.carregarAntes(seguinte.primeiro, tamanhoPagina);
+        }
+        return () -> provedor.carregar(numero * tamanhoPagina, tamanhoPagina);
+    }
+
+    /**
+     * Converte os itens de uma página nos valores das colunas. Executado fora da EDT.
+     */
+    private PaginaCarregada<T> converter(List<T> itens) {
+        Object[][] linhas = new Object[itens.size()][];
+        for (int i = 0; i < itens.size(); i++) {
+            linhas[i] = conversor.apply(itens.get(i));
+        }
+        if (itens.isEmpty()) {
+            return new PaginaCarregada<>(linhas, null, null);
+        }
+        return new PaginaCarregada<>(linhas, itens.get(0), itens.get(itens.size() - 1));
+    }
+}
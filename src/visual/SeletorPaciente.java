@@ -0,0 +1,150 @@
+package visual;
+
+import main.Main;
+import modelo.PacienteResumo;
+
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JComboBox;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import java.util.List;
+
+/**
+ * Transforma um ComboBox em um seletor de pacientes com busca enquanto se digita.
+ * <p>
+ * Em vez de carregar todos os pacientes no ComboBox, o seletor espera o usuário
+ * parar de digitar por alguns instantes e busca no banco, em segundo plano, apenas
+ * os primeiros pacientes cujo nome ou CPF começa com o texto digitado
+ * ({@link servico.PacienteServico#buscarPacientesPorPrefixo(String, int)}).
+ * Os itens do ComboBox passam a ser {@link PacienteResumo}.
+ * </p>
+ */
+public class SeletorPaciente {
+
+    /**
+     * Quantidade máxima de pacientes sugeridos.
+     */
+    private static final int LIMITE_SUGESTOES = 20;
+    /**
+     * Tempo sem digitação, em milissegundos, antes de a busca ser feita.
+     */
+    private static final int ATRASO_BUSCA_MS = 250;
+    private static final String CHAVE_BUSCA = "buscaPaciente";
+
+    private final JComboBox<Object> combo;
+    private final ExecutorTarefas tarefas;
+    private final JTextComponent editor;
+    private final Timer temporizador;
+    private boolean atualizandoModelo = false;
+
+    /**
+     * Instala o seletor no ComboBox informado e já carrega as primeiras sugestões.
+     *
+     * @param combo   O ComboBox de pacientes da tela.
+     * @param tarefas O executor de tarefas da tela, usado para buscar fora da EDT.
+     */
+    public SeletorPaciente(JComboBox<Object> combo, ExecutorTarefas tarefas) {
+        this.combo = combo;
+        this.tarefas = tarefas;
+
+        combo.setEditable(true);
+        combo.setModel(new DefaultComboBoxModel<>());
+        this.editor = (JTextComponent) combo.getEditor().getEditorComponent();
+
+        this.temporizador = new Timer(ATRASO_BUSCA_MS, e -> buscar());
+        this.temporizador.setRepeats(false);
+
+        editor.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                textoAlterado();
+            }
+
+            public void removeUpdate(DocumentEvent e) {
+                textoAlterado();
+            }
+
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+
+        buscar();
+    }
+
+    /**
+     * Retorna o paciente escolhido na lista de sugestões.
+     *
+     * @return O resumo do paciente selecionado, ou {@code null} se o usuário apenas digitou um texto.
+     */
+    public PacienteResumo getPacienteSelecionado() {
+        Object item = combo.getSelectedItem();
+        return item instanceof PacienteResumo ? (PacienteResumo) item : null;
+    }
+
+    /**
+     * Refaz a busca com o texto atual, por exemplo após cadastrar ou remover um paciente.
+     * O índice de busca é montado de novo a partir do banco, para incluir as alterações
+     * feitas por outras estações.
+     */
+    public void recarregar() {
+        buscar(true);
+    }
+
+    /**
+     * Reinicia a espera pela pausa na digitação. Alterações feitas pelo próprio seletor,
+     * ou que apenas mostram o paciente recém-escolhido, não disparam nova busca.
+     */
+    private void textoAlterado() {
+        if (atualizandoModelo) {
+            return;
+        }
+        PacienteResumo selecionado = getPacienteSelecionado();
+        if (selecionado != null && selecionado.toString().equals(editor.getText())) {
+            return;
+        }
+        temporizador.restart();
+    }
+
+    /**
+     * Busca em segundo plano as sugestões para o texto atual. Uma busca ainda em
+     * andamento é descartada quando outra começa.
+     */
+    private void buscar() {
+        buscar(false);
+    }
+
+    private void buscar(boolean recarregarIndice) {
+        String termo = editor.getText();
+        tarefas.executar(CHAVE_BUSCA, () -> {
+            if (recarregarIndice) {
+                Main.pacienteServico.recarregarIndiceBusca();
+            }
+            return Main.pacienteServico.buscarPacientesPorPrefixo(termo, LIMITE_SUGESTOES);
+        }, this::exibirSugestoes);
+    }
+
+    /**
+     * Troca a lista do ComboBox pelas sugestões encontradas, mantendo o texto que está
+     * no editor (o usuário pode ter continuado a digitar durante a busca).
+     * O modelo já é criado com esse texto selecionado, para que a troca não dispare
+     * eventos de seleção nas telas.
+     */
+    private void exibirSugestoes(List<PacienteResumo> sugestoes) {
+        atualizandoModelo = true;
+        try {
+            String texto = editor.getText();
+            DefaultComboBoxModel<Object> modelo = new DefaultComboBoxModel<>(sugestoes.toArray());
+            modelo.setSelectedItem(texto);
+            combo.setModel(modelo);
+            if (!editor.getText().equals(texto)) {
+                editor.setText(texto);
+            }
+        } finally {
+            atualizandoModelo = false;
+        }
+        if (editor.isFocusOwner() && !sugestoes.isEmpty()) {
+            combo.showPopup();
+        }
+    }
+}
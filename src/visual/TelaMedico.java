@@ -4,7 +4,6 @@ import main.Main;
 import modelo.*;
 import javax.swing.JOptionPane;
 import javax.swing.DefaultComboBoxModel;
-import java.util.List;
 
 /**
  * Interface gráfica responsável pelas operações do Médico.
@@ -18,13 +17,24 @@ public class TelaMedico extends javax.swing.JFrame {
     
     private static final java.util.logging.Logger logger = java.util.logging.Logger.getLogger(TelaMedico.class.getName());
     private int idProntuarioSelecionado = 0;
+    private static final int TAMANHO_PAGINA_PRONTUARIOS = 50;
+    private Integer idPacienteProntuarios = null;
+    private Integer ultimoIdProntuarioCarregado = null;
+    private boolean historicoCompleto = true;
+    private final ExecutorTarefas tarefas = new ExecutorTarefas(this);
+    private SeletorPaciente seletorPaciente;
     /**
      * Creates new form TelaMedico
      */
     public TelaMedico() {
-        Main.inicializarDados();
         initComponents();
-        preencherComboBoxes();
+        seletorPaciente = new SeletorPaciente(cbPaciente, tarefas);
+        configurarExportacao();
+        tarefas.executar("inicializar", () -> {
+            Main.iniciarAplicacao();
+            Main.inicializarDados();
+            return null;
+        }, r -> preencherComboBoxes());
         
         cbPaciente.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -36,25 +46,39 @@ public class TelaMedico extends javax.swing.JFrame {
             public void mouseClicked(java.awt.event.MouseEvent evt) {
                 int linha = tabelaProntuario.getSelectedRow();
 
-                if (linha != -1 && cbPaciente.getSelectedItem() instanceof Paciente) {
+                if (linha != -1 && seletorPaciente.getPacienteSelecionado() != null) {
 
                     int idProntuario = (int) tabelaProntuario.getValueAt(linha, 0);
 
-                    Paciente p = (Paciente) cbPaciente.getSelectedItem();
-
-                    if (p.getHistoricoProntuarios() != null) {
-                        for (Prontuario pront : p.getHistoricoProntuarios()) {
-                            if (pront.getId() == idProntuario) {
-                                txtSintomas.setText(pront.getSintomas());
-                                txtDiagnostico.setText(pront.getDiagnostico());
-                                txtPrescricao.setText(pront.getPrescricao());
-                                break;
-                            }
+                    tarefas.executar("carregarProntuario", () -> Main.medicoServico.buscarProntuarioPorId(idProntuario), pront -> {
+                        if (pront != null) {
+                            txtSintomas.setText(pront.getSintomas());
+                            txtDiagnostico.setText(pront.getDiagnostico());
+                            txtPrescricao.setText(pront.getPrescricao());
                         }
-                    }
+                    });
                 }
             }
         });
+        
+        // Carrega a próxima página do histórico quando a rolagem chega ao fim da tabela
+        jScrollPane2.getVerticalScrollBar().addAdjustmentListener(new java.awt.event.AdjustmentListener() {
+            public void adjustmentValueChanged(java.awt.event.AdjustmentEvent evt) {
+                javax.swing.JScrollBar barra = jScrollPane2.getVerticalScrollBar();
+                if (!evt.getValueIsAdjusting() && barra.getValue() + barra.getVisibleAmount() >= barra.getMaximum()) {
+                    carregarProximaPaginaProntuarios();
+                }
+            }
+        });
+    }
+
+    /**
+     * Descarta as tarefas de segundo plano pendentes antes de fechar a tela.
+     */
+    @Override
+    public void dispose() {
+        tarefas.cancelarTodas();
+        super.dispose();
     }
     
     /**
@@ -63,15 +87,24 @@ public class TelaMedico extends javax.swing.JFrame {
      * Busca o paciente atualizado no banco de dados, preenche os campos da aba de 
      * "Dados Adicionais" (hábitos, doenças, cirurgias), atualiza a tabela de histórico 
      * de prontuários e gera o resumo de saúde no display.
+     * A busca é feita em segundo plano; se outro paciente for selecionado antes de ela
+     * terminar, o resultado anterior é descartado.
      * </p>
      */
     private void carregarDadosDoPaciente() {
-        if (cbPaciente.getSelectedIndex() <= 0) return;
-    
-        Paciente pSelecionado = (Paciente) cbPaciente.getSelectedItem();
+        PacienteResumo pSelecionado = seletorPaciente.getPacienteSelecionado();
+        if (pSelecionado == null) return;
 
-        Paciente pAtualizado = Main.pacienteServico.buscarPacientePorId(pSelecionado.getId());
+        tarefas.executar("dadosPaciente", () -> Main.pacienteServico.buscarPacientePorId(pSelecionado.getId()), this::exibirDadosDoPaciente);
+    }
 
+    /**
+     * Preenche a aba de Dados Adicionais, a tabela de prontuários e o display de saúde
+     * com os dados do paciente recém-carregado.
+     *
+     * @param pAtualizado O paciente lido do banco de dados.
+     */
+    private void exibirDadosDoPaciente(Paciente pAtualizado) {
         DadosAdicionais d = pAtualizado.getDadosAdicionais(); 
 
         if (d != null) {
@@ -120,8 +153,9 @@ public class TelaMedico extends javax.swing.JFrame {
     /**
      * Atualiza a tabela de prontuários com o histórico do paciente.
      * <p>
-     * Limpa a tabela atual e preenche com os prontuários associados ao paciente,
-     * exibindo ID, data, nome do médico e diagnóstico.
+     * Limpa a tabela atual e carrega apenas a primeira página do histórico,
+     * exibindo ID, data, nome do médico e diagnóstico. As páginas seguintes
+     * são carregadas conforme a tabela é rolada até o fim.
      * </p>
      *
      * @param p O objeto Paciente cujos prontuários serão listados.
@@ -131,16 +165,36 @@ public class TelaMedico extends javax.swing.JFrame {
         modelo.setNumRows(0);
         modelo.setColumnIdentifiers(new Object[]{"ID", "Data", "Médico", "Diagnóstico"});
 
-        if (p.getHistoricoProntuarios() != null) {
-            for (Prontuario pront : p.getHistoricoProntuarios()) {
+        tarefas.cancelar("prontuarios");
+        idPacienteProntuarios = p.getId();
+        ultimoIdProntuarioCarregado = null;
+        historicoCompleto = false;
+        carregarProximaPaginaProntuarios();
+    }
+
+    /**
+     * Adiciona à tabela a próxima página do histórico de prontuários do paciente atual.
+     * Não faz nada se nenhum paciente estiver carregado, se o histórico já terminou
+     * ou se uma página ainda está sendo buscada em segundo plano.
+     */
+    private void carregarProximaPaginaProntuarios() {
+        if (idPacienteProntuarios == null || historicoCompleto || tarefas.isExecutando("prontuarios")) return;
+
+        int idPaciente = idPacienteProntuarios;
+        Integer ultimoId = ultimoIdProntuarioCarregado;
+        tarefas.executar("prontuarios", () -> Main.medicoServico.listarProntuarios(idPaciente, ultimoId, TAMANHO_PAGINA_PRONTUARIOS), pagina -> {
+            javax.swing.table.DefaultTableModel modelo = (javax.swing.table.DefaultTableModel) tabelaProntuario.getModel();
+            for (Prontuario pront : pagina) {
                 modelo.addRow(new Object[]{
                     pront.getId(),
                     pront.getData(),
                     pront.getMedico().getNome(),
                     pront.getDiagnostico()
                 });
+                ultimoIdProntuarioCarregado = pront.getId();
             }
-        }
+            historicoCompleto = pagina.size() < TAMANHO_PAGINA_PRONTUARIOS;
+        });
     }
     
     /**
@@ -161,7 +215,7 @@ public class TelaMedico extends javax.swing.JFrame {
      * * @return true se ambos estiverem selecionados, false caso contrário.
      */
     private boolean validarSelecao() {
-        if (cbMedico.getSelectedIndex() <= 0 || cbPaciente.getSelectedIndex() <= 0) {
+        if (!(cbMedico.getSelectedItem() instanceof Medico) || seletorPaciente.getPacienteSelecionado() == null) {
             JOptionPane.showMessageDialog(this, "Erro: Selecione Médico e Paciente no topo da tela!");
             return false;
         }
@@ -169,32 +223,48 @@ public class TelaMedico extends javax.swing.JFrame {
     }    
     
     /**
-     * Preenche os ComboBoxes de Médicos e Pacientes com dados do banco de dados.
+     * Adiciona à área de texto o menu (botão direito) que exporta para CSV ou JSON os
+     * pacientes atendidos pelo médico selecionado no mês e ano informados.
+     */
+    private void configurarExportacao() {
+        new MenuExportacao(jTextArea1, "pacientes-atendidos", (arquivo, formato) -> {
+            if (cbMedico.getSelectedIndex() <= 0) {
+                JOptionPane.showMessageDialog(this, "Selecione um médico no topo da tela!");
+                return;
+            }
+            Medico medico = (Medico) cbMedico.getSelectedItem();
+            int mes;
+            int ano;
+            try {
+                mes = Integer.parseInt(txtMes.getText());
+                ano = Integer.parseInt(txtAno.getText());
+            } catch (NumberFormatException e) {
+                JOptionPane.showMessageDialog(this, "Por favor, digite apenas números para Mês e Ano.");
+                return;
+            }
+            tarefas.executar("exportar",
+                    () -> Main.exportacaoRelatorioServico.exportarAtendidosMes(medico.getId(), mes, ano, arquivo, formato),
+                    resultado -> JOptionPane.showMessageDialog(this, "Exportação concluída.\n" + resultado),
+                    e -> JOptionPane.showMessageDialog(this, "Erro ao exportar: " + e.getMessage()));
+        });
+    }
+
+    /**
+     * Preenche o ComboBox de Médicos com dados do banco de dados e atualiza as sugestões
+     * do seletor de pacientes, que busca apenas os pacientes correspondentes ao texto digitado.
      * Utiliza os serviços MedicoServico e PacienteServico.
      */
     private void preencherComboBoxes() {
-        try {
+        seletorPaciente.recarregar();
+
+        tarefas.executar("comboMedicos", Main.medicoServico::listarTodos, listaMedicos -> {
             DefaultComboBoxModel modelM = (DefaultComboBoxModel) cbMedico.getModel();
             modelM.removeAllElements();
             modelM.addElement("Selecione...");
-            
-            List<Medico> listaMedicos = Main.medicoServico.listarTodos(); 
             for (Medico m : listaMedicos) {
                 modelM.addElement(m);
             }
-
-            DefaultComboBoxModel modelP = (DefaultComboBoxModel) cbPaciente.getModel();
-            modelP.removeAllElements();
-            modelP.addElement("Selecione...");
-            
-            List<Paciente> listaPacientes = Main.pacienteServico.getListaPacientes(); 
-            for (Paciente p : listaPacientes) {
-                modelP.addElement(p);
-            }
-            
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Erro ao buscar dados do banco: " + e.getMessage());
-        }
+        }, e -> JOptionPane.showMessageDialog(this, "Erro ao buscar dados do banco: " + e.getMessage()));
     }
 
     /**
@@ -487,31 +557,32 @@ public class TelaMedico extends javax.swing.JFrame {
      * * @param evt O evento de ação gerado pelo clique no botão Salvar.
      */
     private void btnSalvarProntuarioActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnSalvarProntuarioActionPerformed
-        if (cbMedico.getSelectedIndex() <= 0 || cbPaciente.getSelectedIndex() <= 0) {
+        if (!(cbMedico.getSelectedItem() instanceof Medico) || seletorPaciente.getPacienteSelecionado() == null) {
         JOptionPane.showMessageDialog(this, "Erro: Selecione Médico e Paciente no topo da tela!");
         return;
         }
 
         try {
             Medico m = (Medico) cbMedico.getSelectedItem();
-            Paciente p = (Paciente) cbPaciente.getSelectedItem();
+            PacienteResumo p = seletorPaciente.getPacienteSelecionado();
 
             String sintomas = txtSintomas.getText();
             String diagnostico = txtDiagnostico.getText();
             String prescricao = txtPrescricao.getText();
 
-            boolean sucesso = Main.medicoServico.cadastrarProntuario(p.getId(), m, sintomas, diagnostico, prescricao);
-
-            if (sucesso) {
-                JOptionPane.showMessageDialog(this, "Prontuário salvo com sucesso!");
+            if (tarefas.isExecutando("salvarProntuario")) return;
+            tarefas.executar("salvarProntuario", () -> Main.medicoServico.cadastrarProntuario(p.getId(), m, sintomas, diagnostico, prescricao), sucesso -> {
+                if (sucesso) {
+                    JOptionPane.showMessageDialog(this, "Prontuário salvo com sucesso!");
 
-                txtSintomas.setText("");
-                txtDiagnostico.setText("");
-                txtPrescricao.setText("");
-                carregarDadosDoPaciente();
-            } else {
-                JOptionPane.showMessageDialog(this, "Erro ao salvar prontuário. Tente novamente.");
-            }
+                    txtSintomas.setText("");
+                    txtDiagnostico.setText("");
+                    txtPrescricao.setText("");
+                    carregarDadosDoPaciente();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Erro ao salvar prontuário. Tente novamente.");
+                }
+            }, e -> JOptionPane.showMessageDialog(this, "Erro técnico: " + e.getMessage()));
 
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Erro técnico: " + e.getMessage());
@@ -528,13 +599,13 @@ public class TelaMedico extends javax.swing.JFrame {
      * * @param evt O evento de ação gerado pelo clique no botão Salvar.
      */
     private void btnSalvarDadosAdicionaisActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnSalvarDadosAdicionaisActionPerformed
-        if (cbPaciente.getSelectedIndex() <= 0) {
+        if (seletorPaciente.getPacienteSelecionado() == null) {
             JOptionPane.showMessageDialog(this, "Selecione um Paciente no topo da tela!");
             return;
         }
 
         try {
-            Paciente p = (Paciente) cbPaciente.getSelectedItem();
+            PacienteResumo p = seletorPaciente.getPacienteSelecionado();
 
             // Pega os dados da tela
             boolean fuma = cbFuma.isSelected();
@@ -546,22 +617,23 @@ public class TelaMedico extends javax.swing.JFrame {
             String cirurgias = txtCirurgias.getText();
             String alergias = txtAlergias.getText();
 
-            // Salva no banco
-            boolean sucesso = Main.medicoServico.atualizarDadosAdicionais(
+            // Salva no banco, em segundo plano
+            if (tarefas.isExecutando("salvarDadosAdicionais")) return;
+            tarefas.executar("salvarDadosAdicionais", () -> Main.medicoServico.atualizarDadosAdicionais(
                 p.getId(), fuma, bebe, colesterol, diabetico, doencas, cirurgias, alergias
-            );
-
-            if (sucesso) {
-                JOptionPane.showMessageDialog(this, "Dados de saúde atualizados com sucesso!");
+            ), sucesso -> {
+                if (sucesso) {
+                    JOptionPane.showMessageDialog(this, "Dados de saúde atualizados com sucesso!");
 
-                // --- A MÁGICA ESTÁ AQUI ---
-                // Recarrega os dados do banco para atualizar o Display de Resumo automaticamente
-                carregarDadosDoPaciente(); 
-                // --------------------------
+                    // --- A MÁGICA ESTÁ AQUI ---
+                    // Recarrega os dados do banco para atualizar o Display de Resumo automaticamente
+                    carregarDadosDoPaciente(); 
+                    // --------------------------
 
-            } else {
-                JOptionPane.showMessageDialog(this, "Erro ao atualizar dados.");
-            }
+                } else {
+                    JOptionPane.showMessageDialog(this, "Erro ao atualizar dados.");
+                }
+            }, e -> JOptionPane.showMessageDialog(this, "Erro técnico: " + e.getMessage()));
 
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Erro técnico: " + e.getMessage());
@@ -577,13 +649,13 @@ public class TelaMedico extends javax.swing.JFrame {
         if (validarSelecao()) {
             try {
                 Medico m = (Medico) cbMedico.getSelectedItem();
-                Paciente p = (Paciente) cbPaciente.getSelectedItem();
+                PacienteResumo p = seletorPaciente.getPacienteSelecionado();
                 
                 // Pega os dias do campo renomeado
                 int dias = Integer.parseInt(txtDiasAfastamento.getText()); 
                 
-                String texto = Main.medicoServico.gerarAtestado(p.getId(), m, dias);
-                jTextArea1.setText(texto);
+                tarefas.executar("documento", () -> Main.medicoServico.gerarAtestado(p.getId(), m, dias), jTextArea1::setText,
+                        e -> JOptionPane.showMessageDialog(this, "Erro ao gerar atestado: " + e.getMessage()));
                 
             } catch (NumberFormatException e) {
                 JOptionPane.showMessageDialog(this, "Digite apenas números no campo de Dias.");
@@ -601,13 +673,13 @@ public class TelaMedico extends javax.swing.JFrame {
         if (validarSelecao()) {
             try {
                 Medico m = (Medico) cbMedico.getSelectedItem();
-                Paciente p = (Paciente) cbPaciente.getSelectedItem();
+                PacienteResumo p = seletorPaciente.getPacienteSelecionado();
                 
                 // Pega o texto do campo renomeado
                 String remedios = txtMedicamentos.getText(); 
                 
-                String texto = Main.medicoServico.gerarReceita(p.getId(), m, remedios);
-                jTextArea1.setText(texto);
+                tarefas.executar("documento", () -> Main.medicoServico.gerarReceita(p.getId(), m, remedios), jTextArea1::setText,
+                        e -> JOptionPane.showMessageDialog(this, "Erro ao gerar receita: " + e.getMessage()));
                 
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this, "Erro ao gerar receita: " + e.getMessage());
@@ -623,14 +695,14 @@ public class TelaMedico extends javax.swing.JFrame {
         if (validarSelecao()) {
             try {
                 Medico m = (Medico) cbMedico.getSelectedItem();
-                Paciente p = (Paciente) cbPaciente.getSelectedItem();
+                PacienteResumo p = seletorPaciente.getPacienteSelecionado();
                 
                 // Pega o nome do acompanhante do campo renomeado
                 String acompanhante = txtAcompanhante.getText();
                 
                 // Passamos 0 dias pois é declaração de comparecimento
-                String texto = Main.medicoServico.gerarDeclaracaoAcompanhamento(p.getId(), m, 0, acompanhante);
-                jTextArea1.setText(texto);
+                tarefas.executar("documento", () -> Main.medicoServico.gerarDeclaracaoAcompanhamento(p.getId(), m, 0, acompanhante), jTextArea1::setText,
+                        e -> JOptionPane.showMessageDialog(this, "Erro ao gerar declaração: " + e.getMessage()));
                 
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this, "Erro ao gerar declaração: " + e.getMessage());
@@ -652,11 +724,11 @@ public class TelaMedico extends javax.swing.JFrame {
 
         int idProntuario = (int) tabelaProntuario.getValueAt(linhaSelecionada, 0);
 
-        if (cbPaciente.getSelectedIndex() <= 0) {
+        if (seletorPaciente.getPacienteSelecionado() == null) {
             JOptionPane.showMessageDialog(this, "Selecione um paciente antes de excluir.");
             return;
         }
-        Paciente p = (Paciente) cbPaciente.getSelectedItem();
+        PacienteResumo p = seletorPaciente.getPacienteSelecionado();
 
         int confirmacao = JOptionPane.showConfirmDialog(this, 
                 "Tem certeza que deseja excluir o prontuário ID " + idProntuario + "?", 
@@ -665,14 +737,15 @@ public class TelaMedico extends javax.swing.JFrame {
 
         if (confirmacao == JOptionPane.YES_OPTION) {
             try {
-                boolean sucesso = Main.medicoServico.removerProntuario(p.getId(), idProntuario);
-
-                if (sucesso) {
-                    JOptionPane.showMessageDialog(this, "Prontuário excluído com sucesso.");
-                    carregarDadosDoPaciente(); // Atualiza a tabela
-                } else {
-                    JOptionPane.showMessageDialog(this, "Erro ao excluir prontuário.");
-                }
+                if (tarefas.isExecutando("excluirProntuario")) return;
+                tarefas.executar("excluirProntuario", () -> Main.medicoServico.removerProntuario(p.getId(), idProntuario), sucesso -> {
+                    if (sucesso) {
+                        JOptionPane.showMessageDialog(this, "Prontuário excluído com sucesso.");
+                        carregarDadosDoPaciente(); // Atualiza a tabela
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Erro ao excluir prontuário.");
+                    }
+                }, e -> JOptionPane.showMessageDialog(this, "Erro técnico: " + e.getMessage()));
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this, "Erro técnico: " + e.getMessage());
                 e.printStackTrace();
@@ -711,32 +784,28 @@ public class TelaMedico extends javax.swing.JFrame {
             int mes = Integer.parseInt(txtMes.getText());
             int ano = Integer.parseInt(txtAno.getText());
 
-            // 3. Busca TODAS as consultas do sistema (A Secretária que agendou)
-            // Precisamos da lista completa para filtrar
-            List<Consulta> todasConsultas = Main.consultaServico.getListaConsultas();
-
-            // 4. Chama o serviço do Médico para filtrar só as dele naquele mês
-            List<Paciente> atendidos = Main.medicoServico.getClientesAtendidosMes(medico.getId(), mes, ano, todasConsultas);
-
-            // 5. Monta o Texto Bonito
-            StringBuilder sb = new StringBuilder();
-            sb.append("=== RELATÓRIO MENSAL DE ATENDIMENTOS ===\n");
-            sb.append("Médico: ").append(medico.getNome()).append("\n");
-            sb.append("Período: ").append(mes).append("/").append(ano).append("\n\n");
-            sb.append("LISTA DE PACIENTES:\n");
-
-            if (atendidos.isEmpty()) {
-                sb.append("Nenhum paciente atendido neste período.");
-            } else {
-                for (Paciente p : atendidos) {
-                    sb.append(" - ").append(p.getNome());
-                    sb.append(" (CPF: ").append(p.getCpf()).append(")\n");
+            // 3. Busca no banco (em segundo plano) apenas os pacientes (sem repetição) do médico naquele mês
+            tarefas.executar("relatorioMensal", () -> Main.medicoServico.getClientesAtendidosMes(medico.getId(), mes, ano), atendidos -> {
+                // 4. Monta o Texto Bonito
+                StringBuilder sb = new StringBuilder();
+                sb.append("=== RELATÓRIO MENSAL DE ATENDIMENTOS ===\n");
+                sb.append("Médico: ").append(medico.getNome()).append("\n");
+                sb.append("Período: ").append(mes).append("/").append(ano).append("\n\n");
+                sb.append("LISTA DE PACIENTES:\n");
+
+                if (atendidos.isEmpty()) {
+                    sb.append("Nenhum paciente atendido neste período.");
+                } else {
+                    for (PacienteResumo p : atendidos) {
+                        sb.append(" - ").append(p.getNome());
+                        sb.append(" (CPF: ").append(p.getCpf()).append(")\n");
+                    }
+                    sb.append("\nTotal: ").append(atendidos.size()).append(" pacientes.");
                 }
-                sb.append("\nTotal: ").append(atendidos.size()).append(" pacientes.");
-            }
 
-            // 6. Joga o texto na caixa branca grande (que já existe na tela)
-            jTextArea1.setText(sb.toString());
+                // 5. Joga o texto na caixa branca grande (que já existe na tela)
+                jTextArea1.setText(sb.toString());
+            }, e -> JOptionPane.showMessageDialog(this, "Erro ao gerar relatório: " + e.getMessage()));
 
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "Por favor, digite apenas números para Mês e Ano.");
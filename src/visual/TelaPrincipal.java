@@ -85,6 +85,7 @@ public class TelaPrincipal extends javax.swing.JFrame {
     }//GEN-LAST:event_btnMedicoActionPerformed
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
+        main.Main.encerrarAplicacao();
         System.exit(0);
     }//GEN-LAST:event_jButton1ActionPerformed
 
@@ -109,6 +110,13 @@ public class TelaPrincipal extends javax.swing.JFrame {
         }
         //</editor-fold>
 
+        /* Start the persistence bootstrap while the menu is being shown */
+        utilitario.JPAUtil.iniciarAquecimento();
+        java.util.concurrent.CompletableFuture.runAsync(main.Main::iniciarAplicacao).exceptionally(ex -> {
+            logger.log(java.util.logging.Level.SEVERE, "Falha ao preparar a aplicação.", ex);
+            return null;
+        });
+
         /* Create and display the form */
         java.awt.EventQueue.invokeLater(() -> new TelaPrincipal().setVisible(true));
     }
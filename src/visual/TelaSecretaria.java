@@ -9,7 +9,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import javax.swing.JOptionPane;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.DefaultComboBoxModel;
 
 /**
@@ -22,6 +21,15 @@ import javax.swing.DefaultComboBoxModel;
  */
 public class TelaSecretaria extends javax.swing.JFrame {
     private Integer idPacienteEdicao = null;
+    private int versaoPacienteEdicao;
+    private static final int TAMANHO_PAGINA_TABELA = 100;
+    private static final int MAXIMO_PAGINAS_TABELA = 10;
+    private static final int QUANTIDADE_SUGESTOES = 5;
+    private ModeloTabelaPaginada<PacienteResumo> modeloPacientes;
+    private ModeloTabelaPaginada<ConsultaResumo> modeloConsultas;
+    private final ExecutorTarefas tarefas = new ExecutorTarefas(this);
+    private SeletorPaciente seletorPaciente;
+    private javax.swing.JRadioButton rbTodosCanais;
     private static final java.util.logging.Logger logger = java.util.logging.Logger.getLogger(TelaSecretaria.class.getName());
        
     /**
@@ -29,11 +37,31 @@ public class TelaSecretaria extends javax.swing.JFrame {
      */
     public TelaSecretaria() {
         initComponents();
+        configurarTabelas();
+        seletorPaciente = new SeletorPaciente(cbPaciente, tarefas);
+        configurarSugestaoHorario();
+        configurarRelatorioTodosCanais();
+        configurarExportacao();
         
-        Main.inicializarDados();
-        preencherComboBoxes();      
-        atualizarTabelaPacientes();
-        atualizarTabelaConsultas();
+        // A carga inicial roda em segundo plano; a tela já aparece enquanto o banco responde
+        tarefas.executar("inicializar", () -> {
+            Main.iniciarAplicacao();
+            Main.inicializarDados();
+            return null;
+        }, r -> {
+            preencherComboBoxes();      
+            atualizarTabelaPacientes();
+            atualizarTabelaConsultas();
+        });
+    }
+
+    /**
+     * Descarta as tarefas de segundo plano pendentes antes de fechar a tela.
+     */
+    @Override
+    public void dispose() {
+        tarefas.cancelarTodas();
+        super.dispose();
     }
 
     /**
@@ -492,21 +520,23 @@ public class TelaSecretaria extends javax.swing.JFrame {
      */
     private void btnAgendarActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnAgendarActionPerformed
         try {
-            if (cbPaciente.getSelectedIndex() <= 0 || cbMedico.getSelectedIndex() <= 0) {
+            PacienteResumo p = seletorPaciente.getPacienteSelecionado();
+            if (p == null || !(cbMedico.getSelectedItem() instanceof Medico)) {
                 JOptionPane.showMessageDialog(this, "Selecione Paciente e Médico.");
                 return;
             }
 
-            Paciente p = (Paciente) cbPaciente.getSelectedItem();
             Medico m = (Medico) cbMedico.getSelectedItem();
             
             DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
             LocalDateTime dataHora = LocalDateTime.parse(txtDataHora.getText(), dtf);
             TipoConsulta tipo = rbNormal.isSelected() ? TipoConsulta.NORMAL : TipoConsulta.RETORNO;
 
-            Main.secretariaServico.cadastrarConsulta(dataHora, m, p, tipo);
-            JOptionPane.showMessageDialog(this, "Agendado!");
-            atualizarTabelaConsultas();
+            if (tarefas.isExecutando("agendar")) return;
+            tarefas.executar("agendar", () -> Main.secretariaServico.cadastrarConsulta(dataHora, m, Main.pacienteServico.buscarPacientePorId(p.getId()), tipo), c -> {
+                JOptionPane.showMessageDialog(this, "Agendado!");
+                atualizarTabelaConsultas();
+            });
 
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Erro: " + e.getMessage());
@@ -529,35 +559,40 @@ public class TelaSecretaria extends javax.swing.JFrame {
      * Gera e exibe o relatório de consultas agendadas para o dia seguinte.
      * O relatório pode ser filtrado por E-mail ou SMS e simula o envio
      * das notificações através do {@link GerenciadorDeMensagensServico}.
+     * As consultas do relatório são registradas na fila de lembretes na mesma transação
+     * (gerar de novo não reenvia); o relatório aparece em seguida e o resumo do envio
+     * é acrescentado quando a fila for processada.
      * * @param evt O evento de ação gerado pelo clique no botão Gerar.
      */
     private void btnGerarActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnGerarActionPerformed
+        if (rbTodosCanais.isSelected()) {
+            gerarLembretesTodosCanais();
+            return;
+        }
         String filtro = rbEmail.isSelected() ? "EMAIL" : "TELEFONE";
         LocalDateTime hoje = LocalDate.now().atStartOfDay();
         
-        List<Consulta> lista = Main.secretariaServico.gerarRelatorioConsultas(hoje, filtro);
-        
-        StringBuilder sb = new StringBuilder();
-        sb.append("--- RELATÓRIO DE AMANHÃ (" + filtro + ") ---\n");
-        
-        for (Consulta c : lista) {
-            sb.append("Paciente: ").append(c.getPaciente().getNome());
-            sb.append(" | Hora: ").append(c.getDataHora().toLocalTime());
+        tarefas.executar("relatorio", () -> Main.secretariaServico.gerarRelatorioERegistrarLembretes(hoje, filtro), lista -> {
+            StringBuilder sb = new StringBuilder();
+            sb.append("--- RELATÓRIO DE AMANHÃ (" + filtro + ") ---\n");
             
-            if (filtro.equals("EMAIL")) 
-                sb.append(" | Email: ").append(c.getPaciente().getContato().getEmail());
-            else 
-                sb.append(" | SMS: ").append(c.getPaciente().getContato().getTelefone());
+            for (Consulta c : lista) {
+                sb.append("Paciente: ").append(c.getPaciente().getNome());
+                sb.append(" | Hora: ").append(c.getDataHora().toLocalTime());
                 
-            sb.append("\n");
-        }
-        
-        if (lista.isEmpty()) sb.append("Nenhuma consulta encontrada.");
-        
-        jTextArea1.setText(sb.toString());
-        
-        if (filtro.equals("EMAIL")) Main.gerenciadorDeMensagensServico.enviarEmails(lista);
-        else Main.gerenciadorDeMensagensServico.enviarMensagensSMS(lista);
+                if (filtro.equals("EMAIL")) 
+                    sb.append(" | Email: ").append(c.getPaciente().getContato().getEmail());
+                else 
+                    sb.append(" | SMS: ").append(c.getPaciente().getContato().getTelefone());
+                    
+                sb.append("\n");
+            }
+            
+            if (lista.isEmpty()) sb.append("Nenhuma consulta encontrada.");
+            
+            jTextArea1.setText(sb.toString());
+            processarLembretes();
+        });
     }//GEN-LAST:event_btnGerarActionPerformed
     
     /**
@@ -580,17 +615,22 @@ public class TelaSecretaria extends javax.swing.JFrame {
             Contato contato = new Contato(txtTelefone.getText(), txtEmail.getText());
             TipoConvenio convenio = rbParticular.isSelected() ? TipoConvenio.PARTICULAR : TipoConvenio.PLANO_SAUDE;
 
-            if (idPacienteEdicao == null) {
-                Main.pacienteServico.cadastrarPaciente(nome, cpf, dataNasc, endereco, contato, convenio);
-                JOptionPane.showMessageDialog(this, "Cadastrado com sucesso!");
-            } else {
-                Main.secretariaServico.atualizarPaciente(idPacienteEdicao, nome, endereco, contato, convenio);
-                JOptionPane.showMessageDialog(this, "Atualizado com sucesso!");
-            }
-
-            limparCamposPacientes();
-            atualizarTabelaPacientes();
-            preencherComboBoxes();
+            if (tarefas.isExecutando("salvarPaciente")) return;
+            Integer idEdicao = idPacienteEdicao;
+            int versaoEdicao = versaoPacienteEdicao;
+            tarefas.executar("salvarPaciente", () -> {
+                if (idEdicao == null) {
+                    Main.pacienteServico.cadastrarPaciente(nome, cpf, dataNasc, endereco, contato, convenio);
+                } else {
+                    Main.secretariaServico.atualizarPaciente(idEdicao, versaoEdicao, nome, endereco, contato, convenio);
+                }
+                return null;
+            }, r -> {
+                JOptionPane.showMessageDialog(this, idEdicao == null ? "Cadastrado com sucesso!" : "Atualizado com sucesso!");
+                limparCamposPacientes();
+                atualizarTabelaPacientes();
+                preencherComboBoxes();
+            });
 
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Erro: " + e.getMessage());
@@ -609,10 +649,13 @@ public class TelaSecretaria extends javax.swing.JFrame {
         }
         
         if (JOptionPane.showConfirmDialog(this, "Excluir paciente?", "Confirmar", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
-            Main.secretariaServico.removerPaciente(idPacienteEdicao);
-            limparCamposPacientes();
-            atualizarTabelaPacientes();
-            preencherComboBoxes();
+            if (tarefas.isExecutando("excluirPaciente")) return;
+            int id = idPacienteEdicao;
+            tarefas.executar("excluirPaciente", () -> Main.secretariaServico.removerPaciente(id), r -> {
+                limparCamposPacientes();
+                atualizarTabelaPacientes();
+                preencherComboBoxes();
+            });
         }
     }//GEN-LAST:event_btnExcluirActionPerformed
        
@@ -624,37 +667,43 @@ public class TelaSecretaria extends javax.swing.JFrame {
     private void tabelaPacientesMouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_tabelaPacientesMouseClicked
         int linha = tabelaPacientes.getSelectedRow();
         if (linha >= 0) {
-            // Pega o ID da coluna 0
-            idPacienteEdicao = (Integer) tabelaPacientes.getValueAt(linha, 0);
+            // Pega o ID da coluna 0 (vazio se a página ainda está carregando)
+            Integer id = (Integer) tabelaPacientes.getValueAt(linha, 0);
+            if (id == null) return;
+            idPacienteEdicao = id;
             
-            Paciente p = Main.pacienteServico.buscarPacientePorId(idPacienteEdicao);
-            if (p != null) {
-                txtNome.setText(p.getNome());
-                txtCpf.setText(p.getCpf());
-                txtDataNasc.setText(p.getDataNascimento().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
-                txtTelefone.setText(p.getContato().getTelefone());
-                txtEmail.setText(p.getContato().getEmail());
-                
-                txtRua.setText(p.getEndereco().getRua());
-                txtNumero.setText(p.getEndereco().getNumero());
-                txtComplemento.setText(p.getEndereco().getComplemento());
-                txtBairro.setText(p.getEndereco().getBairro());
-                txtCidade.setText(p.getEndereco().getCidade());
-                txtUf.setText(p.getEndereco().getUf());
-                
-                if (p.getTipoConvenio() == TipoConvenio.PARTICULAR) rbParticular.setSelected(true);
-                else rbPlanoDeSaude.setSelected(true);
-            }
+            tarefas.executar("carregarPaciente", () -> Main.pacienteServico.buscarPacientePorId(id), p -> {
+                if (p != null) {
+                    versaoPacienteEdicao = p.getVersao();
+                    txtNome.setText(p.getNome());
+                    txtCpf.setText(p.getCpf());
+                    txtDataNasc.setText(p.getDataNascimento().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+                    txtTelefone.setText(p.getContato().getTelefone());
+                    txtEmail.setText(p.getContato().getEmail());
+                    
+                    txtRua.setText(p.getEndereco().getRua());
+                    txtNumero.setText(p.getEndereco().getNumero());
+                    txtComplemento.setText(p.getEndereco().getComplemento());
+                    txtBairro.setText(p.getEndereco().getBairro());
+                    txtCidade.setText(p.getEndereco().getCidade());
+                    txtUf.setText(p.getEndereco().getUf());
+                    
+                    if (p.getTipoConvenio() == TipoConvenio.PARTICULAR) rbParticular.setSelected(true);
+                    else rbPlanoDeSaude.setSelected(true);
+                }
+            });
         }
     }//GEN-LAST:event_tabelaPacientesMouseClicked
 
     private void btnCancelarActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnCancelarActionPerformed
         int linha = jTable1.getSelectedRow();
         if (linha >= 0) {
-            int id = (Integer) jTable1.getValueAt(linha, 0);
-            Main.secretariaServico.removerConsulta(id);
-            atualizarTabelaConsultas();
-            JOptionPane.showMessageDialog(this, "Cancelada.");
+            Integer id = (Integer) jTable1.getValueAt(linha, 0);
+            if (id == null || tarefas.isExecutando("cancelarConsulta")) return;
+            tarefas.executar("cancelarConsulta", () -> Main.secretariaServico.removerConsulta(id), r -> {
+                atualizarTabelaConsultas();
+                JOptionPane.showMessageDialog(this, "Cancelada.");
+            });
         } else {
             JOptionPane.showMessageDialog(this, "Selecione uma consulta.");
         }
@@ -788,59 +837,232 @@ public class TelaSecretaria extends javax.swing.JFrame {
     }
     
     /**
-     * Atualiza a tabela de pacientes com os dados mais recentes do banco de dados.
-     * Limpa a tabela atual e recarrega a lista completa de pacientes.
+     * Substitui os modelos das tabelas de pacientes e consultas por modelos paginados,
+     * que buscam no banco apenas as linhas visíveis.
      */
-    private void atualizarTabelaPacientes() {
-        DefaultTableModel modelo = (DefaultTableModel) tabelaPacientes.getModel();
-        modelo.setNumRows(0);
+    private void configurarTabelas() {
+        modeloPacientes = new ModeloTabelaPaginada<>(
+                new String[]{"ID", "Nome", "CPF", "Telefone"},
+                new Class<?>[]{Integer.class, String.class, String.class, String.class},
+                new ModeloTabelaPaginada.ProvedorDados<PacienteResumo>() {
+                    public int contar() {
+                        return Main.pacienteServico.contarPacientes();
+                    }
+
+                    public List<PacienteResumo> carregar(int inicio, int quantidade) {
+                        return Main.pacienteServico.listarResumoPacientes(inicio, quantidade);
+                    }
+
+                    public List<PacienteResumo> carregarDepois(PacienteResumo ultimo, int quantidade) {
+                        return Main.pacienteServico.listarResumoPacientesPaginado(ultimo.getId(), quantidade).getItens();
+                    }
+
+                    public List<PacienteResumo> carregarAntes(PacienteResumo primeiro, int quantidade) {
+                        return Main.pacienteServico.listarResumoPacientesAntes(primeiro.getId(), quantidade);
+                    }
+                },
+                p -> new Object[]{p.getId(), p.getNome(), p.getCpf(), p.getTelefone()},
+                TAMANHO_PAGINA_TABELA, MAXIMO_PAGINAS_TABELA, tarefas);
+        tabelaPacientes.setModel(modeloPacientes);
+
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        modeloConsultas = new ModeloTabelaPaginada<>(
+                new String[]{"ID", "Data/Hora", "Paciente", "Médico", "Tipo"},
+                new Class<?>[]{Integer.class, String.class, String.class, String.class, String.class},
+                new ModeloTabelaPaginada.ProvedorDados<ConsultaResumo>() {
+                    public int contar() {
+                        return Main.consultaServico.contarConsultas();
+                    }
+
+                    public List<ConsultaResumo> carregar(int inicio, int quantidade) {
+                        return Main.consultaServico.listarResumoConsultas(inicio, quantidade);
+                    }
+
+                    public List<ConsultaResumo> carregarDepois(ConsultaResumo ultima, int quantidade) {
+                        return Main.consultaServico.listarResumoConsultasPaginado(ultima, quantidade).getItens();
+                    }
+
+                    public List<ConsultaResumo> carregarAntes(ConsultaResumo primeira, int quantidade) {
+                        return Main.consultaServico.listarResumoConsultasAntes(primeira, quantidade);
+                    }
+                },
+                c -> new Object[]{c.getId(), c.getDataHora().format(dtf), c.getNomePaciente(), c.getNomeMedico(), c.getTipo().toString()},
+                TAMANHO_PAGINA_TABELA, MAXIMO_PAGINAS_TABELA, tarefas);
+        jTable1.setModel(modeloConsultas);
+    }
+
+    /**
+     * Adiciona à aba de relatórios a opção de gerar os lembretes de todos os pacientes,
+     * cada um pelo seu canal preferido.
+     */
+    private void configurarRelatorioTodosCanais() {
+        rbTodosCanais = new javax.swing.JRadioButton("Todos (E-mail ou SMS)");
+        buttonGroup3.add(rbTodosCanais);
+        jPanel3.add(rbTodosCanais, new org.netbeans.lib.awtextra.AbsoluteConstraints(256, 6, -1, -1));
+    }
+
+    /**
+     * Adiciona à área do relatório o menu (botão direito) que exporta as consultas do dia
+     * seguinte, com o filtro de contato selecionado, para CSV ou JSON.
+     */
+    private void configurarExportacao() {
+        new MenuExportacao(jTextArea1, "consultas-" + LocalDate.now().plusDays(1), (arquivo, formato) -> {
+            String filtro = rbTodosCanais.isSelected() ? null : rbEmail.isSelected() ? "EMAIL" : "TELEFONE";
+            LocalDateTime amanha = LocalDate.now().plusDays(1).atStartOfDay();
+            tarefas.executar("exportar",
+                    () -> Main.exportacaoRelatorioServico.exportarConsultas(amanha, amanha.plusDays(1), filtro, arquivo, formato),
+                    resultado -> JOptionPane.showMessageDialog(this, "Exportação concluída.\n" + resultado),
+                    e -> JOptionPane.showMessageDialog(this, "Erro ao exportar: " + e.getMessage()));
+        });
+    }
+
+    /**
+     * Gera, em segundo plano, os lembretes do dia seguinte de todos os pacientes em uma
+     * única leitura das consultas: e-mail para quem tem e-mail, SMS para quem tem apenas
+     * telefone. Exibe o canal de cada consulta e as quantidades por canal.
+     */
+    private void gerarLembretesTodosCanais() {
+        LocalDateTime hoje = LocalDate.now().atStartOfDay();
         
-        for (Paciente p : Main.pacienteServico.getListaPacientes()) {
-            modelo.addRow(new Object[]{
-                p.getId(), p.getNome(), p.getCpf(), p.getContato().getTelefone()
-            });
+        tarefas.executar("relatorio", () -> Main.secretariaServico.gerarLembretesDiaSeguinte(hoje), geracao -> {
+            StringBuilder sb = new StringBuilder();
+            sb.append("--- LEMBRETES DE AMANHÃ (E-MAIL E SMS) ---\n");
+            
+            for (Consulta c : geracao.getConsultas()) {
+                CanalMensagem canal = geracao.getCanal(c);
+                sb.append("Paciente: ").append(c.getPaciente().getNome());
+                sb.append(" | Hora: ").append(c.getDataHora().toLocalTime());
+                if (canal == CanalMensagem.EMAIL)
+                    sb.append(" | Email: ").append(c.getPaciente().getContato().getEmail());
+                else if (canal == CanalMensagem.SMS)
+                    sb.append(" | SMS: ").append(c.getPaciente().getContato().getTelefone());
+                else
+                    sb.append(" | Sem lembrete");
+                sb.append("\n");
+            }
+            
+            if (geracao.getConsultas().isEmpty()) sb.append("Nenhuma consulta encontrada.");
+            else sb.append("\n").append(geracao).append("\n");
+            
+            jTextArea1.setText(sb.toString());
+            processarLembretes();
+        });
+    }
+
+    /**
+     * Envia, em segundo plano, os lembretes pendentes da fila e acrescenta o resumo ao relatório.
+     * Se um envio anterior (desta tela ou do agendador de lembretes) ainda estiver em
+     * andamento, os novos lembretes serão enviados por ele.
+     */
+    private void processarLembretes() {
+        if (tarefas.isExecutando("lembretes")) return;
+        tarefas.executar("lembretes", Main.lembreteServico::processarPendentesSeLivre,
+                resultado -> jTextArea1.append("\n--- ENVIO ---\n"
+                        + (resultado != null ? resultado : "Os lembretes estão sendo enviados em segundo plano.") + "\n"));
+    }
+
+    /**
+     * Adiciona à aba de consultas o botão que sugere os próximos horários livres.
+     */
+    private void configurarSugestaoHorario() {
+        javax.swing.JButton btnSugerir = new javax.swing.JButton("Sugerir horário");
+        btnSugerir.addActionListener(e -> sugerirHorario());
+        jPanel2.add(btnSugerir, new org.netbeans.lib.awtextra.AbsoluteConstraints(260, 70, -1, -1));
+    }
+
+    /**
+     * Busca, em segundo plano, os próximos horários livres para o tipo de consulta marcado:
+     * do médico selecionado ou, se nenhum estiver selecionado, de todos os médicos da
+     * especialização escolhida. O horário escolhido preenche o campo de data e o médico.
+     */
+    private void sugerirHorario() {
+        TipoConsulta tipo = rbNormal.isSelected() ? TipoConsulta.NORMAL : TipoConsulta.RETORNO;
+        LocalDateTime agora = LocalDateTime.now();
+
+        if (cbMedico.getSelectedItem() instanceof Medico) {
+            Medico m = (Medico) cbMedico.getSelectedItem();
+            tarefas.executar("sugerirHorario",
+                    () -> Main.agendamentoServico.buscarHorariosLivres(m, tipo, agora, QUANTIDADE_SUGESTOES),
+                    this::escolherHorario);
+            return;
+        }
+
+        java.util.Set<String> especializacoes = new java.util.TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < cbMedico.getItemCount(); i++) {
+            if (cbMedico.getItemAt(i) instanceof Medico) {
+                especializacoes.add(((Medico) cbMedico.getItemAt(i)).getEspecializacao());
+            }
+        }
+        if (especializacoes.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Nenhum médico cadastrado.");
+            return;
         }
+        Object especializacao = JOptionPane.showInputDialog(this, "Especialização:", "Sugerir horário",
+                JOptionPane.QUESTION_MESSAGE, null, especializacoes.toArray(), null);
+        if (especializacao == null) {
+            return;
+        }
+        tarefas.executar("sugerirHorario",
+                () -> Main.agendamentoServico.buscarHorariosLivresPorEspecializacao(especializacao.toString(), tipo, agora, QUANTIDADE_SUGESTOES),
+                this::escolherHorario);
+    }
+
+    /**
+     * Mostra os horários sugeridos e aplica o escolhido ao formulário de agendamento.
+     */
+    private void escolherHorario(List<HorarioDisponivel> horarios) {
+        if (horarios.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Nenhum horário livre nos próximos " + AgendamentoServico.DIAS_PESQUISADOS + " dias.");
+            return;
+        }
+        Object escolhido = JOptionPane.showInputDialog(this, "Horários livres:", "Sugerir horário",
+                JOptionPane.QUESTION_MESSAGE, null, horarios.toArray(), horarios.get(0));
+        if (!(escolhido instanceof HorarioDisponivel)) {
+            return;
+        }
+        HorarioDisponivel horario = (HorarioDisponivel) escolhido;
+        txtDataHora.setText(horario.getInicio().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
+        for (int i = 0; i < cbMedico.getItemCount(); i++) {
+            Object item = cbMedico.getItemAt(i);
+            if (item instanceof Medico && ((Medico) item).getId() == horario.getMedico().getId()) {
+                cbMedico.setSelectedIndex(i);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Atualiza a tabela de pacientes com os dados mais recentes do banco de dados.
+     * Apenas o total é recontado; as linhas visíveis são buscadas sob demanda.
+     */
+    private void atualizarTabelaPacientes() {
+        modeloPacientes.recarregar();
     }
     
     /**
      * Atualiza a tabela de consultas agendadas.
-     * Busca a lista de consultas e exibe informações como data, paciente, médico e tipo.
+     * Exibe data, paciente, médico e tipo, buscando apenas as linhas visíveis.
      */
     private void atualizarTabelaConsultas() {
-        DefaultTableModel modelo = (DefaultTableModel) jTable1.getModel(); // Sua tabela chama jTable1
-        modelo.setNumRows(0);
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        
-        for (Consulta c : Main.consultaServico.getListaConsultas()) {
-            modelo.addRow(new Object[]{
-                c.getId(),
-                c.getDataHora().format(dtf),
-                c.getPaciente().getNome(),
-                c.getMedico().getNome(),
-                c.getTipo()
-            });
-        }
+        modeloConsultas.recarregar();
     }
     
     /**
-     * Preenche os ComboBoxes de Pacientes e Médicos com dados do banco.
+     * Preenche o ComboBox de Médicos com dados do banco e atualiza as sugestões
+     * do seletor de pacientes, que busca apenas os pacientes correspondentes ao texto digitado.
      * Facilita a seleção durante o agendamento de consultas.
      */
     private void preencherComboBoxes() {
-        // Pacientes
-        DefaultComboBoxModel modelP = (DefaultComboBoxModel) cbPaciente.getModel();
-        modelP.removeAllElements();
-        modelP.addElement("Selecione...");
-        for (Paciente p : Main.pacienteServico.getListaPacientes()) {
-            modelP.addElement(p);
-        }
+        seletorPaciente.recarregar();
 
         // Médicos
-        DefaultComboBoxModel modelM = (DefaultComboBoxModel) cbMedico.getModel();
-        modelM.removeAllElements();
-        modelM.addElement("Selecione...");
-        for (Medico m : Main.medicoServico.listarTodos()) {
-            modelM.addElement(m);
-        }
+        tarefas.executar("comboMedicos", Main.medicoServico::listarTodos, medicos -> {
+            DefaultComboBoxModel modelM = (DefaultComboBoxModel) cbMedico.getModel();
+            modelM.removeAllElements();
+            modelM.addElement("Selecione...");
+            for (Medico m : medicos) {
+                modelM.addElement(m);
+            }
+        });
     }
 }